@@ -8,12 +8,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 import players.Player;
 import players.TeamSelectionCallback;
+import pokemon.DamageCalculator;
 import pokemon.Move;
 import pokemon.Species;
 import client.PokemonClient;
+import logging.Log;
+import logging.LogCategory;
 import network.BattleStateDTO;
 
 public class BattleSwing extends JFrame implements TeamSelectionCallback {
@@ -22,7 +26,9 @@ public class BattleSwing extends JFrame implements TeamSelectionCallback {
     private Player player2;
     private List<PokemonInstance> team1;
     private List<PokemonInstance> team2;
-    private final Random random = new Random();
+    // Único gerador da batalha local; -Dpokemon.battle.seed=N reproduz uma partida
+    private final transient long seed = Long.getLong("pokemon.battle.seed", System.nanoTime());
+    private final transient SplittableRandom random = new SplittableRandom(seed);
 
     private boolean networked = false;
     private client.PokemonClient clientRef = null;
@@ -210,6 +216,7 @@ public class BattleSwing extends JFrame implements TeamSelectionCallback {
 
     private void initBattle() {
         System.out.println("=== Iniciando batalha ===");
+        Log.info(LogCategory.CLIENT, "🎲 Batalha local iniciada (semente {})", seed);
         active1 = nextActive(team1);
         active2 = nextActive(team2);
         p1Turn = random.nextBoolean();
@@ -238,7 +245,7 @@ public class BattleSwing extends JFrame implements TeamSelectionCallback {
             showMoves(atk);
         } else {
             Timer t = new Timer(800, e -> {
-                execute(atk, def, atk.getNextMove());
+                execute(atk, def, atk.getNextMove(random));
             });
             t.setRepeats(false);
             t.start();
@@ -318,9 +325,15 @@ public class BattleSwing extends JFrame implements TeamSelectionCallback {
     }
 
     private void execute(PokemonInstance atk, PokemonInstance def, Move mv) {
-        int dmg = mv.getPower();
+        int roll = DamageCalculator.roll(atk.getSpecies(), def.getSpecies(), mv, random);
+        int dmg = DamageCalculator.damageOf(roll);
         def.receiveDamage(dmg);
-        log(atk.getSpecies().getName() + " usou " + mv.getName() + " e causou " + dmg + " de dano.");
+        if (DamageCalculator.isMiss(roll)) {
+            log(atk.getSpecies().getName() + " usou " + mv.getName() + ", mas errou!");
+        } else {
+            log(atk.getSpecies().getName() + " usou " + mv.getName() + " e causou " + dmg + " de dano."
+                    + DamageCalculator.describe(roll, mv, def.getSpecies()));
+        }
         updateDisplay();
         p1Turn = !p1Turn;
         Timer t = new Timer(800, e -> nextTurn());
@@ -552,9 +565,9 @@ public class BattleSwing extends JFrame implements TeamSelectionCallback {
             currentHp = Math.max(0, currentHp - d);
         }
 
-        public Move getNextMove() {
+        public Move getNextMove(RandomGenerator random) {
             Move[] m = species.getMoves();
-            return m[new Random().nextInt(m.length)];
+            return m[random.nextInt(m.length)];
         }
     }
 }
@@ -3,6 +3,7 @@ package client;
 import gui.BattleEndFrame;
 import network.BattleInitPayload;
 import network.BattleStateDTO;
+import network.CodecType;
 import network.Message;
 import network.MessageType;
 import network.NetworkConstants;
@@ -15,9 +16,18 @@ import pokemon.Species;
 import javax.swing.*;
 import java.io.IOException;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import network.BattleEndData;
+import network.LobbyUpdate;
+import network.RedirectInfo;
 import network.RematchRequest;
+import network.TurnResult;
+import logging.Log;
+import logging.LogCategory;
 
 /**
  * Cliente Pokémon: gerencia conexão, seleção de time e a batalha. Versão
@@ -39,6 +49,15 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
     private BattleSwing battleSwing;
     private JDialog waitingDialog;
 
+    // Retomada após reinício do servidor: token recebido ao conectar
+    private volatile String resumeToken;
+    private volatile boolean closing = false;
+    // Servidor standby anunciado pelo primário (alternativa ao reconectar)
+    private volatile RedirectInfo standby;
+
+    // Jogadores no lobby: lista completa ao entrar, depois só as diferenças
+    private final Set<String> lobbyPlayers = Collections.synchronizedSet(new LinkedHashSet<>());
+
     // Instância singleton para acesso global
     private static PokemonClient instance;
 
@@ -58,11 +77,11 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
      */
     public void sendMove(int moveIndex) {
         if (!connected || networkManager == null) {
-            System.err.println("Não conectado ao servidor - movimento ignorado");
+            Log.warn(LogCategory.CLIENT, "Não conectado ao servidor - movimento ignorado");
             return;
         }
 
-        System.out.println("Enviando movimento: " + moveIndex);
+        Log.debug(LogCategory.CLIENT, "Enviando movimento: {}", moveIndex);
         networkManager.sendMessage(
                 new Message(MessageType.MOVE_EXECUTE, playerName, moveIndex)
         );
@@ -86,26 +105,10 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
      */
     public boolean connect() {
         try {
-            System.out.println("Tentando conectar a " + serverHost + ":" + serverPort);
-            socket = new Socket(serverHost, serverPort);
-            networkManager = new NetworkManager(socket);
-            networkManager.setMessageListener(this);
-            networkManager.setConnectionListener(this);
-
-            if (!networkManager.initialize()) {
-                System.err.println("Falha ao inicializar NetworkManager");
-                return false;
-            }
-
-            networkManager.start();
-
-            // Envia pedido de conexão
-            networkManager.sendMessage(new Message(MessageType.CONNECT_REQUEST, playerName, null));
-            System.out.println("Solicitação de conexão enviada");
-            return true;
+            return openConnection();
 
         } catch (IOException e) {
-            System.err.println("Erro de conexão: " + e.getMessage());
+            Log.error(LogCategory.CLIENT, "Erro de conexão: {}", e.getMessage());
             SwingUtilities.invokeLater(()
                     -> JOptionPane.showMessageDialog(null,
                             "Não foi possível conectar ao servidor:\n" + e.getMessage(),
@@ -115,30 +118,119 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
         }
     }
 
+    /**
+     * Abre o socket e envia o CONNECT_REQUEST (com o token de retomada, se houver)
+     */
+    private boolean openConnection() throws IOException {
+        return openConnection(serverHost, serverPort);
+    }
+
+    private boolean openConnection(String host, int port) throws IOException {
+        Log.info(LogCategory.CLIENT, "Tentando conectar a {}:{}", host, port);
+        socket = new Socket(host, port);
+        serverHost = host;
+        serverPort = port;
+        networkManager = new NetworkManager(socket, CodecType.fromSystemProperty());
+        networkManager.setMessageListener(this);
+        networkManager.setConnectionListener(this);
+
+        if (!networkManager.initialize()) {
+            Log.error(LogCategory.CLIENT, "Falha ao inicializar NetworkManager");
+            return false;
+        }
+
+        networkManager.start();
+
+        // Envia pedido de conexão
+        networkManager.sendMessage(new Message(MessageType.CONNECT_REQUEST, playerName, resumeToken));
+        Log.info(LogCategory.CLIENT, "Solicitação de conexão enviada");
+        return true;
+    }
+
+    /**
+     * Tenta reconectar até RESUME_TIMEOUT (servidor reiniciando ou standby
+     * assumindo, em tentativas alternadas); o servidor religa a batalha pelo
+     * nome + token de retomada
+     */
+    private void startReconnect() {
+        Thread reconnect = new Thread(() -> {
+            long deadline = System.currentTimeMillis() + NetworkConstants.RESUME_TIMEOUT;
+            int attempt = 0;
+            while (!closing && System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(NetworkConstants.RECONNECT_INTERVAL);
+                    RedirectInfo fallback = standby;
+                    if (fallback != null && attempt++ % 2 == 1) {
+                        if (openConnection(fallback.getHost(), fallback.getPort())) {
+                            standby = null; // O standby agora é o servidor atual
+                            return;
+                        }
+                    } else if (openConnection()) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    Log.debug(LogCategory.CLIENT, "Servidor ainda indisponível: {}", e.getMessage());
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            showConnectionLost();
+        }, "Reconnect-" + playerName);
+        reconnect.setDaemon(true);
+        reconnect.start();
+    }
+
+    /**
+     * Servidor em cluster: a partida vai acontecer em outro nó; reconecta lá
+     * apresentando o token de hand-off
+     */
+    private void handleRedirect(Message msg) {
+        RedirectInfo redirect = (RedirectInfo) msg.getData();
+        Log.info(LogCategory.CLIENT, "↪️ Redirecionado para {}", redirect);
+
+        NetworkManager previous = networkManager;
+        previous.setConnectionListener(null); // Troca de nó, não é perda de conexão
+        previous.disconnect();
+
+        serverHost = redirect.getHost();
+        serverPort = redirect.getPort();
+        resumeToken = redirect.getToken();
+        try {
+            if (!openConnection()) {
+                showConnectionLost();
+            }
+        } catch (IOException e) {
+            Log.error(LogCategory.CLIENT, "Falha ao conectar em {}: {}", redirect, e.getMessage());
+            showConnectionLost();
+        }
+    }
+
     /**
      * Desconecta do servidor e fecha recursos.
      */
     public void disconnect() {
-        System.out.println("Desconectando do servidor...");
+        Log.info(LogCategory.CLIENT, "Desconectando do servidor...");
+        closing = true;
 
         if (networkManager != null) {
+            // O socket é fechado pela thread escritora depois de enviar o DISCONNECT
             networkManager.sendMessage(new Message(MessageType.DISCONNECT, playerName, null));
-            networkManager.disconnect();
-        }
-
-        try {
-            if (socket != null) {
-                socket.close();
+            networkManager.disconnectAfterFlush();
+        } else {
+            try {
+                if (socket != null) {
+                    socket.close();
+                }
+            } catch (IOException ignore) {
             }
-        } catch (IOException ignore) {
         }
 
         connected = false;
-        System.out.println("Desconectado do servidor");
+        Log.info(LogCategory.CLIENT, "Desconectado do servidor");
     }
 
     private void handleTeamSelectionRestart(Message msg) {
-        System.out.println("Reiniciando seleção de time para revanche");
+        Log.info(LogCategory.CLIENT, "Reiniciando seleção de time para revanche");
 
         SwingUtilities.invokeLater(() -> {
             // Fechar tela de batalha se estiver aberta
@@ -165,7 +257,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
 
     @Override
     public void onMessageReceived(Message message) {
-        System.out.println("📨 Mensagem recebida: " + message.getType() + " de " + message.getSender());
+        Log.debug(LogCategory.CLIENT, "📨 Mensagem recebida: {} de {}", message.getType(), message.getSender());
 
         switch (message.getType()) {
             case TEAM_SELECTION_RESTART:
@@ -189,34 +281,65 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
             case MOVE_REQUEST:
                 handleMoveRequest(message);
                 break;
+            case TURN_RESULT:
+                handleTurnResult(message);
+                break;
             case BATTLE_END:
                 handleBattleEnd(message);
                 break;
             case ERROR:
+            case INVALID_MOVE:
                 handleError(message);
                 break;
             case REMATCH_RESPONSE:
                 handleRematchResponse(message);
                 break;
+            case RESUME_TOKEN:
+                resumeToken = (String) message.getData();
+                break;
+            case REDIRECT:
+                handleRedirect(message);
+                break;
+            case STANDBY_ADDRESS:
+                standby = (RedirectInfo) message.getData();
+                break;
+            case PLAYER_LIST:
+                lobbyPlayers.clear();
+                applyLobbyUpdate((LobbyUpdate) message.getData());
+                break;
+            case LOBBY_UPDATE:
+                applyLobbyUpdate((LobbyUpdate) message.getData());
+                break;
             case HEARTBEAT:
-                if (networkManager != null) {
+                // Responder apenas a pings (responder a pongs criaria um loop)
+                if (networkManager != null && "ping".equals(message.getData())) {
                     networkManager.sendMessage(new Message(MessageType.HEARTBEAT, playerName, "pong"));
                 }
                 break;
             default:
-                System.out.println("Mensagem ignorada: " + message.getType());
+                Log.debug(LogCategory.CLIENT, "Mensagem ignorada: {}", message.getType());
         }
     }
 
     @Override
     public void onConnected() {
-        System.out.println("Conexão estabelecida com o servidor");
+        Log.info(LogCategory.CLIENT, "Conexão estabelecida com o servidor");
     }
 
     @Override
     public void onDisconnected() {
         connected = false;
-        System.out.println("Conexão perdida com o servidor");
+        Log.info(LogCategory.CLIENT, "Conexão perdida com o servidor");
+
+        if (!closing && resumeToken != null) {
+            Log.info(LogCategory.CLIENT, "Tentando retomar a partida...");
+            startReconnect();
+            return;
+        }
+        showConnectionLost();
+    }
+
+    private void showConnectionLost() {
         SwingUtilities.invokeLater(()
                 -> JOptionPane.showMessageDialog(null,
                         NetworkConstants.CONNECTION_LOST_MSG,
@@ -226,7 +349,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
 
     @Override
     public void onError(Exception e) {
-        System.err.println("Erro de rede: " + e.getMessage());
+        Log.error(LogCategory.CLIENT, "Erro de rede: {}", e.getMessage());
         SwingUtilities.invokeLater(()
                 -> JOptionPane.showMessageDialog(null,
                         "Erro na comunicação: " + e.getMessage(),
@@ -236,9 +359,14 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
 
     private void handleConnectResponse(Message msg) {
         Object data = msg.getData();
-        if ("OK".equals(data)) {
+        if ("RESUMED".equals(data)) {
+            // Servidor religou a partida: BATTLE_INIT/BATTLE_STATE chegam em seguida
+            connected = true;
+            Log.info(LogCategory.CLIENT, "Partida retomada após reinício do servidor");
+
+        } else if ("OK".equals(data)) {
             connected = true;
-            System.out.println("Conectado ao servidor com sucesso!");
+            Log.info(LogCategory.CLIENT, "Conectado ao servidor com sucesso!");
 
             SwingUtilities.invokeLater(() -> {
                 JOptionPane.showMessageDialog(null,
@@ -255,7 +383,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
             networkManager.sendMessage(new Message(MessageType.PLAYER_JOIN, playerName, null));
 
         } else {
-            System.err.println("Conexão rejeitada: " + data);
+            Log.error(LogCategory.CLIENT, "Conexão rejeitada: {}", data);
             SwingUtilities.invokeLater(()
                     -> JOptionPane.showMessageDialog(null,
                             "Conexão rejeitada: " + data,
@@ -266,7 +394,35 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
     }
 
     private void handlePlayerJoin(Message msg) {
-        System.out.println("Jogador entrou: " + msg.getSender());
+        Log.info(LogCategory.CLIENT, "Jogador entrou: {}", msg.getSender());
+    }
+
+    private void applyLobbyUpdate(LobbyUpdate update) {
+        lobbyPlayers.addAll(update.getJoined());
+        lobbyPlayers.removeAll(update.getLeft());
+        List<String> chat = update.getChat();
+        for (int i = 0; i + 1 < chat.size(); i += 2) {
+            Log.info(LogCategory.CLIENT, "💬 {}: {}", chat.get(i), chat.get(i + 1));
+        }
+        Log.debug(LogCategory.CLIENT, "Lobby: {} jogadores", lobbyPlayers.size());
+    }
+
+    /**
+     * Envia uma mensagem para o chat do lobby
+     */
+    public void sendChat(String text) {
+        if (isConnected()) {
+            networkManager.sendMessage(new Message(MessageType.LOBBY_CHAT, playerName, text));
+        }
+    }
+
+    /**
+     * Jogadores presentes no lobby (cópia)
+     */
+    public List<String> getLobbyPlayers() {
+        synchronized (lobbyPlayers) {
+            return new ArrayList<>(lobbyPlayers);
+        }
     }
 
     /**
@@ -274,11 +430,11 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
      */
     private void sendTeamSelection(List<Species> team) {
         if (!connected) {
-            System.err.println("Não conectado - time não enviado");
+            Log.warn(LogCategory.CLIENT, "Não conectado - time não enviado");
             return;
         }
 
-        System.out.println("Enviando time de " + team.size() + " Pokémon");
+        Log.info(LogCategory.CLIENT, "Enviando time de {} Pokémon", team.size());
         networkManager.sendMessage(
                 new Message(MessageType.TEAM_SELECTION_COMPLETE, playerName, team)
         );
@@ -305,9 +461,9 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
         BattleInitPayload init = (BattleInitPayload) msg.getData();
         String opponent = msg.getSender();
 
-        System.out.println("Inicializando batalha contra " + opponent);
-        System.out.println("Seus Pokémon: " + init.teamA.size());
-        System.out.println("Pokémon do oponente: " + init.teamB.size());
+        Log.info(LogCategory.CLIENT, "Inicializando batalha contra {}", opponent);
+        Log.info(LogCategory.CLIENT, "Seus Pokémon: {}", init.teamA.size());
+        Log.info(LogCategory.CLIENT, "Pokémon do oponente: {}", init.teamB.size());
 
         SwingUtilities.invokeLater(() -> {
             // Fecha diálogo de espera
@@ -316,6 +472,11 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
                 waitingDialog = null;
             }
 
+            // Batalha retomada: substitui a janela anterior
+            if (battleSwing != null) {
+                battleSwing.dispose();
+            }
+
             // Cria a janela de batalha unificada
             battleSwing = new BattleSwing(
                     playerName,
@@ -325,12 +486,12 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
             );
 
             battleSwing.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-            System.out.println("Janela de batalha criada");
+            Log.info(LogCategory.CLIENT, "Janela de batalha criada");
         });
     }
 
     private void handleBattleStart(Message msg) {
-        System.out.println("Batalha iniciada!");
+        Log.info(LogCategory.CLIENT, "Batalha iniciada!");
 
         SwingUtilities.invokeLater(() -> {
             if (battleSwing != null) {
@@ -353,7 +514,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
      */
     private void handleBattleState(Message msg) {
         BattleStateDTO state = (BattleStateDTO) msg.getData();
-        System.out.println("Estado da batalha atualizado - HP: " + state.hpP1 + "/" + state.hpP2);
+        Log.debug(LogCategory.CLIENT, "Estado da batalha atualizado - HP: {}/{}", state.hpP1, state.hpP2);
 
         SwingUtilities.invokeLater(() -> {
             if (battleSwing != null) {
@@ -366,7 +527,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
      * Servidor solicita escolha de movimento
      */
     private void handleMoveRequest(Message msg) {
-        System.out.println("Solicitação de movimento recebida");
+        Log.debug(LogCategory.CLIENT, "Solicitação de movimento recebida");
 
         SwingUtilities.invokeLater(() -> {
             if (battleSwing != null) {
@@ -375,11 +536,35 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
         });
     }
 
+    /**
+     * Resultado de um turno em um único frame: golpe, desmaios, estado e próxima jogada
+     */
+    private void handleTurnResult(Message msg) {
+        TurnResult turn = (TurnResult) msg.getData();
+        Log.debug(LogCategory.CLIENT, "Resultado do turno: {}", turn.getMoveResult());
+
+        SwingUtilities.invokeLater(() -> {
+            if (battleSwing == null) {
+                return;
+            }
+            if (turn.getMoveResult() != null) {
+                battleSwing.showEvent(turn.getMoveResult());
+            }
+            for (String faint : turn.getFaintMessages()) {
+                battleSwing.showEvent(faint);
+            }
+            battleSwing.updateBattleState(turn.getState());
+            if (turn.isYourTurn()) {
+                battleSwing.enableMoveSelection();
+            }
+        });
+    }
+
     private void handleRematchResponse(Message msg) {
         boolean accepted = Boolean.TRUE.equals(msg.getData());
 
         if (!accepted) {
-            System.out.println("Revanche recusada pelo oponente");
+            Log.info(LogCategory.CLIENT, "Revanche recusada pelo oponente");
 
             SwingUtilities.invokeLater(() -> {
                 if (currentBattleEndFrame != null) {
@@ -400,7 +585,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
         String result = data.getResult();
         boolean isWinner = data.isWinner();
 
-        System.out.println("Batalha finalizada - " + result);
+        Log.info(LogCategory.CLIENT, "Batalha finalizada - {}", result);
 
         SwingUtilities.invokeLater(() -> {
             // Fechar janela de batalha
@@ -437,7 +622,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
                             new Message(MessageType.REMATCH_RESPONSE, playerName, false)
                     );
 
-                    System.out.println("Jogador recusou revanche - notificação enviada");
+                    Log.info(LogCategory.CLIENT, "Jogador recusou revanche - notificação enviada");
                     // Pode fechar também, se quiser
                     System.exit(0);
                 }
@@ -449,7 +634,7 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
 
     private void handleError(Message msg) {
         String err = msg.getData() == null ? "Erro desconhecido" : msg.getData().toString();
-        System.err.println("Erro do servidor: " + err);
+        Log.error(LogCategory.CLIENT, "Erro do servidor: {}", err);
 
         SwingUtilities.invokeLater(()
                 -> JOptionPane.showMessageDialog(null, err, "Erro do Servidor", JOptionPane.ERROR_MESSAGE)
@@ -462,22 +647,22 @@ public class PokemonClient implements NetworkManager.MessageListener, NetworkMan
         int port = args.length > 2
                 ? Integer.parseInt(args[2]) : NetworkConstants.DEFAULT_PORT;
 
-        System.out.println("🎮 Iniciando cliente Pokémon...");
-        System.out.println("👤 Jogador: " + name);
-        System.out.println("🌐 Servidor: " + host + ":" + port);
+        Log.info(LogCategory.CLIENT, "🎮 Iniciando cliente Pokémon...");
+        Log.info(LogCategory.CLIENT, "👤 Jogador: {}", name);
+        Log.info(LogCategory.CLIENT, "🌐 Servidor: {}:{}", host, port);
 
         PokemonClient client = new PokemonClient(name, host, port);
 
         if (client.connect()) {
-            System.out.println("Cliente iniciado com sucesso");
+            Log.info(LogCategory.CLIENT, "Cliente iniciado com sucesso");
 
             // Hook para desconexão graciosa
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                System.out.println("\n Encerrando cliente...");
+                Log.info(LogCategory.CLIENT, "\n Encerrando cliente...");
                 client.disconnect();
             }));
         } else {
-            System.err.println("Falha ao iniciar cliente");
+            Log.error(LogCategory.CLIENT, "Falha ao iniciar cliente");
             System.exit(1);
         }
     }
@@ -70,7 +70,7 @@ public class BattleSwing extends JFrame {
     }
 
     /**
-     * Atualizado toda vez que o servidor envia um BATTLE_STATE.
+     * Atualizado toda vez que o servidor envia um BATTLE_STATE ou TURN_RESULT.
      */
     public void updateBattleState(BattleStateDTO state) {
         /* HP */
@@ -90,6 +90,13 @@ public class BattleSwing extends JFrame {
         statusLabel.setText(turnMsg);
     }
 
+    /**
+     * Mostra no log da batalha um evento enviado pelo servidor (golpe, desmaio).
+     */
+    public void showEvent(String msg) {
+        log(msg);
+    }
+
     /**
      * Chamado quando o servidor envia MOVE_REQUEST para este cliente.
      * Habilita os botões de golpe do Pokémon ativo.
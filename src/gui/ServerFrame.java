@@ -1,6 +1,8 @@
 package gui;
 
 import server.PokemonServer;
+import server.ServerMetrics;
+import server.ServerMetricsListener;
 import network.NetworkConstants;
 
 import javax.swing.*;
@@ -10,7 +12,7 @@ import java.awt.event.WindowEvent;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
-public class ServerFrame extends JFrame {
+public class ServerFrame extends JFrame implements ServerMetricsListener {
     
     private PokemonServer server;
     
@@ -28,6 +30,10 @@ public class ServerFrame extends JFrame {
     private long startTime;
     private Timer uptimeTimer;
     private boolean serverRunning = false;
+    private boolean lastRunning = false;
+    private int lastClientCount = -1;
+    private int lastSessionCount = -1;
+    private int lastRetainedSessions = -1;
     
     public ServerFrame() {
         initializeGUI();
@@ -198,7 +204,7 @@ public class ServerFrame extends JFrame {
             
             addLog("🚀 Iniciando servidor...");
             server = new PokemonServer(NetworkConstants.DEFAULT_PORT);
-            server.setServerFrame(this);
+            server.addMetricsListener(this);
             server.start();
             
             serverRunning = true;
@@ -342,12 +348,42 @@ public class ServerFrame extends JFrame {
     }
     
     public void updateSessionCount(int count) {
+        updateSessionCount(count, 0);
+    }
+
+    /**
+     * Total de sessões, indicando quantas já terminaram e aguardam revanche
+     */
+    public void updateSessionCount(int count, int retained) {
         SwingUtilities.invokeLater(() -> {
-            sessionCountLabel.setText(String.valueOf(count));
+            sessionCountLabel.setText(retained > 0 ? count + " (" + retained + " aguardando revanche)" : String.valueOf(count));
             addLog("🎲 Sessões ativas: " + count);
         });
     }
     
+    /**
+     * Foto das métricas publicada pelo servidor (no máximo 4 por segundo)
+     */
+    @Override
+    public void onSnapshot(ServerMetrics.Snapshot snapshot) {
+        SwingUtilities.invokeLater(() -> {
+            if (snapshot.isRunning() != lastRunning) {
+                lastRunning = snapshot.isRunning();
+                setServerStatus(lastRunning ? "Rodando" : "Parado");
+            }
+            if (snapshot.getClientCount() != lastClientCount) {
+                lastClientCount = snapshot.getClientCount();
+                updateClientCount(lastClientCount);
+            }
+            if (snapshot.getSessionCount() != lastSessionCount
+                    || snapshot.getRetainedSessions() != lastRetainedSessions) {
+                lastSessionCount = snapshot.getSessionCount();
+                lastRetainedSessions = snapshot.getRetainedSessions();
+                updateSessionCount(lastSessionCount, lastRetainedSessions);
+            }
+        });
+    }
+
     public void setServer(PokemonServer server) {
         this.server = server;
     }
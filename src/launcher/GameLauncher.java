@@ -126,7 +126,7 @@ public class GameLauncher extends JFrame {
             
             // Criar e iniciar servidor
             PokemonServer server = new PokemonServer(NetworkConstants.DEFAULT_PORT);
-            server.setServerFrame(serverFrame);
+            server.addMetricsListener(serverFrame);
             server.start();
             
             // Conectar servidor à interface
@@ -0,0 +1,235 @@
+package logging;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffer circular pré-alocado de eventos de log, esvaziado por uma thread
+ * escritora. Quem loga só reserva um slot (CAS), copia referências e publica;
+ * formatação e I/O acontecem na thread escritora. Com o buffer cheio o evento
+ * é descartado e contado, sem bloquear a thread do jogo.
+ */
+final class AsyncLogWriter {
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final long IDLE_PARK_NANOS = 5_000_000; // 5 ms sem eventos
+    private static final int MAX_BATCH = 256;
+
+    /**
+     * Slot reutilizável do buffer. sequence = posição + 1 quando publicado.
+     */
+    private static final class Slot {
+        volatile long sequence;
+        long timestamp;
+        LogLevel level;
+        LogCategory category;
+        String thread;
+        String template;
+        Object arg0;
+        Object arg1;
+        Object arg2;
+        Throwable error;
+
+        void clear() {
+            thread = null;
+            template = null;
+            arg0 = null;
+            arg1 = null;
+            arg2 = null;
+            error = null;
+        }
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong(); // Próximo slot a reservar
+    private volatile long head;                        // Próximo slot a consumir
+
+    private final List<LogSink> sinks;
+    private final LongAdder dropped = new LongAdder();
+    private final StringBuilder line = new StringBuilder(256);
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    AsyncLogWriter(int capacity, List<LogSink> sinks) {
+        int size = Integer.highestOneBit(Math.max(64, capacity - 1) << 1);
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.sinks = sinks;
+
+        this.thread = new Thread(this::run, "LogWriter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Publica um evento; false se o buffer estava cheio
+     */
+    boolean publish(LogLevel level, LogCategory category, String template,
+            Object arg0, Object arg1, Object arg2, Throwable error) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+
+        Slot slot = slots[(int) (seq & mask)];
+        slot.timestamp = System.currentTimeMillis();
+        slot.level = level;
+        slot.category = category;
+        slot.thread = Thread.currentThread().getName();
+        slot.template = template;
+        slot.arg0 = arg0;
+        slot.arg1 = arg1;
+        slot.arg2 = arg2;
+        slot.error = error;
+        slot.sequence = seq + 1;
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            if (drain() == 0) {
+                flushSinks();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        // Esvaziar o que restou antes de fechar
+        while (drain() > 0) {
+            // continua
+        }
+        closeSinks();
+    }
+
+    private int drain() {
+        int count = 0;
+        long next = head;
+        while (count < MAX_BATCH) {
+            Slot slot = slots[(int) (next & mask)];
+            if (slot.sequence != next + 1) {
+                break;
+            }
+            write(slot);
+            slot.clear();
+            next++;
+            head = next;
+            count++;
+        }
+
+        long lost = dropped.sumThenReset();
+        if (lost > 0) {
+            line.setLength(0);
+            line.append(TIME_FORMAT.format(Instant.now())).append(" WARN  [LOG] ")
+                    .append(lost).append(" eventos descartados (buffer cheio)").append(System.lineSeparator());
+            writeLine(LogLevel.WARN);
+        }
+        return count;
+    }
+
+    private void write(Slot slot) {
+        line.setLength(0);
+        line.append(TIME_FORMAT.format(Instant.ofEpochMilli(slot.timestamp))).append(' ');
+        String level = slot.level.name();
+        line.append(level);
+        for (int i = level.length(); i < 6; i++) {
+            line.append(' ');
+        }
+        line.append('[').append(slot.category.name()).append("] ")
+                .append(slot.thread).append(" - ");
+        appendFormatted(slot.template, slot.arg0, slot.arg1, slot.arg2);
+        line.append(System.lineSeparator());
+
+        if (slot.error != null) {
+            StringWriter trace = new StringWriter();
+            slot.error.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        writeLine(slot.level);
+    }
+
+    /**
+     * Substitui cada "{}" do template pelo próximo argumento
+     */
+    private void appendFormatted(String template, Object arg0, Object arg1, Object arg2) {
+        if (template == null) {
+            line.append("null");
+            return;
+        }
+        int argIndex = 0;
+        int start = 0;
+        int mark;
+        while ((mark = template.indexOf("{}", start)) >= 0 && argIndex < 3) {
+            line.append(template, start, mark);
+            line.append(argIndex == 0 ? arg0 : argIndex == 1 ? arg1 : arg2);
+            argIndex++;
+            start = mark + 2;
+        }
+        line.append(template, start, template.length());
+    }
+
+    private void writeLine(LogLevel level) {
+        for (LogSink sink : sinks) {
+            try {
+                sink.write(level, line);
+            } catch (IOException e) {
+                System.err.println("Falha ao escrever log: " + e.getMessage());
+            }
+        }
+    }
+
+    private void flushSinks() {
+        for (LogSink sink : sinks) {
+            try {
+                sink.flush();
+            } catch (IOException e) {
+                // Ignorar; nova tentativa no próximo ciclo
+            }
+        }
+    }
+
+    private void closeSinks() {
+        for (LogSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                // Ignorar erro no fechamento
+            }
+        }
+    }
+
+    /**
+     * Para a thread escritora após esvaziar o buffer
+     */
+    void shutdown(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    long getPending() {
+        return tail.get() - head;
+    }
+}
@@ -11,6 +11,7 @@ public class BattleLogData {
     
     // Informações básicas da batalha
     public String battleId;
+    public String seed; // Semente do gerador da batalha ("" em logs antigos)
     public String startTimestamp;
     public String endTimestamp;
     
@@ -2,25 +2,45 @@ package logging;
 
 import server.GameSession;
 import server.ClientHandler;
-import server.PokemonBattleInstance;
 import pokemon.Species;
 import pokemon.Move;
-import java.net.Socket;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Classe utilitária para integrar o sistema de logging XML com as classes existentes
  * Fornece métodos para facilitar a integração do BattleLogger com GameSession e ClientHandler
  */
 public class BattleLogIntegration {
+
+    // Gravação e leitura dos XML fora das threads do jogo (em ordem, uma por vez)
+    private static final ExecutorService LOG_IO = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "BattleLogIO");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     /**
      * Cria um BattleLogger e configura os participantes da batalha
      * Deve ser chamado no início de uma nova GameSession
      */
     public static BattleLogger initializeBattleLogging(ClientHandler player1, ClientHandler player2) {
+        return initializeBattleLogging(player1, player2, null);
+    }
+
+    /**
+     * Inicializa o log registrando também a semente da batalha (para replay)
+     */
+    public static BattleLogger initializeBattleLogging(ClientHandler player1, ClientHandler player2, Long seed) {
         BattleLogger logger = new BattleLogger();
+        if (seed != null) {
+            logger.setSeed(seed);
+        }
         
         // Extrair IP dos jogadores
         String player1Ip = extractClientIp(player1);
@@ -52,25 +72,16 @@ public class BattleLogIntegration {
      * Extrai o endereço IP de um ClientHandler
      */
     private static String extractClientIp(ClientHandler client) {
-        try {
-            // Usando reflection para acessar o socket privado
-            java.lang.reflect.Field socketField = ClientHandler.class.getDeclaredField("clientSocket");
-            socketField.setAccessible(true);
-            Socket socket = (Socket) socketField.get(client);
-            
-            if (socket != null && socket.getRemoteSocketAddress() != null) {
-                String fullAddress = socket.getRemoteSocketAddress().toString();
-                // Remover "/127.0.0.1:12345" -> "127.0.0.1"
-                if (fullAddress.startsWith("/")) {
-                    fullAddress = fullAddress.substring(1);
-                }
-                if (fullAddress.contains(":")) {
-                    return fullAddress.split(":")[0];
-                }
-                return fullAddress;
+        String fullAddress = client.getRemoteAddress();
+        if (fullAddress != null && !fullAddress.equals("null")) {
+            // Remover "/127.0.0.1:12345" -> "127.0.0.1"
+            if (fullAddress.startsWith("/")) {
+                fullAddress = fullAddress.substring(1);
+            }
+            if (fullAddress.contains(":")) {
+                return fullAddress.split(":")[0];
             }
-        } catch (Exception e) {
-            System.err.println("Erro ao extrair IP do cliente: " + e.getMessage());
+            return fullAddress;
         }
         
         return "IP_DESCONHECIDO";
@@ -108,6 +119,34 @@ public class BattleLogIntegration {
             logger.finalizeBattle(winner);
         }
     }
+
+    /**
+     * Finaliza o log (grava o XML) e relê os logs em disco na thread de I/O
+     * dos logs. Quem chama não pode mais usar o logger.
+     */
+    public static void finalizeBattleLogAsync(BattleLogger logger, String winner) {
+        LOG_IO.execute(() -> {
+            try {
+                finalizeBattleLog(logger, winner);
+                LogReader.readBattleLogs();
+            } catch (RuntimeException e) {
+                Log.error(LogCategory.SESSION, "❌ Erro ao gravar o log da batalha: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Aguarda as gravações pendentes (servidor parando)
+     */
+    public static void awaitPendingWrites(long timeoutMillis) {
+        try {
+            LOG_IO.submit(() -> { }).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            Log.warn(LogCategory.SESSION, "⚠️ Logs de batalha ainda pendentes: {}", e.getMessage());
+        }
+    }
     
     /**
      * Lê e exibe estatísticas de um arquivo de log XML
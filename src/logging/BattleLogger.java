@@ -156,6 +156,18 @@ public class BattleLogger {
         battleInfoElement.appendChild(timestampElement);
     }
     
+    /**
+     * Registra a semente do gerador da batalha: com ela e os movimentos do log
+     * a batalha pode ser reproduzida
+     */
+    public void setSeed(long seed) {
+        try {
+            createElement(battleInfoElement, "seed", String.valueOf(seed));
+        } catch (Exception e) {
+            System.err.println("Erro ao registrar semente: " + e.getMessage());
+        }
+    }
+
     /**
      * Define as informações dos jogadores participantes
      */
@@ -322,6 +334,7 @@ public class BattleLogger {
             
             // Informações básicas
             logData.battleId = doc.getDocumentElement().getAttribute("battleId");
+            logData.seed = getElementText(doc, "battleInfo", "seed");
             
             // Informações dos jogadores
             logData.player1Name = getElementText(doc, "player1", "name");
@@ -0,0 +1,28 @@
+package logging;
+
+import java.io.PrintStream;
+
+/**
+ * Escreve no console: WARN e ERROR em System.err, o restante em System.out
+ */
+class ConsoleSink implements LogSink {
+
+    private final PrintStream out = System.out;
+    private final PrintStream err = System.err;
+
+    @Override
+    public void write(LogLevel level, CharSequence line) {
+        (level.compareTo(LogLevel.WARN) >= 0 ? err : out).append(line);
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+        err.flush();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,172 @@
+package logging;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ponto de entrada do log assíncrono. Com a categoria desabilitada o custo é
+ * só a comparação de nível; os argumentos são formatados ("{}") na thread
+ * escritora, então devem ser imutáveis (strings, números, enums).
+ *
+ * Configuração por propriedades de sistema:
+ * -Dpokemon.log.level=INFO, -Dpokemon.log.categories=SESSION=DEBUG,NETWORK=WARN,
+ * -Dpokemon.log.console=true, -Dpokemon.log.file=logs/server.log,
+ * -Dpokemon.log.maxBytes, -Dpokemon.log.maxFiles e -Dpokemon.log.bufferSize
+ */
+public final class Log {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024;
+    private static final int DEFAULT_MAX_FILES = 5;
+
+    private static final AsyncLogWriter WRITER = createWriter();
+
+    private Log() {
+    }
+
+    private static AsyncLogWriter createWriter() {
+        LogLevel level = LogLevel.parse(System.getProperty("pokemon.log.level"));
+        for (LogCategory category : LogCategory.values()) {
+            category.setLevel(level != null ? level : LogLevel.INFO);
+        }
+
+        String categories = System.getProperty("pokemon.log.categories");
+        if (categories != null) {
+            for (String entry : categories.split(",")) {
+                String[] parts = entry.split("=");
+                LogLevel categoryLevel = parts.length == 2 ? LogLevel.parse(parts[1]) : null;
+                try {
+                    if (categoryLevel != null) {
+                        LogCategory.valueOf(parts[0].trim().toUpperCase()).setLevel(categoryLevel);
+                        continue;
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Categoria desconhecida
+                }
+                System.err.println("Configuração de log inválida: " + entry);
+            }
+        }
+
+        List<LogSink> sinks = new ArrayList<>();
+        if (!"false".equalsIgnoreCase(System.getProperty("pokemon.log.console"))) {
+            sinks.add(new ConsoleSink());
+        }
+
+        String file = System.getProperty("pokemon.log.file");
+        if (file != null && !file.isBlank()) {
+            try {
+                sinks.add(new RotatingFileSink(file.trim(),
+                        Long.getLong("pokemon.log.maxBytes", DEFAULT_MAX_BYTES),
+                        Integer.getInteger("pokemon.log.maxFiles", DEFAULT_MAX_FILES)));
+            } catch (IOException e) {
+                System.err.println("Não foi possível abrir o arquivo de log " + file + ": " + e.getMessage());
+            }
+        }
+
+        AsyncLogWriter writer = new AsyncLogWriter(
+                Integer.getInteger("pokemon.log.bufferSize", DEFAULT_BUFFER_SIZE), sinks);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> writer.shutdown(2000), "LogShutdown"));
+        return writer;
+    }
+
+    public static boolean isEnabled(LogCategory category, LogLevel level) {
+        return category.isEnabled(level);
+    }
+
+    private static void log(LogLevel level, LogCategory category, String template,
+            Object arg0, Object arg1, Object arg2, Throwable error) {
+        if (category.isEnabled(level)) {
+            WRITER.publish(level, category, template, arg0, arg1, arg2, error);
+        }
+    }
+
+    // === TRACE ===
+
+    public static void trace(LogCategory category, String message) {
+        log(LogLevel.TRACE, category, message, null, null, null, null);
+    }
+
+    public static void trace(LogCategory category, String template, Object arg0) {
+        log(LogLevel.TRACE, category, template, arg0, null, null, null);
+    }
+
+    public static void trace(LogCategory category, String template, Object arg0, Object arg1) {
+        log(LogLevel.TRACE, category, template, arg0, arg1, null, null);
+    }
+
+    // === DEBUG ===
+
+    public static void debug(LogCategory category, String message) {
+        log(LogLevel.DEBUG, category, message, null, null, null, null);
+    }
+
+    public static void debug(LogCategory category, String template, Object arg0) {
+        log(LogLevel.DEBUG, category, template, arg0, null, null, null);
+    }
+
+    public static void debug(LogCategory category, String template, Object arg0, Object arg1) {
+        log(LogLevel.DEBUG, category, template, arg0, arg1, null, null);
+    }
+
+    public static void debug(LogCategory category, String template, Object arg0, Object arg1, Object arg2) {
+        log(LogLevel.DEBUG, category, template, arg0, arg1, arg2, null);
+    }
+
+    // === INFO ===
+
+    public static void info(LogCategory category, String message) {
+        log(LogLevel.INFO, category, message, null, null, null, null);
+    }
+
+    public static void info(LogCategory category, String template, Object arg0) {
+        log(LogLevel.INFO, category, template, arg0, null, null, null);
+    }
+
+    public static void info(LogCategory category, String template, Object arg0, Object arg1) {
+        log(LogLevel.INFO, category, template, arg0, arg1, null, null);
+    }
+
+    public static void info(LogCategory category, String template, Object arg0, Object arg1, Object arg2) {
+        log(LogLevel.INFO, category, template, arg0, arg1, arg2, null);
+    }
+
+    // === WARN ===
+
+    public static void warn(LogCategory category, String message) {
+        log(LogLevel.WARN, category, message, null, null, null, null);
+    }
+
+    public static void warn(LogCategory category, String template, Object arg0) {
+        log(LogLevel.WARN, category, template, arg0, null, null, null);
+    }
+
+    public static void warn(LogCategory category, String template, Object arg0, Object arg1) {
+        log(LogLevel.WARN, category, template, arg0, arg1, null, null);
+    }
+
+    // === ERROR ===
+
+    public static void error(LogCategory category, String message) {
+        log(LogLevel.ERROR, category, message, null, null, null, null);
+    }
+
+    public static void error(LogCategory category, String template, Object arg0) {
+        log(LogLevel.ERROR, category, template, arg0, null, null, null);
+    }
+
+    public static void error(LogCategory category, String template, Object arg0, Object arg1) {
+        log(LogLevel.ERROR, category, template, arg0, arg1, null, null);
+    }
+
+    public static void error(LogCategory category, String message, Throwable error) {
+        log(LogLevel.ERROR, category, message, null, null, null, error);
+    }
+
+    /**
+     * Eventos ainda não escritos (diagnóstico)
+     */
+    public static long getPending() {
+        return WRITER.getPending();
+    }
+}
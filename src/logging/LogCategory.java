@@ -0,0 +1,29 @@
+package logging;
+
+/**
+ * Categorias de log com nível mínimo ajustável em tempo de execução.
+ * O teste de nível é uma leitura volátil e uma comparação de inteiros.
+ */
+public enum LogCategory {
+    SERVER,     // Ciclo de vida do servidor e conexões aceitas
+    CLIENT,     // Cliente Swing (PokemonClient)
+    SESSION,    // Sessões de jogo, turnos e revanches
+    HANDLER,    // Mensagens de cada cliente no servidor
+    NETWORK,    // Transporte, codecs e filas de saída
+    MATCHMAKING,
+    CLUSTER;    // Coordenador, membros do cluster e hand-off entre nós
+
+    private volatile int threshold = LogLevel.INFO.ordinal();
+
+    public boolean isEnabled(LogLevel level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public LogLevel getLevel() {
+        return LogLevel.values()[threshold];
+    }
+
+    public void setLevel(LogLevel level) {
+        this.threshold = level.ordinal();
+    }
+}
@@ -0,0 +1,27 @@
+package logging;
+
+/**
+ * Níveis de log, do mais detalhado ao mais grave
+ */
+public enum LogLevel {
+    TRACE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF;
+
+    /**
+     * Converte texto de configuração (ex.: "debug") em nível; null se inválido
+     */
+    static LogLevel parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package logging;
+
+import java.io.IOException;
+
+/**
+ * Destino das linhas formatadas; usado somente pela thread do {@link AsyncLogWriter}
+ */
+interface LogSink {
+
+    void write(LogLevel level, CharSequence line) throws IOException;
+
+    void flush() throws IOException;
+
+    void close() throws IOException;
+}
@@ -0,0 +1,79 @@
+package logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Arquivo de log com rotação por tamanho: server.log, server.log.1, ...,
+ * server.log.N (o mais antigo é descartado)
+ */
+class RotatingFileSink implements LogSink {
+
+    private final File file;
+    private final long maxBytes;
+    private final int maxFiles;
+
+    private Writer writer;
+    private long written;
+
+    RotatingFileSink(String path, long maxBytes, int maxFiles) throws IOException {
+        this.file = new File(path);
+        this.maxBytes = maxBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        written = file.length();
+        writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void write(LogLevel level, CharSequence line) throws IOException {
+        if (written > 0 && written + line.length() > maxBytes) {
+            rotate();
+        }
+        writer.append(line);
+        // Aproximação em chars: suficiente para o limite de rotação
+        written += line.length();
+    }
+
+    private void rotate() throws IOException {
+        writer.close();
+
+        File oldest = new File(file.getPath() + "." + maxFiles);
+        if (oldest.exists()) {
+            oldest.delete();
+        }
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            File source = new File(file.getPath() + "." + i);
+            if (source.exists()) {
+                source.renameTo(new File(file.getPath() + "." + (i + 1)));
+            }
+        }
+        file.renameTo(new File(file.getPath() + ".1"));
+
+        open();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,625 @@
+package network;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import pokemon.Species;
+
+/**
+ * Codec binário compacto para {@link Message}.
+ *
+ * Formato de um frame:
+ *   varint tamanho | byte tipo | byte flags | [sender] | [sessionId] | byte tag | payload
+ *
+ * - Strings: varint com o tamanho em bytes + UTF-8
+ * - Inteiros: varint zigzag
+ * - O timestamp não trafega; quem recebe marca o horário de chegada
+ * - Cada payload tem uma tag própria; não há fallback para serialização Java,
+ *   então um tipo sem tag falha no encode e nada do frame vira objeto arbitrário
+ * - Contagens e tamanhos lidos do frame são limitados ao que resta dele: um
+ *   frame malformado gera IOException, nunca uma alocação desproporcional
+ */
+public class BinaryMessageCodec implements MessageCodec {
+
+    // Cabeçalho da conexão: "PKW" + versão do protocolo
+    static final int[] HEADER = {0x50, 0x4B, 0x57, 0x01};
+
+    // Flags do frame
+    private static final int FLAG_SENDER = 1;
+    private static final int FLAG_SESSION = 1 << 1;
+
+    // Tags de payload
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_INT = 2;
+    private static final int TAG_BOOLEAN = 3;
+    private static final int TAG_BATTLE_STATE = 4;
+    private static final int TAG_BATTLE_INIT = 5;
+    private static final int TAG_BATTLE_END = 6;
+    private static final int TAG_REMATCH_REQUEST = 7;
+    private static final int TAG_SPECIES_LIST = 8;
+    private static final int TAG_TURN_RESULT = 9;
+    private static final int TAG_LOBBY_UPDATE = 10;
+    private static final int TAG_EMPTY_LIST = 11;
+    private static final int TAG_REDIRECT = 12;
+    private static final int TAG_CLUSTER_NODE = 13;
+    private static final int TAG_NODE_LIST = 14;
+    private static final int TAG_MATCH_HANDOFF = 15;
+    private static final int TAG_MATCH_ASSIGNMENT = 16;
+
+    // Limite de segurança para o tamanho de um frame
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    private static final MessageType[] TYPES = MessageType.values();
+    private static final Species[] SPECIES = Species.values();
+
+    // Buffers reaproveitados (um escritor e um leitor por conexão)
+    private byte[] out = new byte[256];
+    private int outPos;
+    private byte[] in = new byte[256];
+
+    @Override
+    public CodecType getType() {
+        return CodecType.BINARY;
+    }
+
+    @Override
+    public byte[] header() {
+        byte[] header = new byte[HEADER.length];
+        for (int i = 0; i < HEADER.length; i++) {
+            header[i] = (byte) HEADER[i];
+        }
+        return header;
+    }
+
+    @Override
+    public void readHeader(InputStream stream) throws IOException {
+        for (int expected : HEADER) {
+            int b = stream.read();
+            if (b < 0) {
+                throw new EOFException("Conexão fechada durante o cabeçalho");
+            }
+            if (b != expected) {
+                throw new IOException("Cabeçalho binário inválido");
+            }
+        }
+    }
+
+    // === CODIFICAÇÃO ===
+
+    @Override
+    public byte[] encode(Message message) throws IOException {
+        // Reserva 3 bytes para o tamanho (suficiente para MAX_FRAME_SIZE)
+        outPos = 3;
+        encodeBody(message);
+
+        int bodyLength = outPos - 3;
+        if (bodyLength > MAX_FRAME_SIZE) {
+            throw new IOException("Frame excede o tamanho máximo: " + bodyLength);
+        }
+
+        int prefix = varIntSize(bodyLength);
+        int start = 3 - prefix;
+        int pos = start;
+        int value = bodyLength;
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos] = (byte) value;
+
+        return Arrays.copyOfRange(out, start, outPos);
+    }
+
+    private void encodeBody(Message message) throws IOException {
+        MessageType type = message.getType();
+        if (type == null) {
+            throw new IOException("Mensagem sem tipo");
+        }
+
+        int flags = 0;
+        if (message.getSender() != null) {
+            flags |= FLAG_SENDER;
+        }
+        if (message.getSessionId() != null) {
+            flags |= FLAG_SESSION;
+        }
+
+        writeByte(type.ordinal());
+        writeByte(flags);
+        if (message.getSender() != null) {
+            writeString(message.getSender());
+        }
+        if (message.getSessionId() != null) {
+            writeString(message.getSessionId());
+        }
+        writePayload(message.getData());
+    }
+
+    private void writePayload(Object data) throws IOException {
+        if (data == null) {
+            writeByte(TAG_NULL);
+
+        } else if (data instanceof String) {
+            writeByte(TAG_STRING);
+            writeString((String) data);
+
+        } else if (data instanceof Integer) {
+            writeByte(TAG_INT);
+            writeSignedVarInt((Integer) data);
+
+        } else if (data instanceof Boolean) {
+            writeByte(TAG_BOOLEAN);
+            writeByte((Boolean) data ? 1 : 0);
+
+        } else if (data instanceof BattleStateDTO) {
+            writeByte(TAG_BATTLE_STATE);
+            writeBattleState((BattleStateDTO) data);
+
+        } else if (data instanceof TurnResult) {
+            TurnResult turn = (TurnResult) data;
+            writeByte(TAG_TURN_RESULT);
+            writeNullableString(turn.getMoveResult());
+            writeVarInt(turn.getFaintMessages().size());
+            for (String faint : turn.getFaintMessages()) {
+                writeString(faint);
+            }
+            writeBattleState(turn.getState());
+            writeByte((turn.isYourTurn() ? 1 : 0) | (turn.isBattleOver() ? 2 : 0));
+
+        } else if (data instanceof BattleInitPayload) {
+            BattleInitPayload init = (BattleInitPayload) data;
+            writeByte(TAG_BATTLE_INIT);
+            writeSpecies(init.teamA);
+            writeSpecies(init.teamB);
+            writeByte(init.youStart ? 1 : 0);
+
+        } else if (data instanceof BattleEndData) {
+            BattleEndData end = (BattleEndData) data;
+            writeByte(TAG_BATTLE_END);
+            writeNullableString(end.getPlayerName());
+            writeNullableString(end.getOpponentName());
+            writeNullableString(end.getResult());
+            writeByte(end.isWinner() ? 1 : 0);
+
+        } else if (data instanceof RematchRequest) {
+            RematchRequest request = (RematchRequest) data;
+            writeByte(TAG_REMATCH_REQUEST);
+            writeNullableString(request.getRequesterName());
+            writeNullableString(request.getTargetName());
+            writeVarLong(request.getTimestamp());
+
+        } else if (data instanceof LobbyUpdate) {
+            LobbyUpdate update = (LobbyUpdate) data;
+            writeByte(TAG_LOBBY_UPDATE);
+            writeStrings(update.getJoined());
+            writeStrings(update.getLeft());
+            writeStrings(update.getChat());
+
+        } else if (data instanceof RedirectInfo) {
+            RedirectInfo redirect = (RedirectInfo) data;
+            writeByte(TAG_REDIRECT);
+            writeNullableString(redirect.getHost());
+            writeVarInt(redirect.getPort());
+            writeNullableString(redirect.getToken());
+
+        } else if (data instanceof ClusterNodeInfo) {
+            writeByte(TAG_CLUSTER_NODE);
+            writeNode((ClusterNodeInfo) data);
+
+        } else if (data instanceof MatchHandoff) {
+            writeByte(TAG_MATCH_HANDOFF);
+            writeHandoff((MatchHandoff) data);
+
+        } else if (data instanceof MatchAssignment) {
+            MatchAssignment assignment = (MatchAssignment) data;
+            writeByte(TAG_MATCH_ASSIGNMENT);
+            writeString(assignment.getMatchId());
+            writeNode(assignment.getOwner());
+            writeHandoff(assignment.getPlayer1());
+            writeHandoff(assignment.getPlayer2());
+
+        } else if (data instanceof List && ((List<?>) data).isEmpty()) {
+            // Lista vazia não tem tipo de elemento: tag própria
+            writeByte(TAG_EMPTY_LIST);
+
+        } else if (isListOf(data, Species.class)) {
+            writeByte(TAG_SPECIES_LIST);
+            writeSpecies((List<?>) data);
+
+        } else if (isListOf(data, ClusterNodeInfo.class)) {
+            List<?> nodes = (List<?>) data;
+            writeByte(TAG_NODE_LIST);
+            writeVarInt(nodes.size());
+            for (Object node : nodes) {
+                writeNode((ClusterNodeInfo) node);
+            }
+
+        } else {
+            throw new IOException("Payload sem codificação binária: " + data.getClass().getName());
+        }
+    }
+
+    private void writeBattleState(BattleStateDTO state) {
+        writeVarInt(state.hpP1);
+        writeVarInt(state.hpP2);
+        writeVarInt(state.idxP1);
+        writeVarInt(state.idxP2);
+        writeByte(state.p1Turn ? 1 : 0);
+    }
+
+    private void writeNode(ClusterNodeInfo node) {
+        writeString(node.getNodeId());
+        writeString(node.getHost());
+        writeVarInt(node.getPort());
+    }
+
+    private void writeHandoff(MatchHandoff handoff) {
+        writeString(handoff.getPlayerName());
+        writeString(handoff.getNodeId());
+        writeSpecies(handoff.getTeam());
+        writeNullableString(handoff.getToken());
+    }
+
+    private static boolean isListOf(Object data, Class<?> elementType) {
+        if (!(data instanceof List) || ((List<?>) data).isEmpty()) {
+            return false;
+        }
+        for (Object item : (List<?>) data) {
+            if (!elementType.isInstance(item)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeSpecies(List<?> team) {
+        if (team == null) {
+            writeVarInt(0);
+            return;
+        }
+        // Tamanho + 1 para diferenciar lista nula de lista vazia
+        writeVarInt(team.size() + 1);
+        for (Object species : team) {
+            writeByte(((Species) species).ordinal());
+        }
+    }
+
+    private void writeStrings(List<String> values) {
+        writeVarInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    private void writeNullableString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            writeRaw(bytes);
+        }
+    }
+
+    private void writeString(String value) {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        writeRaw(bytes);
+    }
+
+    private void writeRaw(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, out, outPos, bytes.length);
+        outPos += bytes.length;
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        out[outPos++] = (byte) value;
+    }
+
+    private void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    private void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            out[outPos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[outPos++] = (byte) value;
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            out[outPos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[outPos++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (outPos + extra > out.length) {
+            out = Arrays.copyOf(out, Math.max(out.length * 2, outPos + extra));
+        }
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    // === DECODIFICAÇÃO ===
+
+    @Override
+    public Message read(InputStream stream) throws IOException {
+        int length = readVarInt(stream);
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Tamanho de frame inválido: " + length);
+        }
+
+        if (in.length < length) {
+            in = new byte[Math.max(length, in.length * 2)];
+        }
+
+        int read = 0;
+        while (read < length) {
+            int n = stream.read(in, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Conexão fechada no meio de um frame");
+            }
+            read += n;
+        }
+
+        return decodeBody(in, 0, length);
+    }
+
+    private static int readVarInt(InputStream stream) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = stream.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint malformado");
+    }
+
+    /**
+     * Decodifica o corpo de um frame (sem o prefixo de tamanho)
+     */
+    public static Message decodeBody(byte[] buf, int offset, int length) throws IOException {
+        Reader reader = new Reader(buf, offset, offset + length);
+
+        int typeIndex = reader.readByte();
+        if (typeIndex >= TYPES.length) {
+            throw new IOException("Tipo de mensagem desconhecido: " + typeIndex);
+        }
+        int flags = reader.readByte();
+
+        String sender = (flags & FLAG_SENDER) != 0 ? reader.readString() : null;
+        String sessionId = (flags & FLAG_SESSION) != 0 ? reader.readString() : null;
+        Object data = reader.readPayload();
+
+        Message message = new Message(TYPES[typeIndex], sender, data);
+        message.setSessionId(sessionId);
+        return message;
+    }
+
+    /**
+     * Cursor de leitura sobre um frame já recebido
+     */
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private final int limit;
+
+        Reader(byte[] buf, int pos, int limit) {
+            this.buf = buf;
+            this.pos = pos;
+            this.limit = limit;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= limit) {
+                throw new EOFException("Frame truncado");
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varint malformado");
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varlong malformado");
+        }
+
+        int readSignedVarInt() throws IOException {
+            int raw = readVarInt();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        boolean readBoolean() throws IOException {
+            return readByte() != 0;
+        }
+
+        /**
+         * Garante que uma contagem ou tamanho lido do frame cabe no que resta dele
+         * (cada item ocupa ao menos minBytes)
+         */
+        int checkCount(int count, int minBytes) throws IOException {
+            if (count < 0 || count > (limit - pos) / minBytes) {
+                throw new EOFException("Frame truncado");
+            }
+            return count;
+        }
+
+        byte[] readRaw(int length) throws IOException {
+            checkCount(length, 1);
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() throws IOException {
+            int length = checkCount(readVarInt(), 1);
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        String readNullableString() throws IOException {
+            int length = readVarInt();
+            if (length == 0) {
+                return null;
+            }
+            length = checkCount(length - 1, 1);
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        List<Species> readSpecies() throws IOException {
+            int size = readVarInt();
+            if (size == 0) {
+                return null;
+            }
+            size = checkCount(size - 1, 1);
+            List<Species> team = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int ordinal = readByte();
+                if (ordinal >= SPECIES.length) {
+                    throw new IOException("Espécie desconhecida: " + ordinal);
+                }
+                team.add(SPECIES[ordinal]);
+            }
+            return team;
+        }
+
+        List<String> readStrings() throws IOException {
+            int size = checkCount(readVarInt(), 1);
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        BattleStateDTO readBattleState() throws IOException {
+            return new BattleStateDTO(readVarInt(), readVarInt(), readVarInt(), readVarInt(), readBoolean());
+        }
+
+        ClusterNodeInfo readNode() throws IOException {
+            return new ClusterNodeInfo(readString(), readString(), readVarInt());
+        }
+
+        List<ClusterNodeInfo> readNodes() throws IOException {
+            int size = checkCount(readVarInt(), 3); // id, host e porta: ao menos 3 bytes
+            List<ClusterNodeInfo> nodes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                nodes.add(readNode());
+            }
+            return nodes;
+        }
+
+        MatchHandoff readHandoff() throws IOException {
+            String playerName = readString();
+            String nodeId = readString();
+            List<Species> team = readSpecies();
+            if (team == null) {
+                throw new IOException("Hand-off sem time");
+            }
+            return new MatchHandoff(playerName, nodeId, team, readNullableString());
+        }
+
+        Object readPayload() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_STRING:
+                    return readString();
+                case TAG_INT:
+                    return readSignedVarInt();
+                case TAG_BOOLEAN:
+                    return readBoolean();
+                case TAG_BATTLE_STATE:
+                    return readBattleState();
+                case TAG_TURN_RESULT: {
+                    String moveResult = readNullableString();
+                    int faints = checkCount(readVarInt(), 1);
+                    List<String> faintMessages = new ArrayList<>(faints);
+                    for (int i = 0; i < faints; i++) {
+                        faintMessages.add(readString());
+                    }
+                    BattleStateDTO state = readBattleState();
+                    int flags = readByte();
+                    return new TurnResult(moveResult, faintMessages, state, (flags & 1) != 0, (flags & 2) != 0);
+                }
+                case TAG_BATTLE_INIT: {
+                    List<Species> teamA = readSpecies();
+                    List<Species> teamB = readSpecies();
+                    return new BattleInitPayload(teamA, teamB, readBoolean());
+                }
+                case TAG_BATTLE_END:
+                    return new BattleEndData(readNullableString(), readNullableString(),
+                            readNullableString(), readBoolean());
+                case TAG_REMATCH_REQUEST:
+                    return new RematchRequest(readNullableString(), readNullableString(), readVarLong());
+                case TAG_SPECIES_LIST:
+                    return readSpecies();
+                case TAG_LOBBY_UPDATE:
+                    return new LobbyUpdate(readStrings(), readStrings(), readStrings());
+                case TAG_EMPTY_LIST:
+                    return new ArrayList<>();
+                case TAG_REDIRECT:
+                    return new RedirectInfo(readNullableString(), readVarInt(), readNullableString());
+                case TAG_CLUSTER_NODE:
+                    return readNode();
+                case TAG_NODE_LIST:
+                    return readNodes();
+                case TAG_MATCH_HANDOFF:
+                    return readHandoff();
+                case TAG_MATCH_ASSIGNMENT:
+                    return new MatchAssignment(readString(), readNode(), readHandoff(), readHandoff());
+                default:
+                    throw new IOException("Tag de payload desconhecida: " + tag);
+            }
+        }
+    }
+}
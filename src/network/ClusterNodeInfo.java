@@ -0,0 +1,39 @@
+package network;
+
+import java.io.Serializable;
+
+/**
+ * Identidade de um nó do cluster: id estável e endereço anunciado aos clientes
+ */
+public class ClusterNodeInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String nodeId;
+    private final String host;
+    private final int port;
+
+    public ClusterNodeInfo(String nodeId, String host, int port) {
+        this.nodeId = nodeId;
+        this.host = host;
+        this.port = port;
+    }
+
+    public String getNodeId() { return nodeId; }
+    public String getHost() { return host; }
+    public int getPort() { return port; }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ClusterNodeInfo && nodeId.equals(((ClusterNodeInfo) o).nodeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return nodeId.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return nodeId + "@" + host + ":" + port;
+    }
+}
@@ -0,0 +1,73 @@
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Tipos de codificação suportados no fio.
+ * O cliente escolhe o codec; o servidor detecta pelo cabeçalho enviado na conexão.
+ */
+public enum CodecType {
+    JAVA, // ObjectOutputStream/ObjectInputStream (caminho original)
+    BINARY; // Frames binários com prefixo de tamanho (BinaryMessageCodec)
+
+    // Propriedade de sistema usada pelo cliente para escolher o codec
+    public static final String CODEC_PROPERTY = "pokemon.codec";
+
+    // Os dois primeiros bytes do cabeçalho de cada codec
+    private static final int JAVA_MAGIC = 0xACED;
+    private static final int BINARY_MAGIC = (BinaryMessageCodec.HEADER[0] << 8) | BinaryMessageCodec.HEADER[1];
+
+    /**
+     * Cria uma nova instância do codec (cada conexão tem o seu estado)
+     */
+    public MessageCodec create() {
+        switch (this) {
+            case JAVA:
+                return new JavaSerializationCodec();
+            case BINARY:
+            default:
+                return new BinaryMessageCodec();
+        }
+    }
+
+    /**
+     * Codec configurado via -Dpokemon.codec=java|binary (padrão: binary)
+     */
+    public static CodecType fromSystemProperty() {
+        String value = System.getProperty(CODEC_PROPERTY);
+        if (value == null || value.trim().isEmpty()) {
+            return BINARY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Codec inválido '" + value + "', usando " + BINARY);
+            return BINARY;
+        }
+    }
+
+    /**
+     * Detecta o codec pelos dois primeiros bytes do stream sem consumi-los.
+     * O stream precisa suportar mark/reset.
+     */
+    public static CodecType detect(InputStream in) throws IOException {
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+
+        if (b0 < 0 || b1 < 0) {
+            throw new java.io.EOFException("Conexão fechada antes do cabeçalho");
+        }
+
+        int magic = (b0 << 8) | b1;
+        if (magic == JAVA_MAGIC) {
+            return JAVA;
+        }
+        if (magic == BINARY_MAGIC) {
+            return BINARY;
+        }
+        throw new IOException(String.format("Cabeçalho de protocolo desconhecido: %02X %02X", b0, b1));
+    }
+}
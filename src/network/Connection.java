@@ -0,0 +1,37 @@
+package network;
+
+/**
+ * Conexão com o outro lado, independente do transporte usado
+ * (socket bloqueante com {@link NetworkManager} ou NIO com {@link NioConnection}).
+ */
+public interface Connection {
+
+    /**
+     * Envia uma mensagem pela conexão
+     */
+    boolean sendMessage(Message message);
+
+    /**
+     * Envia um frame já codificado e compartilhado com outras conexões
+     * (só o array do codec desta conexão entra na fila, sem nova codificação)
+     */
+    boolean sendFrame(SharedFrame frame);
+
+    /**
+     * Desconecta e libera recursos
+     */
+    void disconnect();
+
+    /**
+     * Envia o que ainda estiver na fila de saída e desconecta em seguida
+     */
+    void disconnectAfterFlush();
+
+    boolean isConnected();
+
+    String getRemoteAddress();
+
+    void setMessageListener(NetworkManager.MessageListener listener);
+
+    void setConnectionListener(NetworkManager.ConnectionListener listener);
+}
@@ -0,0 +1,68 @@
+package network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Codec original baseado em serialização Java.
+ * Cada mensagem é seguida de um reset() para que os frames sejam independentes
+ * entre si (não há referências para objetos de mensagens anteriores).
+ */
+public class JavaSerializationCodec implements MessageCodec {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+    private ObjectOutputStream output;
+    private ObjectInputStream input;
+
+    @Override
+    public CodecType getType() {
+        return CodecType.JAVA;
+    }
+
+    @Override
+    public byte[] header() throws IOException {
+        // O construtor do ObjectOutputStream escreve o cabeçalho do stream
+        output = new ObjectOutputStream(buffer);
+        output.flush();
+        return drain();
+    }
+
+    @Override
+    public void readHeader(InputStream in) throws IOException {
+        input = new ObjectInputStream(in);
+    }
+
+    @Override
+    public byte[] encode(Message message) throws IOException {
+        if (output == null) {
+            throw new IOException("Cabeçalho ainda não foi gerado");
+        }
+        output.writeObject(message);
+        output.reset();
+        output.flush();
+        return drain();
+    }
+
+    @Override
+    public Message read(InputStream in) throws IOException, ClassNotFoundException {
+        if (input == null) {
+            throw new IOException("Cabeçalho ainda não foi lido");
+        }
+
+        Object obj = input.readObject();
+        if (obj instanceof Message) {
+            return (Message) obj;
+        }
+        throw new IOException("Objeto recebido não é uma mensagem válida: "
+                + (obj != null ? obj.getClass() : "null"));
+    }
+
+    private byte[] drain() {
+        byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        return bytes;
+    }
+}
@@ -0,0 +1,50 @@
+package network;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mudanças do lobby desde o último tick: quem entrou, quem saiu e as
+ * mensagens de chat. Na lista completa (PLAYER_LIST) joined traz todos os
+ * jogadores presentes e as outras listas vêm vazias.
+ */
+public class LobbyUpdate implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final ArrayList<String> joined;
+    private final ArrayList<String> left;
+    // Linhas de chat em pares: remetente, texto
+    private final ArrayList<String> chat;
+
+    public LobbyUpdate(List<String> joined, List<String> left, List<String> chat) {
+        this.joined = joined != null ? new ArrayList<>(joined) : new ArrayList<>();
+        this.left = left != null ? new ArrayList<>(left) : new ArrayList<>();
+        this.chat = chat != null ? new ArrayList<>(chat) : new ArrayList<>();
+    }
+
+    /**
+     * Lista completa para quem acabou de entrar
+     */
+    public static LobbyUpdate fullList(List<String> players) {
+        return new LobbyUpdate(players, null, null);
+    }
+
+    public List<String> getJoined() { return Collections.unmodifiableList(joined); }
+    public List<String> getLeft() { return Collections.unmodifiableList(left); }
+
+    /**
+     * Chat em pares (remetente, texto), na ordem em que chegou ao servidor
+     */
+    public List<String> getChat() { return Collections.unmodifiableList(chat); }
+
+    public boolean isEmpty() {
+        return joined.isEmpty() && left.isEmpty() && chat.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "LobbyUpdate{+" + joined.size() + " -" + left.size() + " chat=" + chat.size() / 2 + "}";
+    }
+}
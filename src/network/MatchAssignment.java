@@ -0,0 +1,37 @@
+package network;
+
+import java.io.Serializable;
+
+/**
+ * Par formado pelo coordenador: a partida acontece no nó dono (escolhido pelo
+ * anel de hash do matchId) e os dois jogadores são redirecionados para ele
+ */
+public class MatchAssignment implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String matchId;
+    private final ClusterNodeInfo owner;
+    private final MatchHandoff player1;
+    private final MatchHandoff player2;
+
+    public MatchAssignment(String matchId, ClusterNodeInfo owner, MatchHandoff player1, MatchHandoff player2) {
+        this.matchId = matchId;
+        this.owner = owner;
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+
+    public String getMatchId() { return matchId; }
+    public ClusterNodeInfo getOwner() { return owner; }
+    public MatchHandoff getPlayer1() { return player1; }
+    public MatchHandoff getPlayer2() { return player2; }
+
+    /**
+     * Token de hand-off: "matchId.aleatório". O prefixo permite que qualquer nó
+     * encontre o dono da partida pelo anel de hash.
+     */
+    public static String matchIdOf(String token) {
+        int dot = token.indexOf('.');
+        return dot > 0 ? token.substring(0, dot) : null;
+    }
+}
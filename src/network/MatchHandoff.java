@@ -0,0 +1,39 @@
+package network;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import pokemon.Species;
+
+/**
+ * Jogador com time pronto na fila do cluster: nó onde está conectado, time
+ * escolhido e (depois do emparelhamento) o token para entrar no nó dono
+ */
+public class MatchHandoff implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String playerName;
+    private final String nodeId;
+    private final ArrayList<Species> team;
+    private final String token;
+
+    public MatchHandoff(String playerName, String nodeId, List<Species> team) {
+        this(playerName, nodeId, team, null);
+    }
+
+    public MatchHandoff(String playerName, String nodeId, List<Species> team, String token) {
+        this.playerName = playerName;
+        this.nodeId = nodeId;
+        this.team = new ArrayList<>(team);
+        this.token = token;
+    }
+
+    public MatchHandoff withToken(String token) {
+        return new MatchHandoff(playerName, nodeId, team, token);
+    }
+
+    public String getPlayerName() { return playerName; }
+    public String getNodeId() { return nodeId; }
+    public List<Species> getTeam() { return team; }
+    public String getToken() { return token; }
+}
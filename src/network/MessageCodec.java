@@ -0,0 +1,37 @@
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Codificador/decodificador de mensagens de uma conexão.
+ * Cada conexão tem sua própria instância: os codecs guardam estado de stream
+ * e não são thread-safe (um escritor e um leitor por vez).
+ */
+public interface MessageCodec {
+
+    /**
+     * Tipo do codec
+     */
+    CodecType getType();
+
+    /**
+     * Bytes de cabeçalho enviados uma única vez no início da conexão
+     */
+    byte[] header() throws IOException;
+
+    /**
+     * Lê e valida o cabeçalho enviado pelo outro lado
+     */
+    void readHeader(InputStream in) throws IOException;
+
+    /**
+     * Codifica uma mensagem em um frame autocontido, pronto para ser escrito
+     */
+    byte[] encode(Message message) throws IOException;
+
+    /**
+     * Lê a próxima mensagem do stream (bloqueante)
+     */
+    Message read(InputStream in) throws IOException, ClassNotFoundException;
+}
@@ -58,5 +58,24 @@ public enum MessageType {
     // Mensagens de Sistema
     SERVER_STATUS, // Status do servidor
     GAME_LOG, // Log do jogo
-    NOTIFICATION            // Notificação geral
+    NOTIFICATION,           // Notificação geral
+
+    // Mensagens agregadas (novos tipos sempre no final: o codec binário usa o ordinal)
+    TURN_RESULT,            // Resultado do turno: golpe, desmaios, estado e próxima jogada
+    RESUME_TOKEN,           // Token para retomar a batalha após reinício do servidor
+    // Cluster (servidor <-> coordenador, e redirecionamento do cliente)
+    REDIRECT,               // Cliente deve reconectar no nó dono da partida (RedirectInfo)
+    NODE_JOIN,              // Nó se registra no coordenador (ClusterNodeInfo)
+    CLUSTER_MEMBERSHIP,     // Lista de nós ativos enviada pelo coordenador
+    MATCH_ENQUEUE,          // Jogador com time pronto entra na fila do cluster (MatchHandoff)
+    MATCH_CANCEL,           // Jogador saiu da fila do cluster
+    MATCH_ASSIGN,           // Par formado: nó dono e tokens de hand-off (MatchAssignment)
+    MATCH_READY,            // Nó dono preparou a partida; origens podem redirecionar
+    STANDBY_ADDRESS,        // Servidor standby para reconectar se este cair (RedirectInfo sem token)
+    // Espectadores
+    SPECTATE_REQUEST,       // Assistir a batalha do jogador informado (nome)
+    SPECTATE_END,           // Fim da transmissão (resultado); do cliente: parar de assistir
+    // Lobby
+    LOBBY_UPDATE,           // Entradas, saídas e chat desde o último tick (LobbyUpdate)
+    LOBBY_CHAT              // Mensagem de chat do cliente para o lobby
 }
@@ -8,6 +8,7 @@ public class NetworkConstants {
     // Configurações de conexão
     public static final int DEFAULT_PORT = 12345;
     public static final String DEFAULT_HOST = "localhost";
+    public static final int COORDINATOR_PORT = 12340; // Coordenador do cluster
     public static final int CONNECTION_TIMEOUT = 30000; // 30 segundos
     public static final int READ_TIMEOUT = 5000; // 5 segundos
     
@@ -16,11 +17,17 @@ public class NetworkConstants {
     public static final int SERVER_BACKLOG = 10;
     public static final long HEARTBEAT_INTERVAL = 10000; // 10 segundos
     public static final long CLIENT_TIMEOUT = 30000; // 30 segundos
+    public static final long METRICS_PUBLISH_INTERVAL = 250; // 4 snapshots por segundo
     
     // Buffer sizes
     public static final int BUFFER_SIZE = 8192;
     public static final int MESSAGE_QUEUE_SIZE = 100;
     
+    // Fila de saída por conexão
+    public static final int OUTBOUND_MAX_BYTES = 256 * 1024;
+    public static final int OUTBOUND_BATCH_BYTES = 64 * 1024;
+    public static final long OUTBOUND_MAX_BACKLOG = 15000; // 15 segundos sem drenar
+    
     // Códigos de resposta
     public static final int SUCCESS_CODE = 200;
     public static final int ERROR_CODE = 400;
@@ -36,6 +43,25 @@ public class NetworkConstants {
     // Configurações de jogo
     public static final int BATTLE_TIMEOUT = 60000; // 1 minuto por jogada
     public static final int TEAM_SELECTION_TIMEOUT = 300000; // 5 minutos para seleção de time
+    public static final int REMATCH_TIMEOUT = 30000; // 30 segundos para o oponente aceitar a revanche
+    public static final int RESUME_TIMEOUT = 60000; // 1 minuto para reconectar após reinício do servidor
+    public static final int RECONNECT_INTERVAL = 1000; // Intervalo entre tentativas de reconexão
+    public static final int SESSION_RETENTION = 120000; // Sessão encerrada fica 2 minutos aguardando revanche
+    public static final int SESSION_REAP_INTERVAL = 5000; // Varredura das sessões encerradas
+    public static final int HANDOFF_TIMEOUT = 10000; // Jogadores redirecionados têm 10 segundos para chegar ao nó dono
+    public static final int CLUSTER_HEARTBEAT_INTERVAL = 2000; // Ping entre nó e coordenador
+    public static final int CLUSTER_NODE_TIMEOUT = 6000; // Nó (ou coordenador) em silêncio por 6 segundos é dado como morto
+    public static final int CLUSTER_RECONNECT_MAX = 30000; // Teto da espera entre tentativas de reconectar ao coordenador
+    public static final int REPLICATION_BATCH_INTERVAL = 5; // Lote de replicação para o standby a cada 5 ms
+    public static final int REPLICATION_HEARTBEAT = 500; // Lote vazio quando não há mudanças
+    public static final int FAILOVER_TIMEOUT = 2000; // Standby assume após 2 segundos sem notícias do primário
+    public static final int SPECTATOR_DELAY = 0; // Atraso da transmissão para espectadores (torneios usam > 0)
+    public static final int LOBBY_TICK = 250; // Entradas, saídas e chat do lobby vão em um lote a cada 250 ms
+    public static final int LOBBY_CHAT_MAX_LENGTH = 200; // Caracteres por mensagem de chat
+    public static final int LOBBY_CHAT_PER_TICK = 20; // Mensagens de chat por lote (o resto espera o próximo)
+    public static final int LOBBY_CHAT_BACKLOG = 200; // Mensagens de chat aguardando; acima disso são descartadas
+    public static final int LOBBY_CHAT_BURST = 3; // Mensagens por jogador dentro da janela
+    public static final int LOBBY_CHAT_WINDOW = 5000; // Janela do limite de chat por jogador
     
     private NetworkConstants() {
         // Previne instanciação
@@ -2,21 +2,45 @@ package network;
 
 import java.io.*;
 import java.net.*;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import logging.Log;
+import logging.LogCategory;
 
 /**
  * Gerenciador de comunicação de rede thread-safe
  * Responsável por enviar e receber mensagens via socket
  */
-public class NetworkManager extends Thread {
+public class NetworkManager extends Thread implements Connection {
     
     private final Socket socket;
-    private ObjectInputStream input;
-    private ObjectOutputStream output;
+    private BufferedInputStream input;
+    private BufferedOutputStream output;
+    private CountingInputStream countingInput;
+    
+    // Codec da conexão (null = detectar pelo cabeçalho do outro lado)
+    private final CodecType requestedCodec;
+    private MessageCodec codec;
+    private WireStats wireStats;
+    
+    // Lock de codificação: garante que os frames entram na fila na ordem do encode
+    // (não fixa a thread portadora quando roda em thread virtual)
+    private final ReentrantLock encodeLock = new ReentrantLock();
+    
+    // Fila de saída drenada pela thread escritora; quem envia nunca toca no socket
+    private OutboundPolicy outboundPolicy = OutboundPolicy.fromSystemProperties();
+    private OutboundQueue outbound;
+    private final AtomicBoolean closeAfterFlush = new AtomicBoolean(false);
+    
+    // Builder das threads de leitura/escrita (plataforma por padrão)
+    private Thread.Builder threadBuilder = Thread.ofPlatform().daemon(true);
+    
+    // Thread que executa o loop de leitura (esta própria ou uma thread virtual)
+    private volatile Thread readerThread;
+    private volatile Thread writerThread;
     
-    private final BlockingQueue<Message> messageQueue;
     private final AtomicBoolean running;
     private final AtomicBoolean connected;
     
@@ -34,9 +58,19 @@ public class NetworkManager extends Thread {
         void onError(Exception e);
     }
     
+    /**
+     * Conexão que detecta o codec pelo cabeçalho recebido (lado servidor)
+     */
     public NetworkManager(Socket socket) {
+        this(socket, null);
+    }
+    
+    /**
+     * Conexão com codec definido (lado cliente)
+     */
+    public NetworkManager(Socket socket, CodecType codecType) {
         this.socket = socket;
-        this.messageQueue = new LinkedBlockingQueue<>(NetworkConstants.MESSAGE_QUEUE_SIZE);
+        this.requestedCodec = codecType;
         this.running = new AtomicBoolean(false);
         this.connected = new AtomicBoolean(false);
         
@@ -49,14 +83,28 @@ public class NetworkManager extends Thread {
      */
     public boolean initialize() {
         try {
-            // Importante: ObjectOutputStream primeiro!
-            output = new ObjectOutputStream(socket.getOutputStream());
+            countingInput = new CountingInputStream(socket.getInputStream());
+            input = new BufferedInputStream(countingInput, NetworkConstants.BUFFER_SIZE);
+            output = new BufferedOutputStream(socket.getOutputStream(), NetworkConstants.BUFFER_SIZE);
+            
+            // Servidor: aguarda o cabeçalho do cliente para escolher o codec
+            CodecType codecType = requestedCodec != null ? requestedCodec : CodecType.detect(input);
+            codec = codecType.create();
+            wireStats = WireStats.forConnection(codecType);
+            
+            // Importante: cabeçalho enviado antes de ler o do outro lado!
+            output.write(codec.header());
             output.flush();
             
-            input = new ObjectInputStream(socket.getInputStream());
+            codec.readHeader(input);
+            wireStats.recordBytesIn(countingInput.drain());
             
             connected.set(true);
             
+            // Escritor dedicado: envia os frames enfileirados em lotes
+            outbound = new OutboundQueue(outboundPolicy);
+            writerThread = threadBuilder.name(getName() + "-writer").start(this::writeLoop);
+            
             if (connectionListener != null) {
                 connectionListener.onConnected();
             }
@@ -64,7 +112,7 @@ public class NetworkManager extends Thread {
             return true;
             
         } catch (IOException e) {
-            System.err.println("Erro ao inicializar NetworkManager: " + e.getMessage());
+            Log.error(LogCategory.NETWORK, "Erro ao inicializar NetworkManager: {}", e.getMessage());
             if (connectionListener != null) {
                 connectionListener.onError(e);
             }
@@ -72,6 +120,42 @@ public class NetworkManager extends Thread {
         }
     }
     
+    /**
+     * Define o builder das threads de leitura e escrita (ex.: Thread.ofVirtual()).
+     * Deve ser chamado antes de initialize().
+     */
+    public void setThreadBuilder(Thread.Builder builder) {
+        this.threadBuilder = builder;
+    }
+    
+    /**
+     * Define a política da fila de saída. Deve ser chamado antes de initialize().
+     */
+    public void setOutboundPolicy(OutboundPolicy policy) {
+        this.outboundPolicy = policy;
+    }
+    
+    /**
+     * Inicia o loop de leitura em uma thread criada pelo builder configurado,
+     * em vez de usar esta própria Thread
+     */
+    public Thread startReader() {
+        readerThread = threadBuilder.name(getName()).start(this);
+        return readerThread;
+    }
+    
+    /**
+     * Aguarda o fim do loop de leitura
+     */
+    public void awaitTermination() throws InterruptedException {
+        Thread reader = readerThread;
+        if (reader != null) {
+            reader.join();
+        } else {
+            join();
+        }
+    }
+    
     /**
      * Thread principal para recepção de mensagens
      */
@@ -81,18 +165,22 @@ public class NetworkManager extends Thread {
         
         while (running.get() && connected.get()) {
             try {
+                // Aguardar o primeiro byte para medir apenas o custo de decodificação
+                input.mark(1);
+                if (input.read() < 0) {
+                    break;
+                }
+                input.reset();
+                
                 // Receber mensagem
-                Object obj = input.readObject();
-                if (obj instanceof Message) {
-                    Message message = (Message) obj;
-                    
-                    // Processar mensagem via listener
-                    if (messageListener != null) {
-                        messageListener.onMessageReceived(message);
-                    }
-                    
-                } else {
-                    System.err.println("Objeto recebido não é uma mensagem válida: " + obj.getClass());
+                long start = System.nanoTime();
+                Message message = codec.read(input);
+                wireStats.recordDecode(System.nanoTime() - start);
+                wireStats.recordBytesIn(countingInput.drain());
+                
+                // Processar mensagem via listener
+                if (messageListener != null) {
+                    messageListener.onMessageReceived(message);
                 }
                 
             } catch (EOFException e) {
@@ -101,11 +189,11 @@ public class NetworkManager extends Thread {
                 
             } catch (SocketException e) {
                 // Conexão perdida
-                System.out.println("Conexão perdida: " + e.getMessage());
+                Log.info(LogCategory.NETWORK, "Conexão perdida: {}", e.getMessage());
                 break;
                 
             } catch (IOException | ClassNotFoundException e) {
-                System.err.println("Erro na comunicação: " + e.getMessage());
+                Log.error(LogCategory.NETWORK, "Erro na comunicação: {}", e.getMessage());
                 if (connectionListener != null) {
                     connectionListener.onError(e);
                 }
@@ -117,42 +205,154 @@ public class NetworkManager extends Thread {
     }
     
     /**
-     * Envia uma mensagem pela rede
+     * Enfileira uma mensagem para envio.
+     * A codificação acontece aqui; a escrita no socket fica com a thread escritora,
+     * então um cliente lento não bloqueia quem envia.
      */
-    public synchronized boolean sendMessage(Message message) {
-        if (!connected.get() || output == null) {
+    @Override
+    public boolean sendMessage(Message message) {
+        if (!connected.get() || outbound == null) {
             return false;
         }
         
+        OutboundQueue.Offer result;
+        encodeLock.lock();
         try {
-            output.writeObject(message);
-            output.flush();
-            return true;
+            long start = System.nanoTime();
+            byte[] frame = codec.encode(message);
+            wireStats.recordEncode(frame.length, System.nanoTime() - start);
+            
+            result = outbound.offer(message.getType(), frame);
             
         } catch (IOException e) {
-            System.err.println("Erro ao enviar mensagem: " + e.getMessage());
-            if (connectionListener != null) {
-                connectionListener.onError(e);
-            }
-            disconnect();
+            Log.error(LogCategory.NETWORK, "Erro ao codificar mensagem: {}", e.getMessage());
+            return false;
+            
+        } finally {
+            encodeLock.unlock();
+        }
+        
+        return accepted(result);
+    }
+    
+    @Override
+    public boolean sendFrame(SharedFrame shared) {
+        if (!connected.get() || outbound == null) {
+            return false;
+        }
+        
+        OutboundQueue.Offer result;
+        encodeLock.lock();
+        try {
+            result = outbound.offer(shared.getType(), shared.frameFor(codec.getType()));
+            
+        } catch (IOException e) {
+            Log.error(LogCategory.NETWORK, "Erro ao codificar mensagem: {}", e.getMessage());
             return false;
+            
+        } finally {
+            encodeLock.unlock();
         }
+        
+        return accepted(result);
+    }
+    
+    /**
+     * Desconecta o cliente lento se a fila transbordou ou está parada há muito tempo
+     */
+    private boolean accepted(OutboundQueue.Offer result) {
+        if (result == OutboundQueue.Offer.OVERFLOW) {
+            disconnectSlowConsumer("fila de saída cheia (" + outbound.getQueuedBytes() + " bytes)");
+            return false;
+        }
+        if (outbound.isBacklogExceeded()) {
+            disconnectSlowConsumer("dados parados há " + outbound.backlogMillis() + " ms");
+            return false;
+        }
+        return result == OutboundQueue.Offer.ACCEPTED;
     }
     
     /**
      * Envia mensagem de forma assíncrona
      */
     public boolean sendMessageAsync(MessageType type, String sender, Object data) {
-        Message message = new Message(type, sender, data);
-        return messageQueue.offer(message);
+        return sendMessage(new Message(type, sender, data));
+    }
+    
+    /**
+     * Loop da thread escritora: retira lotes da fila e faz um único flush por lote
+     */
+    private void writeLoop() {
+        List<OutboundQueue.Frame> batch = new ArrayList<>();
+        try {
+            while (outbound.awaitBatch(batch, NetworkConstants.OUTBOUND_BATCH_BYTES)) {
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                for (OutboundQueue.Frame frame : batch) {
+                    output.write(frame.getBytes());
+                }
+                output.flush();
+                outbound.completed(batch);
+                batch.clear();
+            }
+            
+            if (closeAfterFlush.get()) {
+                disconnect();
+            }
+            
+        } catch (IOException e) {
+            if (connected.get()) {
+                Log.error(LogCategory.NETWORK, "Erro ao enviar mensagem: {}", e.getMessage());
+                if (connectionListener != null) {
+                    connectionListener.onError(e);
+                }
+            }
+            disconnect();
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void disconnectSlowConsumer(String reason) {
+        if (!connected.get()) {
+            return;
+        }
+        OutboundQueue.recordSlowConsumerDisconnect();
+        Log.warn(LogCategory.NETWORK, "🐢 Cliente lento desconectado ({}): {}", getName(), reason);
+        disconnect();
+    }
+    
+    /**
+     * Envia o que estiver na fila e fecha a conexão em seguida
+     */
+    @Override
+    public void disconnectAfterFlush() {
+        if (outbound == null) {
+            disconnect();
+            return;
+        }
+        closeAfterFlush.set(true);
+        outbound.closeForWriting();
     }
     
     /**
      * Desconecta e limpa recursos
      */
+    @Override
     public void disconnect() {
         running.set(false);
-        connected.set(false);
+        boolean wasConnected = connected.getAndSet(false);
+        
+        if (wasConnected && wireStats != null) {
+            Log.info(LogCategory.NETWORK, "📊 {} {}: {}", codec.getType(), getName(), wireStats);
+            Log.info(LogCategory.NETWORK, "📤 {}: {}", getName(), outbound);
+        }
+        
+        if (outbound != null) {
+            outbound.close();
+        }
         
         try {
             if (output != null) {
@@ -178,12 +378,14 @@ public class NetworkManager extends Thread {
             // Ignorar erro no fechamento
         }
         
-        if (connectionListener != null) {
+        // Só avisa uma vez, e só se a conexão chegou a ser estabelecida
+        if (wasConnected && connectionListener != null) {
             connectionListener.onDisconnected();
         }
     }
     
     // Getters
+    @Override
     public boolean isConnected() {
         return connected.get();
     }
@@ -192,15 +394,33 @@ public class NetworkManager extends Thread {
         return running.get();
     }
     
+    @Override
     public String getRemoteAddress() {
         return socket.getRemoteSocketAddress().toString();
     }
     
+    public CodecType getCodecType() {
+        return codec != null ? codec.getType() : requestedCodec;
+    }
+    
+    public WireStats getWireStats() {
+        return wireStats;
+    }
+    
+    /**
+     * Fila de saída (profundidade, descartes e volume escrito)
+     */
+    public OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+    
     // Setters para listeners
+    @Override
     public void setMessageListener(MessageListener listener) {
         this.messageListener = listener;
     }
     
+    @Override
     public void setConnectionListener(ConnectionListener listener) {
         this.connectionListener = listener;
     }
@@ -211,4 +431,40 @@ public class NetworkManager extends Thread {
     public boolean sendHeartbeat(String sender) {
         return sendMessage(new Message(MessageType.HEARTBEAT, sender, "ping"));
     }
+    
+    /**
+     * Conta os bytes lidos do socket (para as estatísticas de tráfego)
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        
+        private long count;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+        
+        long drain() {
+            long value = count;
+            count = 0;
+            return value;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,402 @@
+package network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Conexão não bloqueante atendida por um {@link NioEventLoop}.
+ * Usa exclusivamente o {@link BinaryMessageCodec}: os frames já têm prefixo de
+ * tamanho, então leituras parciais são acumuladas até o frame completar.
+ */
+public class NioConnection implements Connection {
+
+    private final SocketChannel channel;
+    private final NioEventLoop loop;
+    private final String remoteAddress;
+
+    private final BinaryMessageCodec codec = new BinaryMessageCodec();
+    private final WireStats wireStats = WireStats.forConnection(CodecType.BINARY);
+
+    private SelectionKey key;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(NetworkConstants.BUFFER_SIZE);
+    private boolean headerReceived = false;
+
+    // Fila de saída limitada em bytes; o lote retirado fica em batch até ser escrito
+    private final OutboundQueue outbound;
+    private final List<OutboundQueue.Frame> batch = new ArrayList<>();
+    private ByteBuffer[] gather = new ByteBuffer[16];
+    private int gatherPos;
+    private int gatherCount;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final AtomicBoolean connected = new AtomicBoolean(false);
+    private final AtomicBoolean closeAfterFlush = new AtomicBoolean(false);
+
+    private NetworkManager.MessageListener messageListener;
+    private NetworkManager.ConnectionListener connectionListener;
+
+    public NioConnection(SocketChannel channel, NioEventLoop loop) {
+        this(channel, loop, OutboundPolicy.fromSystemProperties());
+    }
+
+    public NioConnection(SocketChannel channel, NioEventLoop loop, OutboundPolicy policy) {
+        this.channel = channel;
+        this.loop = loop;
+        this.outbound = new OutboundQueue(policy);
+
+        SocketAddress address = null;
+        try {
+            address = channel.getRemoteAddress();
+        } catch (IOException e) {
+            // Endereço indisponível
+        }
+        this.remoteAddress = String.valueOf(address);
+    }
+
+    /**
+     * Registra a conexão no loop e envia o cabeçalho do protocolo
+     */
+    public void start() {
+        connected.set(true);
+        outbound.offer(null, codec.header());
+        loop.register(channel, this);
+    }
+
+    // Chamado pelo loop após o registro no Selector
+    void onRegistered(SelectionKey key) {
+        this.key = key;
+        if (connectionListener != null) {
+            connectionListener.onConnected();
+        }
+        handleWriteSafely();
+    }
+
+    // Chamado pelo loop quando a conexão falha
+    void onFailure(Exception e) {
+        if (e != null && connected.get() && connectionListener != null) {
+            connectionListener.onError(e);
+        }
+        disconnect();
+    }
+
+    // === LEITURA ===
+
+    void handleRead() throws IOException {
+        int n = channel.read(readBuffer);
+        if (n < 0) {
+            disconnect();
+            return;
+        }
+        if (n == 0) {
+            return;
+        }
+        wireStats.recordBytesIn(n);
+
+        readBuffer.flip();
+        try {
+            if (!headerReceived && !readHeader()) {
+                return;
+            }
+            readFrames();
+        } finally {
+            if (readBuffer != null) {
+                readBuffer.compact();
+            }
+        }
+    }
+
+    private boolean readHeader() throws IOException {
+        if (readBuffer.remaining() < BinaryMessageCodec.HEADER.length) {
+            return false;
+        }
+
+        int first = readBuffer.get(readBuffer.position()) & 0xFF;
+        int second = readBuffer.get(readBuffer.position() + 1) & 0xFF;
+        if (first == 0xAC && second == 0xED) {
+            throw new IOException("Cliente usa serialização Java; o transporte NIO requer -D"
+                    + CodecType.CODEC_PROPERTY + "=binary");
+        }
+
+        for (int expected : BinaryMessageCodec.HEADER) {
+            if ((readBuffer.get() & 0xFF) != expected) {
+                throw new IOException("Cabeçalho binário inválido");
+            }
+        }
+        headerReceived = true;
+        return true;
+    }
+
+    private void readFrames() throws IOException {
+        while (readBuffer.hasRemaining() && connected.get()) {
+            int start = readBuffer.position();
+            int length = readVarInt();
+            if (length < 0) {
+                // Prefixo de tamanho incompleto
+                readBuffer.position(start);
+                return;
+            }
+            if (length > BinaryMessageCodec.MAX_FRAME_SIZE) {
+                throw new IOException("Tamanho de frame inválido: " + length);
+            }
+
+            if (readBuffer.remaining() < length) {
+                readBuffer.position(start);
+                ensureReadCapacity(readBuffer.position() - start + BinaryMessageCodec.varIntSize(length) + length);
+                return;
+            }
+
+            long decodeStart = System.nanoTime();
+            Message message = BinaryMessageCodec.decodeBody(readBuffer.array(),
+                    readBuffer.arrayOffset() + readBuffer.position(), length);
+            readBuffer.position(readBuffer.position() + length);
+            wireStats.recordDecode(System.nanoTime() - decodeStart);
+
+            if (messageListener != null) {
+                messageListener.onMessageReceived(message);
+            }
+        }
+    }
+
+    /**
+     * Lê um varint do buffer; retorna -1 se ainda não chegou por completo
+     */
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!readBuffer.hasRemaining()) {
+                return -1;
+            }
+            int b = readBuffer.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint malformado");
+    }
+
+    private void ensureReadCapacity(int frameSize) {
+        if (frameSize <= readBuffer.capacity()) {
+            return;
+        }
+        // O buffer está em modo leitura; o compact() do chamador preserva os dados
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(frameSize, readBuffer.capacity() * 2));
+        bigger.put(readBuffer);
+        bigger.flip();
+        readBuffer = bigger;
+    }
+
+    // === ESCRITA ===
+
+    @Override
+    public boolean sendMessage(Message message) {
+        if (!connected.get()) {
+            return false;
+        }
+
+        OutboundQueue.Offer result;
+        try {
+            // Encode e enfileiramento juntos para manter a ordem dos frames
+            synchronized (codec) {
+                long start = System.nanoTime();
+                byte[] frame = codec.encode(message);
+                wireStats.recordEncode(frame.length, System.nanoTime() - start);
+                result = outbound.offer(message.getType(), frame);
+            }
+        } catch (IOException e) {
+            Log.error(LogCategory.NETWORK, "Erro ao codificar mensagem: {}", e.getMessage());
+            return false;
+        }
+
+        return accepted(result);
+    }
+
+    @Override
+    public boolean sendFrame(SharedFrame shared) {
+        if (!connected.get()) {
+            return false;
+        }
+
+        OutboundQueue.Offer result;
+        try {
+            synchronized (codec) {
+                result = outbound.offer(shared.getType(), shared.frameFor(CodecType.BINARY));
+            }
+        } catch (IOException e) {
+            Log.error(LogCategory.NETWORK, "Erro ao codificar mensagem: {}", e.getMessage());
+            return false;
+        }
+
+        return accepted(result);
+    }
+
+    /**
+     * Desconecta o cliente lento ou agenda a escrita do que foi enfileirado
+     */
+    private boolean accepted(OutboundQueue.Offer result) {
+        if (result == OutboundQueue.Offer.OVERFLOW) {
+            disconnectSlowConsumer("fila de saída cheia (" + outbound.getQueuedBytes() + " bytes)");
+            return false;
+        }
+        if (outbound.isBacklogExceeded()) {
+            disconnectSlowConsumer("dados parados há " + outbound.backlogMillis() + " ms");
+            return false;
+        }
+
+        scheduleFlush();
+        return result == OutboundQueue.Offer.ACCEPTED;
+    }
+
+    private void disconnectSlowConsumer(String reason) {
+        if (!connected.get()) {
+            return;
+        }
+        OutboundQueue.recordSlowConsumerDisconnect();
+        Log.warn(LogCategory.NETWORK, "🐢 Cliente lento desconectado (NIO {}): {}", remoteAddress, reason);
+        disconnect();
+    }
+
+    /**
+     * Envia o que estiver na fila e fecha a conexão em seguida
+     */
+    @Override
+    public void disconnectAfterFlush() {
+        closeAfterFlush.set(true);
+        outbound.closeForWriting();
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::handleWriteSafely);
+        }
+    }
+
+    private void handleWriteSafely() {
+        try {
+            handleWrite();
+        } catch (IOException e) {
+            onFailure(e);
+        }
+    }
+
+    void handleWrite() throws IOException {
+        flushScheduled.set(false);
+        if (key == null || !key.isValid()) {
+            return;
+        }
+
+        while (true) {
+            if (gatherPos == gatherCount && !nextBatch()) {
+                break;
+            }
+
+            channel.write(gather, gatherPos, gatherCount - gatherPos);
+            while (gatherPos < gatherCount && !gather[gatherPos].hasRemaining()) {
+                gatherPos++;
+            }
+
+            if (gatherPos < gatherCount) {
+                // Socket cheio: aguardar OP_WRITE
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+
+            outbound.completed(batch);
+            batch.clear();
+        }
+
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+
+        if (closeAfterFlush.get()) {
+            disconnect();
+        }
+    }
+
+    /**
+     * Retira o próximo lote da fila de saída para a escrita agregada (gathering write)
+     */
+    private boolean nextBatch() {
+        Arrays.fill(gather, 0, gatherCount, null);
+        gatherPos = 0;
+        gatherCount = 0;
+
+        outbound.drain(batch, NetworkConstants.OUTBOUND_BATCH_BYTES);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        if (gather.length < batch.size()) {
+            gather = new ByteBuffer[batch.size()];
+        }
+        for (OutboundQueue.Frame frame : batch) {
+            gather[gatherCount++] = ByteBuffer.wrap(frame.getBytes());
+        }
+        return true;
+    }
+
+    // === CICLO DE VIDA ===
+
+    @Override
+    public void disconnect() {
+        if (!connected.getAndSet(false)) {
+            return;
+        }
+
+        Log.info(LogCategory.NETWORK, "📊 NIO {}: {}", remoteAddress, wireStats);
+        Log.info(LogCategory.NETWORK, "📤 NIO {}: {}", remoteAddress, outbound);
+
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignorar erro no fechamento
+        }
+        outbound.close();
+
+        if (connectionListener != null) {
+            connectionListener.onDisconnected();
+        }
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected.get();
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    public WireStats getWireStats() {
+        return wireStats;
+    }
+
+    /**
+     * Fila de saída (profundidade, descartes e volume escrito)
+     */
+    public OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+
+    @Override
+    public void setMessageListener(NetworkManager.MessageListener listener) {
+        this.messageListener = listener;
+    }
+
+    @Override
+    public void setConnectionListener(NetworkManager.ConnectionListener listener) {
+        this.connectionListener = listener;
+    }
+}
@@ -0,0 +1,161 @@
+package network;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Loop de eventos NIO: um Selector atendendo várias conexões em uma única thread.
+ * Tarefas vindas de outras threads (registro, interesse de escrita) passam
+ * pela fila de tarefas e são executadas dentro do loop.
+ */
+public class NioEventLoop implements Runnable {
+
+    private final String name;
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+    private volatile Thread thread;
+
+    public NioEventLoop(String name) throws IOException {
+        this.name = name;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Inicia a thread do loop
+     */
+    public void start() {
+        Thread loopThread = new Thread(this, name);
+        loopThread.setDaemon(true);
+        this.thread = loopThread;
+        loopThread.start();
+    }
+
+    /**
+     * Registra o canal neste loop e começa a ler mensagens da conexão
+     */
+    public void register(SocketChannel channel, NioConnection connection) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connection.onRegistered(key);
+            } catch (IOException e) {
+                connection.onFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Executa a tarefa dentro do loop (imediatamente se já estiver nele)
+     */
+    public void execute(Runnable task) {
+        if (inLoop()) {
+            task.run();
+            return;
+        }
+
+        tasks.add(task);
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    public boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    @Override
+    public void run() {
+        running.set(true);
+
+        while (running.get()) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+
+                runTasks();
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    processKey(key);
+                }
+
+            } catch (IOException e) {
+                if (running.get()) {
+                    Log.error(LogCategory.NETWORK, "Erro no loop NIO {}: {}", name, e.getMessage());
+                }
+            }
+        }
+
+        closeAll();
+    }
+
+    private void processKey(SelectionKey key) {
+        NioConnection connection = (NioConnection) key.attachment();
+        if (!key.isValid()) {
+            connection.onFailure(null);
+            return;
+        }
+
+        try {
+            if (key.isReadable()) {
+                connection.handleRead();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.handleWrite();
+            }
+        } catch (IOException | RuntimeException e) {
+            connection.onFailure(e);
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Log.error(LogCategory.NETWORK, "Erro em tarefa do loop NIO: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void closeAll() {
+        runTasks();
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof NioConnection) {
+                ((NioConnection) attachment).disconnect();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Ignorar erro no fechamento
+        }
+    }
+
+    /**
+     * Para o loop e fecha todas as conexões registradas
+     */
+    public void shutdown() {
+        running.set(false);
+        selector.wakeup();
+    }
+
+    public int getConnectionCount() {
+        return selector.keys().size();
+    }
+}
@@ -0,0 +1,79 @@
+package network;
+
+/**
+ * Política da fila de saída de cada conexão e tratamento de consumidores lentos.
+ * Configurável por propriedades de sistema:
+ * -Dpokemon.outbound.maxBytes, -Dpokemon.outbound.dropStaleState e
+ * -Dpokemon.outbound.maxBacklogMs
+ */
+public class OutboundPolicy {
+
+    private final int maxQueuedBytes;
+    private final boolean dropStaleBattleState;
+    private final long maxBacklogMillis;
+
+    public OutboundPolicy(int maxQueuedBytes, boolean dropStaleBattleState, long maxBacklogMillis) {
+        this.maxQueuedBytes = Math.max(NetworkConstants.BUFFER_SIZE, maxQueuedBytes);
+        this.dropStaleBattleState = dropStaleBattleState;
+        this.maxBacklogMillis = maxBacklogMillis;
+    }
+
+    public static OutboundPolicy defaults() {
+        return new OutboundPolicy(NetworkConstants.OUTBOUND_MAX_BYTES, true, NetworkConstants.OUTBOUND_MAX_BACKLOG);
+    }
+
+    public static OutboundPolicy fromSystemProperties() {
+        OutboundPolicy defaults = defaults();
+
+        int maxBytes = defaults.maxQueuedBytes;
+        long maxBacklog = defaults.maxBacklogMillis;
+        boolean dropStale = defaults.dropStaleBattleState;
+
+        try {
+            String value = System.getProperty("pokemon.outbound.maxBytes");
+            if (value != null) {
+                maxBytes = Integer.parseInt(value.trim());
+            }
+            value = System.getProperty("pokemon.outbound.maxBacklogMs");
+            if (value != null) {
+                maxBacklog = Long.parseLong(value.trim());
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Configuração de fila de saída inválida: " + e.getMessage());
+        }
+
+        String value = System.getProperty("pokemon.outbound.dropStaleState");
+        if (value != null) {
+            dropStale = Boolean.parseBoolean(value.trim());
+        }
+
+        return new OutboundPolicy(maxBytes, dropStale, maxBacklog);
+    }
+
+    /**
+     * Máximo de bytes aguardando envio antes de considerar o consumidor lento
+     */
+    public int getMaxQueuedBytes() {
+        return maxQueuedBytes;
+    }
+
+    /**
+     * Se um BATTLE_STATE ainda na fila deve ser descartado quando chega um mais novo
+     */
+    public boolean isDropStaleBattleState() {
+        return dropStaleBattleState;
+    }
+
+    /**
+     * Tempo máximo (ms) com dados parados na fila antes de desconectar (0 = sem limite)
+     */
+    public long getMaxBacklogMillis() {
+        return maxBacklogMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OutboundPolicy{maxBytes=%d, dropStaleState=%s, maxBacklogMs=%d}",
+                maxQueuedBytes, dropStaleBattleState, maxBacklogMillis);
+    }
+}
@@ -0,0 +1,359 @@
+package network;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fila de saída de uma conexão, limitada em bytes.
+ * Quem envia apenas enfileira frames já codificados; um escritor dedicado
+ * retira lotes e faz uma única escrita + flush por lote.
+ */
+public class OutboundQueue {
+
+    /**
+     * Resultado de uma tentativa de enfileirar
+     */
+    public enum Offer {
+        ACCEPTED,   // Frame enfileirado
+        OVERFLOW,   // Limite de bytes excedido
+        CLOSED      // Fila fechada
+    }
+
+    /**
+     * Frame codificado aguardando envio
+     */
+    public static final class Frame {
+        final byte[] bytes;
+        final MessageType type;
+        final long enqueuedAt;
+        boolean dropped;
+
+        Frame(byte[] bytes, MessageType type, long enqueuedAt) {
+            this.bytes = bytes;
+            this.type = type;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public MessageType getType() {
+            return type;
+        }
+    }
+
+    // Métricas globais (todas as conexões)
+    private static final AtomicLong GLOBAL_QUEUED_BYTES = new AtomicLong();
+    private static final AtomicLong GLOBAL_DROPPED_FRAMES = new AtomicLong();
+    private static final AtomicLong GLOBAL_SLOW_DISCONNECTS = new AtomicLong();
+
+    private final OutboundPolicy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+
+    // Último BATTLE_STATE ainda não retirado pelo escritor
+    private Frame pendingState;
+
+    private int queuedBytes;
+    private int queuedFrames;
+    private int highWaterBytes;
+    private long droppedFrames;
+    private long writtenFrames;
+    private long writtenBytes;
+    private int inFlightBytes;
+    private long inFlightSince; // 0 = nenhum lote em escrita
+    private boolean closed;     // Não aceita novos frames
+    private boolean discarded;  // Fechada e esvaziada
+
+    public OutboundQueue(OutboundPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Enfileira um frame. Um BATTLE_STATE novo substitui o anterior ainda na fila.
+     */
+    public Offer offer(MessageType type, byte[] bytes) {
+        lock.lock();
+        try {
+            if (closed) {
+                return Offer.CLOSED;
+            }
+
+            if (type == MessageType.BATTLE_STATE && policy.isDropStaleBattleState() && pendingState != null) {
+                dropLocked(pendingState);
+                pendingState = null;
+            }
+
+            if (queuedBytes + bytes.length > policy.getMaxQueuedBytes()) {
+                return Offer.OVERFLOW;
+            }
+
+            Frame frame = new Frame(bytes, type, System.nanoTime());
+            frames.addLast(frame);
+            if (type == MessageType.BATTLE_STATE) {
+                pendingState = frame;
+            }
+
+            queuedFrames++;
+            queuedBytes += bytes.length;
+            highWaterBytes = Math.max(highWaterBytes, queuedBytes);
+            GLOBAL_QUEUED_BYTES.addAndGet(bytes.length);
+
+            notEmpty.signal();
+            return Offer.ACCEPTED;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dropLocked(Frame frame) {
+        frame.dropped = true;
+        queuedFrames--;
+        queuedBytes -= frame.bytes.length;
+        droppedFrames++;
+        GLOBAL_QUEUED_BYTES.addAndGet(-frame.bytes.length);
+        GLOBAL_DROPPED_FRAMES.incrementAndGet();
+    }
+
+    /**
+     * Aguarda frames e retira um lote de até maxBytes (ao menos um frame).
+     * Retorna false se a fila foi fechada e está vazia.
+     */
+    public boolean awaitBatch(List<Frame> batch, int maxBytes) throws InterruptedException {
+        lock.lock();
+        try {
+            while (queuedFrames == 0 && !closed) {
+                notEmpty.await();
+            }
+            drainLocked(batch, maxBytes);
+            return !batch.isEmpty() || !closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retira um lote sem bloquear (usado pelo loop NIO)
+     */
+    public void drain(List<Frame> batch, int maxBytes) {
+        lock.lock();
+        try {
+            drainLocked(batch, maxBytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drainLocked(List<Frame> batch, int maxBytes) {
+        int bytes = 0;
+        while (!frames.isEmpty()) {
+            Frame frame = frames.peekFirst();
+            if (!frame.dropped && !batch.isEmpty() && bytes + frame.bytes.length > maxBytes) {
+                break;
+            }
+            frames.pollFirst();
+            if (frame.dropped) {
+                continue;
+            }
+            if (frame == pendingState) {
+                pendingState = null;
+            }
+            batch.add(frame);
+            bytes += frame.bytes.length;
+            queuedFrames--;
+            queuedBytes -= frame.bytes.length;
+        }
+
+        inFlightBytes += bytes;
+        if (!batch.isEmpty() && inFlightSince == 0) {
+            inFlightSince = batch.get(0).enqueuedAt;
+        }
+    }
+
+    /**
+     * Registra que o lote retirado foi escrito por completo
+     */
+    public void completed(List<Frame> batch) {
+        long bytes = 0;
+        for (Frame frame : batch) {
+            bytes += frame.bytes.length;
+        }
+
+        lock.lock();
+        try {
+            writtenFrames += batch.size();
+            writtenBytes += bytes;
+            GLOBAL_QUEUED_BYTES.addAndGet(-inFlightBytes);
+            inFlightBytes = 0;
+            inFlightSince = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Há quanto tempo (ms) o dado mais antigo ainda não enviado está parado
+     */
+    public long backlogMillis() {
+        lock.lock();
+        try {
+            long oldest = inFlightSince;
+            if (oldest == 0) {
+                for (Frame frame : frames) {
+                    if (!frame.dropped) {
+                        oldest = frame.enqueuedAt;
+                        break;
+                    }
+                }
+            }
+            return oldest == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Verifica a política de backlog; true se o consumidor deve ser desconectado
+     */
+    public boolean isBacklogExceeded() {
+        long limit = policy.getMaxBacklogMillis();
+        return limit > 0 && backlogMillis() > limit;
+    }
+
+    /**
+     * Fecha a fila e descarta o que não foi enviado
+     */
+    public void close() {
+        lock.lock();
+        try {
+            if (discarded) {
+                return;
+            }
+            closed = true;
+            discarded = true;
+            GLOBAL_QUEUED_BYTES.addAndGet(-(queuedBytes + inFlightBytes));
+            frames.clear();
+            pendingState = null;
+            queuedBytes = 0;
+            queuedFrames = 0;
+            inFlightBytes = 0;
+            inFlightSince = 0;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fecha a fila para novos frames, mas deixa o escritor enviar o restante
+     */
+    public void closeForWriting() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return queuedFrames == 0 && inFlightSince == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static void recordSlowConsumerDisconnect() {
+        GLOBAL_SLOW_DISCONNECTS.incrementAndGet();
+    }
+
+    // Métricas da conexão
+    public int getQueuedBytes() {
+        lock.lock();
+        try {
+            return queuedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueuedFrames() {
+        lock.lock();
+        try {
+            return queuedFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getHighWaterBytes() {
+        lock.lock();
+        try {
+            return highWaterBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedFrames() {
+        lock.lock();
+        try {
+            return droppedFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWrittenFrames() {
+        lock.lock();
+        try {
+            return writtenFrames;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getWrittenBytes() {
+        lock.lock();
+        try {
+            return writtenBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Métricas globais
+    public static long getGlobalQueuedBytes() {
+        return GLOBAL_QUEUED_BYTES.get();
+    }
+
+    public static long getGlobalDroppedFrames() {
+        return GLOBAL_DROPPED_FRAMES.get();
+    }
+
+    public static long getGlobalSlowConsumerDisconnects() {
+        return GLOBAL_SLOW_DISCONNECTS.get();
+    }
+
+    @Override
+    public String toString() {
+        lock.lock();
+        try {
+            return String.format("OutboundQueue{queued=%d frames/%d bytes, highWater=%d bytes, "
+                    + "written=%d frames/%d bytes, dropped=%d}",
+                    queuedFrames, queuedBytes, highWaterBytes, writtenFrames, writtenBytes, droppedFrames);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package network;
+
+import java.io.Serializable;
+
+/**
+ * Endereço do nó do cluster onde a partida do jogador vai acontecer e o
+ * token que ele apresenta no CONNECT_REQUEST ao reconectar lá
+ */
+public class RedirectInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String host;
+    private final int port;
+    private final String token;
+
+    public RedirectInfo(String host, int port, String token) {
+        this.host = host;
+        this.port = port;
+        this.token = token;
+    }
+
+    public String getHost() { return host; }
+    public int getPort() { return port; }
+    public String getToken() { return token; }
+
+    @Override
+    public String toString() {
+        return host + ":" + port;
+    }
+}
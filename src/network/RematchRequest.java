@@ -10,9 +10,13 @@ public class RematchRequest implements Serializable {
     private final long timestamp;
     
     public RematchRequest(String requesterName, String targetName) {
+        this(requesterName, targetName, System.currentTimeMillis());
+    }
+    
+    public RematchRequest(String requesterName, String targetName, long timestamp) {
         this.requesterName = requesterName;
         this.targetName = targetName;
-        this.timestamp = System.currentTimeMillis();
+        this.timestamp = timestamp;
     }
     
     public String getRequesterName() { return requesterName; }
@@ -20,6 +24,6 @@ public class RematchRequest implements Serializable {
     public long getTimestamp() { return timestamp; }
     
     public boolean isExpired() {
-        return System.currentTimeMillis() - timestamp > 30000; // 30 segundos
+        return System.currentTimeMillis() - timestamp > NetworkConstants.REMATCH_TIMEOUT;
     }
 }
@@ -0,0 +1,58 @@
+package network;
+
+import java.io.IOException;
+
+/**
+ * Mensagem codificada uma única vez para muitos destinatários (espectadores).
+ * O frame de cada codec é gerado no primeiro pedido e depois só reaproveitado;
+ * os bytes são somente leitura e vão direto para a fila de saída de cada conexão.
+ *
+ * Os frames são autocontidos nos dois codecs (o JAVA faz reset() após cada
+ * mensagem), então o mesmo array vale para qualquer conexão daquele codec.
+ */
+public final class SharedFrame {
+
+    private static final CodecType[] CODECS = CodecType.values();
+
+    private final Message message;
+    private final byte[][] frames = new byte[CODECS.length][];
+
+    // Codecs próprios, usados só para gerar os frames compartilhados
+    private static final ThreadLocal<MessageCodec[]> ENCODERS =
+            ThreadLocal.withInitial(() -> new MessageCodec[CODECS.length]);
+
+    public SharedFrame(Message message) {
+        this.message = message;
+    }
+
+    public SharedFrame(MessageType type, String sender, Object data) {
+        this(new Message(type, sender, data));
+    }
+
+    public MessageType getType() {
+        return message.getType();
+    }
+
+    /**
+     * Frame no codec pedido (codificado na primeira chamada para esse codec)
+     */
+    public synchronized byte[] frameFor(CodecType type) throws IOException {
+        byte[] frame = frames[type.ordinal()];
+        if (frame == null) {
+            frame = encoder(type).encode(message);
+            frames[type.ordinal()] = frame;
+        }
+        return frame;
+    }
+
+    private static MessageCodec encoder(CodecType type) throws IOException {
+        MessageCodec[] encoders = ENCODERS.get();
+        MessageCodec codec = encoders[type.ordinal()];
+        if (codec == null) {
+            codec = type.create();
+            codec.header(); // O codec JAVA só codifica depois de gerar o cabeçalho
+            encoders[type.ordinal()] = codec;
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,44 @@
+package network;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado completo de um turno, enviado em um único frame TURN_RESULT:
+ * golpe usado, desmaios, novo estado da batalha e de quem é a próxima jogada.
+ * Substitui a sequência MOVE_RESULT + POKEMON_FAINT + BATTLE_STATE + MOVE_REQUEST.
+ */
+public class TurnResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String moveResult;
+    private final ArrayList<String> faintMessages;
+    private final BattleStateDTO state;
+    private final boolean yourTurn;
+    private final boolean battleOver;
+
+    public TurnResult(String moveResult, List<String> faintMessages, BattleStateDTO state,
+            boolean yourTurn, boolean battleOver) {
+        this.moveResult = moveResult;
+        this.faintMessages = faintMessages != null ? new ArrayList<>(faintMessages) : new ArrayList<>();
+        this.state = state;
+        this.yourTurn = yourTurn;
+        this.battleOver = battleOver;
+    }
+
+    public String getMoveResult() { return moveResult; }
+    public List<String> getFaintMessages() { return Collections.unmodifiableList(faintMessages); }
+    public BattleStateDTO getState() { return state; }
+
+    /**
+     * Se o destinatário deve escolher o próximo movimento (equivale ao antigo MOVE_REQUEST)
+     */
+    public boolean isYourTurn() { return yourTurn; }
+
+    /**
+     * Se a batalha terminou neste turno (BATTLE_END vem em seguida)
+     */
+    public boolean isBattleOver() { return battleOver; }
+}
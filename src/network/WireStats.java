@@ -0,0 +1,92 @@
+package network;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de tráfego e custo de codificação de uma conexão.
+ * Cada registro também é somado no agregado global do codec, permitindo
+ * comparar bytes por turno e CPU de encode/decode entre os codecs.
+ */
+public class WireStats {
+
+    private static final Map<CodecType, WireStats> GLOBAL = new EnumMap<>(CodecType.class);
+
+    static {
+        for (CodecType type : CodecType.values()) {
+            GLOBAL.put(type, new WireStats(null));
+        }
+    }
+
+    private final WireStats parent;
+
+    private final LongAdder framesOut = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder framesIn = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+
+    private WireStats(WireStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Cria contadores de uma conexão ligados ao agregado do codec
+     */
+    public static WireStats forConnection(CodecType type) {
+        return new WireStats(GLOBAL.get(type));
+    }
+
+    /**
+     * Agregado de todas as conexões que usaram o codec
+     */
+    public static WireStats global(CodecType type) {
+        return GLOBAL.get(type);
+    }
+
+    public void recordEncode(int bytes, long nanos) {
+        framesOut.increment();
+        bytesOut.add(bytes);
+        encodeNanos.add(nanos);
+        if (parent != null) {
+            parent.recordEncode(bytes, nanos);
+        }
+    }
+
+    public void recordDecode(long nanos) {
+        framesIn.increment();
+        decodeNanos.add(nanos);
+        if (parent != null) {
+            parent.recordDecode(nanos);
+        }
+    }
+
+    public void recordBytesIn(long bytes) {
+        bytesIn.add(bytes);
+        if (parent != null) {
+            parent.recordBytesIn(bytes);
+        }
+    }
+
+    // Getters
+    public long getFramesOut() { return framesOut.sum(); }
+    public long getBytesOut() { return bytesOut.sum(); }
+    public long getEncodeNanos() { return encodeNanos.sum(); }
+    public long getFramesIn() { return framesIn.sum(); }
+    public long getBytesIn() { return bytesIn.sum(); }
+    public long getDecodeNanos() { return decodeNanos.sum(); }
+
+    @Override
+    public String toString() {
+        long out = getFramesOut();
+        long in = getFramesIn();
+        return String.format("WireStats{out=%d frames/%d bytes (%.1f B/frame, %.2f µs/encode), "
+                + "in=%d frames/%d bytes (%.1f B/frame, %.2f µs/decode)}",
+                out, getBytesOut(), out > 0 ? (double) getBytesOut() / out : 0.0,
+                out > 0 ? getEncodeNanos() / 1000.0 / out : 0.0,
+                in, getBytesIn(), in > 0 ? (double) getBytesIn() / in : 0.0,
+                in > 0 ? getDecodeNanos() / 1000.0 / in : 0.0);
+    }
+}
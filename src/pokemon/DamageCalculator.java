@@ -0,0 +1,141 @@
+package pokemon;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Cálculo de dano compartilhado pelo servidor e pelo modo local.
+ *
+ * Simplificação: os stats base da espécie são usados diretamente como os
+ * stats finais de nível 100 (sem IVs, EVs nem a fórmula de nível), e todos
+ * os Pokémon têm natureza neutra, então {@link Nature} não entra no cálculo.
+ * Os stats de todas as espécies ficam em uma única tabela de inteiros
+ * montada na carga da classe; um golpe é algumas leituras de array e
+ * multiplicações, sem alocação:
+ *
+ * dano = ((2 * nível / 5 + 2) * poder * A / D / 50 + 2)
+ *        x crítico (1.5) x variação (85-100%) x STAB (1.5) x efetividade
+ *
+ * onde A/D são Ataque/Defesa para golpes físicos e Sp. Atk/Sp. Def para
+ * especiais. O resultado vem empacotado em um int: o dano nos bits baixos e
+ * as marcas de erro e crítico nos altos ({@link #damageOf}, {@link #isMiss},
+ * {@link #isCritical}).
+ */
+public final class DamageCalculator {
+
+    public static final int LEVEL = 100;
+    public static final int CRITICAL_CHANCE = 16; // 1 em 16
+
+    private static final int MISSED = 1 << 30;
+    private static final int CRITICAL = 1 << 29;
+    private static final int DAMAGE_MASK = CRITICAL - 1;
+
+    private static final int STAT_COUNT = Stat.values().length;
+
+    // [espécie * stats + stat]
+    private static final int[] STATS = new int[Species.values().length * STAT_COUNT];
+
+    static {
+        for (Species species : Species.values()) {
+            short[] base = species.getBaseStats();
+            for (Stat stat : Stat.values()) {
+                STATS[species.ordinal() * STAT_COUNT + stat.ordinal()] = base[stat.ordinal()];
+            }
+        }
+    }
+
+    private DamageCalculator() {
+    }
+
+    /**
+     * Stat da espécie usado no cálculo (o base, tratado como o de nível 100)
+     */
+    public static int stat(Species species, Stat stat) {
+        return STATS[species.ordinal() * STAT_COUNT + stat.ordinal()];
+    }
+
+    /**
+     * Rola a precisão, o crítico e a variação de um golpe
+     *
+     * @return dano e marcas empacotados (0 para golpes de status ou sem efeito)
+     */
+    public static int roll(Species attacker, Species defender, Move move, RandomGenerator random) {
+        int power = move.getPower();
+        if (power <= 0 || move.getMoveType() == MoveType.STATUS) {
+            return 0;
+        }
+
+        int accuracy = move.getAccuracy();
+        if (accuracy > 0 && accuracy < 100 && random.nextInt(100) >= accuracy) {
+            return MISSED;
+        }
+
+        float effectiveness = defender.getEffectiveness(move.getType());
+        if (effectiveness == 0f) {
+            return 0;
+        }
+
+        boolean physical = move.getMoveType() == MoveType.PHYSICAL;
+        int attack = stat(attacker, physical ? Stat.ATTACK : Stat.SP_ATTACK);
+        int defense = stat(defender, physical ? Stat.DEFENSE : Stat.SP_DEFENSE);
+
+        int damage = (2 * LEVEL / 5 + 2) * power * attack / Math.max(1, defense) / 50 + 2;
+
+        boolean critical = random.nextInt(CRITICAL_CHANCE) == 0;
+        float modifier = (critical ? 1.5f : 1f) * (85 + random.nextInt(16)) / 100f * effectiveness;
+        if (isStab(attacker, move.getType())) {
+            modifier *= 1.5f;
+        }
+
+        damage = Math.max(1, Math.min(DAMAGE_MASK, (int) (damage * modifier)));
+        return critical ? damage | CRITICAL : damage;
+    }
+
+    private static boolean isStab(Species attacker, Type type) {
+        Type[] types = attacker.getTypes();
+        return types[0] == type || (types.length > 1 && types[1] == type);
+    }
+
+    // === Leitura do resultado ===
+
+    public static int damageOf(int roll) {
+        return roll & DAMAGE_MASK;
+    }
+
+    public static boolean isMiss(int roll) {
+        return (roll & MISSED) != 0;
+    }
+
+    public static boolean isCritical(int roll) {
+        return (roll & CRITICAL) != 0;
+    }
+
+    /**
+     * Mesmo resultado com o dano trocado (ex.: limitado ao HP do defensor)
+     */
+    public static int withDamage(int roll, int damage) {
+        return (roll & ~DAMAGE_MASK) | Math.max(0, Math.min(DAMAGE_MASK, damage));
+    }
+
+    /**
+     * Complemento do log para um golpe que acertou: crítico e efetividade
+     * ("" quando não há nada a dizer)
+     */
+    public static String describe(int roll, Move move, Species defender) {
+        if (isMiss(roll) || move.getPower() <= 0 || move.getMoveType() == MoveType.STATUS) {
+            return "";
+        }
+        float effectiveness = defender.getEffectiveness(move.getType());
+        StringBuilder text = new StringBuilder();
+        if (isCritical(roll)) {
+            text.append(" Acerto crítico!");
+        }
+        if (effectiveness == 0f) {
+            text.append(" Não teve efeito.");
+        } else if (effectiveness > 1f) {
+            text.append(" É super eficaz!");
+        } else if (effectiveness < 1f) {
+            text.append(" Não é muito eficaz...");
+        }
+        return text.toString();
+    }
+}
@@ -569,7 +569,8 @@ public enum Move
     private final MoveType MOVE_TYPE;
     private final Status SIDE_EFFECT;
     private final Stat STAT_LOWERED;
-    private byte pp, battlePP, battleAccuracy;
+    // PP máximo; o PP restante de cada batalha fica na própria batalha (os enums são compartilhados)
+    private final byte PP;
 
     Move(String name, Type type, MoveType m, byte pp, short power, byte accuracy)
     {
@@ -578,8 +579,7 @@ public enum Move
         ACCURACY = accuracy;
         MOVE_TYPE = m;
         POWER = power;
-        this.pp = pp;
-        battlePP = pp;
+        PP = pp;
         SIDE_EFFECT = null;
         STAT_LOWERED = null;
     }
@@ -590,8 +590,7 @@ public enum Move
         TYPE = type;
         ACCURACY = accuracy;
         POWER = power;
-        this.pp = pp;
-        battlePP = pp;
+        PP = pp;
         SIDE_EFFECT = s;
         STAT_LOWERED = null;
     }
@@ -603,8 +602,7 @@ public enum Move
         TYPE = type;
         ACCURACY = accuracy;
         POWER = power;
-        this.pp = pp;
-        battlePP = pp;
+        PP = pp;
         SIDE_EFFECT = null;
         STAT_LOWERED = s;
     }
@@ -616,8 +614,7 @@ public enum Move
         TYPE = type;
         ACCURACY = accuracy;
         POWER = power;
-        this.pp = pp;
-        battlePP = pp;
+        PP = pp;
         ;
         SIDE_EFFECT = status;
         STAT_LOWERED = stat;
@@ -637,39 +634,9 @@ public enum Move
         return POWER;
     }
     
-    public void setPP(byte PP)
-    {
-        battlePP = PP;
-    }
-    
-    public void downPP()
-    {
-        battlePP--;
-    }
-    
-    public int getCurrentPP()
-    {
-        return battlePP;
-    }
-    
     public int getTotalPP()
     {
-        return pp;
-    }
-    
-    public void addPP(int PP)
-    {
-        battlePP += PP;
-    }
-
-    public void resetAccuracy()
-    {
-        battleAccuracy = ACCURACY;
-    }
-
-    public void resetPP()
-    {
-        battlePP = pp;
+        return PP;
     }
     
     public String getName()
@@ -690,6 +657,6 @@ public enum Move
     @Override
     public String toString()
     {
-        return NAME + "(" + TYPE + ", " + POWER + ", " + ACCURACY + ", (" + getCurrentPP() + " / " + getTotalPP() + ")";
+        return NAME + "(" + TYPE + ", " + POWER + ", " + ACCURACY + ", " + PP + " PP)";
     }
 }
\ No newline at end of file
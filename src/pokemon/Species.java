@@ -48,6 +48,8 @@ public enum Species {
     private final short[] baseStats;
     private final Move[] moves;
     private final Type[] types;
+    // Multiplicador de cada tipo de ataque (pelo ordinal) contra este Pokémon
+    private final float[] effectiveness;
 
     // === Construtor ===
     Species(String name, String dexNumber, short[] baseStats, Move[] moves, Type... types) {
@@ -59,6 +61,11 @@ public enum Species {
         this.baseStats = baseStats;
         this.moves = moves;
         this.types = types;
+
+        this.effectiveness = new float[Type.values().length];
+        for (Type attacking : Type.values()) {
+            effectiveness[attacking.ordinal()] = attacking.effectivenessAgainst(types);
+        }
     }
 
     // === Getters ===
@@ -81,4 +88,12 @@ public enum Species {
     public Type[] getTypes() {
         return types;
     }
+
+    /**
+     * Multiplicador de dano de um golpe do tipo informado contra este Pokémon
+     * (já combinando os dois tipos: 0, .25, .5, 1, 2 ou 4)
+     */
+    public float getEffectiveness(Type attacking) {
+        return effectiveness[attacking.ordinal()];
+    }
 }
@@ -1,5 +1,10 @@
 package pokemon;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum Type
 {
     NORMAL(new String[]{},
@@ -56,41 +61,101 @@ public enum Type
 
     private final String[] SUPER_EFFECTIVE, NOT_VERY_EFFECTIVE, NO_EFFECT;
 
-    Type(String[] superEffective, String[] notVeryEffective, String[] noEffect)
-    {
-        SUPER_EFFECTIVE = superEffective;
-        NOT_VERY_EFFECTIVE= notVeryEffective;
-        NO_EFFECT = noEffect;
-    }
+    private static final Type[] TYPES = values();
+
+    /**
+     * Multiplier of an attacking Type (first index) against a defending Type
+     * (second index), both by ordinal
+     */
+    private static final float[][] MATRIX = new float[TYPES.length][TYPES.length];
+
+    /**
+     * Multiplier against a defender with two types: [attacker][type1][type2],
+     * where type2 == TYPES.length stands for a single-typed defender
+     */
+    private static final float[][][] DUAL = new float[TYPES.length][TYPES.length][TYPES.length + 1];
+
+    private Set<Type> superEffectiveTargets, notVeryEffectiveTargets, noEffectTargets;
 
-    private boolean contains(String[] t, Type p)
+    static
     {
-        if(t.length == 0)
+        for(Type attacker : TYPES)
         {
-            return false;
+            Arrays.fill(MATRIX[attacker.ordinal()], 1f);
+            attacker.superEffectiveTargets = fill(attacker, attacker.SUPER_EFFECTIVE, 2f);
+            attacker.notVeryEffectiveTargets = fill(attacker, attacker.NOT_VERY_EFFECTIVE, .5f);
+            attacker.noEffectTargets = fill(attacker, attacker.NO_EFFECT, 0f);
         }
 
-        for(String type : t)
+        for(Type attacker : TYPES)
         {
-            if(type.equalsIgnoreCase(p + ""))
+            float[] row = MATRIX[attacker.ordinal()];
+            for(int first = 0; first < TYPES.length; first++)
             {
-                return true;
+                for(int second = 0; second < TYPES.length; second++)
+                {
+                    DUAL[attacker.ordinal()][first][second] = first == second ? row[first] : row[first] * row[second];
+                }
+                DUAL[attacker.ordinal()][first][TYPES.length] = row[first];
             }
         }
+    }
 
-        return false;
+    Type(String[] superEffective, String[] notVeryEffective, String[] noEffect)
+    {
+        SUPER_EFFECTIVE = superEffective;
+        NOT_VERY_EFFECTIVE= notVeryEffective;
+        NO_EFFECT = noEffect;
     }
 
-    private Type[] convert(String[] types)
+    /**
+     * Writes the multiplier for each named Type into the attacker's row
+     * @return the named types, as an unmodifiable set
+     */
+    private static Set<Type> fill(Type attacker, String[] names, float multiplier)
     {
-        Type[] t = new Type[types.length];
+        EnumSet<Type> set = EnumSet.noneOf(Type.class);
 
-        for(int i = 0; i < t.length; i++)
+        for(String name : names)
         {
-            t[i] = valueOf(types[i]);
+            Type defender = valueOf(name.toUpperCase());
+            MATRIX[attacker.ordinal()][defender.ordinal()] = multiplier;
+            set.add(defender);
         }
 
-        return t;
+        return Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Damage multiplier of this Type against the specified Type (0, .5, 1 or 2)
+     * @param t The defending Type
+     * @return the multiplier
+     */
+    public float effectivenessAgainst(Type t)
+    {
+        return MATRIX[ordinal()][t.ordinal()];
+    }
+
+    /**
+     * Damage multiplier of this Type against a defender with one or two types
+     * (0, .25, .5, 1, 2 or 4), as returned by Species.getTypes()
+     * @param defender The defending types
+     * @return the multiplier
+     */
+    public float effectivenessAgainst(Type[] defender)
+    {
+        return effectivenessAgainst(defender[0], defender.length > 1 ? defender[1] : null);
+    }
+
+    /**
+     * Damage multiplier of this Type against a defender with the specified types
+     * @param first The defender's first Type
+     * @param second The defender's second Type, or null if it has only one
+     * @return the multiplier
+     */
+    public float effectivenessAgainst(Type first, Type second)
+    {
+        return DUAL[ordinal()][first.ordinal()][second == null ? TYPES.length : second.ordinal()];
     }
 
     /**
@@ -100,7 +165,7 @@ public enum Type
      */
     public boolean isSuperEffectiveAgainst(Type t)
     {
-        return contains(SUPER_EFFECTIVE, t);
+        return MATRIX[ordinal()][t.ordinal()] == 2f;
     }
 
     /**
@@ -110,7 +175,7 @@ public enum Type
      */
     public boolean isNotVeryEffectiveAgainst(Type t)
     {
-        return contains(NOT_VERY_EFFECTIVE, t);
+        return MATRIX[ordinal()][t.ordinal()] == .5f;
     }
 
     /**
@@ -120,7 +185,7 @@ public enum Type
      */
     public boolean hasNoEffectOn(Type t)
     {
-        return contains(NO_EFFECT, t);
+        return MATRIX[ordinal()][t.ordinal()] == 0f;
     }
 
     /**
@@ -130,9 +195,34 @@ public enum Type
      */
     public boolean isNormalAgainst(Type t)
     {
-        return !isSuperEffectiveAgainst(t) &&
-                !isNotVeryEffectiveAgainst(t) &&
-                !hasNoEffectOn(t);
+        return MATRIX[ordinal()][t.ordinal()] == 1f;
+    }
+
+    /**
+     * Gets all the types that this Type is Super Effective (x2) Against
+     * @return the types that this Type is Super Effective Against (unmodifiable)
+     */
+    public Set<Type> getSuperEffectiveTargets()
+    {
+        return superEffectiveTargets;
+    }
+
+    /**
+     * Gets all the types that this Type is Not Very Effective (x.5) Against
+     * @return the types that this Type is Not Very Effective Against (unmodifiable)
+     */
+    public Set<Type> getNotVeryEffectiveTargets()
+    {
+        return notVeryEffectiveTargets;
+    }
+
+    /**
+     * Gets all the types that this Type has no Effect (x0) Against
+     * @return the types that this Type has no Effect Against (unmodifiable)
+     */
+    public Set<Type> getNoEffectTargets()
+    {
+        return noEffectTargets;
     }
 
     /**
@@ -141,7 +231,7 @@ public enum Type
      */
     public Type[] getTypesSuperEffectiveAgainst()
     {
-        return convert(SUPER_EFFECTIVE);
+        return superEffectiveTargets.toArray(new Type[0]);
     }
 
     /**
@@ -150,7 +240,7 @@ public enum Type
      */
     public Type[] getTypesNotVeryEffectiveAgainst()
     {
-        return convert(NOT_VERY_EFFECTIVE);
+        return notVeryEffectiveTargets.toArray(new Type[0]);
     }
 
     /**
@@ -159,6 +249,6 @@ public enum Type
      */
     public Type[] getTypesNoEffectAgainst()
     {
-        return convert(NO_EFFECT);
+        return noEffectTargets.toArray(new Type[0]);
     }
 }
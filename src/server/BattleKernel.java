@@ -0,0 +1,305 @@
+package server;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+import pokemon.DamageCalculator;
+import pokemon.Move;
+import pokemon.Species;
+
+/**
+ * Regras de uma batalha, sem rede nem log. Todo o estado fica em arrays
+ * criados uma vez na construção: HP por [lado][Pokémon], Pokémon ativo, PP
+ * ({@link BattleMoveState}), lado da vez, turno e vencedor.
+ *
+ * {@link #apply(int, int)} executa uma jogada e descreve o que aconteceu em
+ * um buffer de eventos reutilizado ({@link #eventCount()}, {@link #event(int)}),
+ * sem alocar nada. A GameSession só traduz esses eventos em mensagens; o mesmo
+ * kernel serve para simular batalhas inteiras fora do servidor.
+ *
+ * Não é thread-safe: na sessão, só o loop da sessão o usa.
+ */
+public final class BattleKernel {
+
+    public static final int PLAYER1 = 0;
+    public static final int PLAYER2 = 1;
+    public static final int NO_WINNER = -1;
+
+    // === Resultado de apply ===
+    public static final int APPLIED = 0;
+    public static final int NOT_YOUR_TURN = 1;
+    public static final int INVALID_MOVE = 2;
+    public static final int NO_PP = 3;        // Movimento sem PP, mas há outro com PP
+    public static final int ATTACKER_FAINTED = 4;
+    public static final int BATTLE_OVER = 5;
+
+    // === Eventos: tipo, lado e valor empacotados em um long ===
+    public static final int EVENT_MOVE = 1;   // Lado que atacou; valor = ordinal do Move usado
+    public static final int EVENT_DAMAGE = 2; // Lado que sofreu; valor = resultado do DamageCalculator
+    public static final int EVENT_FAINT = 3;  // Lado do Pokémon; valor = posição no time
+    public static final int EVENT_SWITCH = 4; // Lado que trocou; valor = nova posição ativa
+    public static final int EVENT_END = 5;    // Lado vencedor
+
+    private static final Move[] MOVES = Move.values();
+    private static final int MAX_EVENTS = 8;
+
+    private final List<Species> team1;
+    private final List<Species> team2;
+    private final int slotsPerSide;
+    private final int[] teamSize = new int[2];
+
+    // [lado * slotsPerSide + posição]
+    private final Species[] species;
+    private final int[] hp;
+    private final int[] maxHp;
+
+    private final int[] active = new int[2];
+    private final BattleMoveState moveState;
+    private final RandomGenerator random;
+
+    private int currentSide;
+    private int turn;
+    private int winner = NO_WINNER;
+
+    private final long[] events = new long[MAX_EVENTS];
+    private int eventCount;
+
+    /**
+     * @param firstSide lado que joga primeiro (PLAYER1 ou PLAYER2)
+     * @param random gerador da batalha (precisão, crítico e variação)
+     */
+    public BattleKernel(List<Species> team1, List<Species> team2, int firstSide, RandomGenerator random) {
+        this.team1 = List.copyOf(team1);
+        this.team2 = List.copyOf(team2);
+        this.slotsPerSide = Math.max(team1.size(), team2.size());
+        this.species = new Species[2 * slotsPerSide];
+        this.hp = new int[2 * slotsPerSide];
+        this.maxHp = new int[2 * slotsPerSide];
+        this.moveState = new BattleMoveState(team1, team2);
+        this.random = random;
+        this.currentSide = firstSide;
+
+        fill(PLAYER1, this.team1);
+        fill(PLAYER2, this.team2);
+    }
+
+    private void fill(int side, List<Species> team) {
+        teamSize[side] = team.size();
+        for (int slot = 0; slot < team.size(); slot++) {
+            int i = index(side, slot);
+            species[i] = team.get(slot);
+            maxHp[i] = species[i].getBaseStats()[0]; // HP é o primeiro stat
+            hp[i] = maxHp[i];
+        }
+    }
+
+    private int index(int side, int slot) {
+        return side * slotsPerSide + slot;
+    }
+
+    // === JOGADA ===
+
+    /**
+     * Executa o movimento moveIndex do Pokémon ativo do lado. Se o Pokémon não
+     * tem PP em nenhum movimento, usa Struggle.
+     *
+     * @return APPLIED ou o motivo da recusa (a recusa não altera o estado)
+     */
+    public int apply(int side, int moveIndex) {
+        eventCount = 0;
+        if (winner != NO_WINNER) {
+            return BATTLE_OVER;
+        }
+        if (side != currentSide) {
+            return NOT_YOUR_TURN;
+        }
+
+        int slot = active[side];
+        int attacker = index(side, slot);
+        if (hp[attacker] == 0) {
+            return ATTACKER_FAINTED;
+        }
+
+        Move[] moves = species[attacker].getMoves();
+        if (moveIndex < 0 || moveIndex >= moves.length) {
+            return INVALID_MOVE;
+        }
+        Move move = moves[moveIndex];
+        if (!moveState.consume(side, slot, moveIndex)) {
+            if (moveState.hasAnyPP(side, slot)) {
+                return NO_PP;
+            }
+            move = Move.STRUGGLE;
+        }
+        emit(EVENT_MOVE, side, move.ordinal());
+
+        int other = 1 - side;
+        int defender = index(other, active[other]);
+        int roll = DamageCalculator.roll(species[attacker], species[defender], move, random);
+        int damage = Math.min(DamageCalculator.damageOf(roll), hp[defender]);
+        hp[defender] -= damage;
+        emit(EVENT_DAMAGE, other, DamageCalculator.withDamage(roll, damage));
+
+        if (hp[defender] == 0) {
+            emit(EVENT_FAINT, other, active[other]);
+            int next = nextAlive(other);
+            if (next < 0) {
+                winner = side;
+                emit(EVENT_END, side, 0);
+            } else {
+                active[other] = next;
+                emit(EVENT_SWITCH, other, next);
+            }
+        }
+
+        currentSide = other;
+        turn++;
+        return APPLIED;
+    }
+
+    /**
+     * Primeiro Pokémon vivo do time (-1 se todos desmaiaram)
+     */
+    private int nextAlive(int side) {
+        for (int slot = 0; slot < teamSize[side]; slot++) {
+            if (hp[index(side, slot)] > 0) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Encerra a batalha com o vencedor dado (W.O. por inatividade ou desconexão)
+     */
+    public void forfeit(int winnerSide) {
+        if (winner == NO_WINNER) {
+            winner = winnerSide;
+        }
+    }
+
+    private void emit(int type, int side, int value) {
+        events[eventCount++] = ((long) type << 40) | ((long) side << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    // === Eventos da última jogada ===
+
+    public int eventCount() {
+        return eventCount;
+    }
+
+    public long event(int i) {
+        return events[i];
+    }
+
+    public static int eventType(long event) {
+        return (int) (event >>> 40);
+    }
+
+    public static int eventSide(long event) {
+        return (int) (event >>> 32) & 0xFF;
+    }
+
+    public static int eventValue(long event) {
+        return (int) event;
+    }
+
+    /**
+     * Movimento de um EVENT_MOVE
+     */
+    public static Move moveOf(long event) {
+        return MOVES[eventValue(event)];
+    }
+
+    // === ESTADO ===
+
+    public int getCurrentSide() {
+        return currentSide;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public boolean isOver() {
+        return winner != NO_WINNER;
+    }
+
+    /**
+     * Lado vencedor, ou NO_WINNER enquanto a batalha não acabou
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getActive(int side) {
+        return active[side];
+    }
+
+    public boolean hasAlive(int side) {
+        return nextAlive(side) >= 0;
+    }
+
+    public List<Species> getTeam(int side) {
+        return side == PLAYER1 ? team1 : team2;
+    }
+
+    public Species getSpecies(int side, int slot) {
+        return species[index(side, slot)];
+    }
+
+    public int getHp(int side, int slot) {
+        return hp[index(side, slot)];
+    }
+
+    public int getMaxHp(int side, int slot) {
+        return maxHp[index(side, slot)];
+    }
+
+    /**
+     * HP do Pokémon ativo em porcentagem (0-100) para enviar ao cliente
+     */
+    public int getActiveHpPercentage(int side) {
+        int i = index(side, active[side]);
+        return maxHp[i] == 0 ? 0 : hp[i] * 100 / maxHp[i];
+    }
+
+    public BattleMoveState getMoveState() {
+        return moveState;
+    }
+
+    // === SNAPSHOT ===
+
+    /**
+     * HP de um lado, por posição no time, para o snapshot e a replicação
+     */
+    public int[] captureHp(int side) {
+        int[] saved = new int[teamSize[side]];
+        System.arraycopy(hp, index(side, 0), saved, 0, saved.length);
+        return saved;
+    }
+
+    /**
+     * Restaura um lado gravado: HP, PP e Pokémon ativo
+     *
+     * @throws IllegalArgumentException se o Pokémon ativo não existe no time
+     */
+    public void restoreSide(int side, int[] savedHp, byte[] savedPp, int activeSlot) {
+        if (activeSlot < 0 || activeSlot >= teamSize[side]) {
+            throw new IllegalArgumentException("Pokémon ativo " + activeSlot + " fora do time de "
+                    + teamSize[side] + " (lado " + side + ")");
+        }
+        for (int slot = 0; slot < teamSize[side] && slot < savedHp.length; slot++) {
+            int i = index(side, slot);
+            hp[i] = Math.max(0, Math.min(savedHp[slot], maxHp[i]));
+        }
+        moveState.restore(side, savedPp);
+        active[side] = activeSlot;
+    }
+
+    /**
+     * Restaura o número do turno gravado (o lado da vez vem do construtor)
+     */
+    public void restoreTurn(int turnNumber) {
+        this.turn = turnNumber;
+    }
+}
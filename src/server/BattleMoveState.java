@@ -0,0 +1,101 @@
+package server;
+
+import java.util.Arrays;
+import java.util.List;
+import pokemon.Move;
+import pokemon.Species;
+
+/**
+ * PP dos movimentos de uma batalha. Os enums Move são compartilhados por
+ * todas as sessões, então o PP de cada batalha fica aqui: um único byte[]
+ * contíguo, [lado][Pokémon][movimento], que só o loop da sessão altera.
+ */
+public class BattleMoveState {
+
+    // Maior número de movimentos de uma espécie (Reshiram e Zekrom têm 5)
+    public static final int MOVE_SLOTS = maxMoves();
+
+    private final int slotsPerSide;
+    private final byte[] pp;
+
+    public BattleMoveState(List<Species> team1, List<Species> team2) {
+        this.slotsPerSide = Math.max(team1.size(), team2.size());
+        this.pp = new byte[2 * slotsPerSide * MOVE_SLOTS];
+        fill(0, team1);
+        fill(1, team2);
+    }
+
+    private void fill(int side, List<Species> team) {
+        for (int slot = 0; slot < team.size(); slot++) {
+            Move[] moves = team.get(slot).getMoves();
+            for (int move = 0; move < moves.length; move++) {
+                pp[index(side, slot, move)] = (byte) moves[move].getTotalPP();
+            }
+        }
+    }
+
+    private static int maxMoves() {
+        int max = 0;
+        for (Species species : Species.values()) {
+            max = Math.max(max, species.getMoves().length);
+        }
+        return max;
+    }
+
+    private int index(int side, int slot, int move) {
+        return (side * slotsPerSide + slot) * MOVE_SLOTS + move;
+    }
+
+    /**
+     * PP restante do movimento (lado 0 = player1, 1 = player2)
+     */
+    public int remaining(int side, int slot, int move) {
+        return pp[index(side, slot, move)];
+    }
+
+    /**
+     * Gasta um PP; false se o movimento já estava sem PP
+     */
+    public boolean consume(int side, int slot, int move) {
+        int i = index(side, slot, move);
+        if (pp[i] <= 0) {
+            return false;
+        }
+        pp[i]--;
+        return true;
+    }
+
+    /**
+     * Se o Pokémon ainda tem PP em algum movimento (sem PP, só resta Struggle)
+     */
+    public boolean hasAnyPP(int side, int slot) {
+        int start = index(side, slot, 0);
+        for (int i = start; i < start + MOVE_SLOTS; i++) {
+            if (pp[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // === SNAPSHOT ===
+
+    /**
+     * PP de um lado, [Pokémon][movimento], para o snapshot e a replicação
+     */
+    public byte[] capture(int side, int teamSize) {
+        int start = index(side, 0, 0);
+        return Arrays.copyOfRange(pp, start, start + teamSize * MOVE_SLOTS);
+    }
+
+    /**
+     * Restaura o PP gravado de um lado (null = snapshot sem PP: mantém o cheio)
+     */
+    public void restore(int side, byte[] saved) {
+        if (saved == null) {
+            return;
+        }
+        int start = index(side, 0, 0);
+        System.arraycopy(saved, 0, pp, start, Math.min(saved.length, slotsPerSide * MOVE_SLOTS));
+    }
+}
@@ -1,19 +1,20 @@
 package server;
 
-import gui.BattleEndFrame;
-import gui.RematchDialog;
 import network.*;
 import java.net.Socket;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.UUID;
-import javax.swing.SwingUtilities;
 import network.BattleInitPayload;
+import logging.Log;
+import logging.LogCategory;
 
 public class ClientHandler extends Thread implements NetworkManager.MessageListener, NetworkManager.ConnectionListener {
 
-    private final Socket clientSocket;
+    private final Socket clientSocket; // null no transporte NIO
     private final PokemonServer server;
     private NetworkManager networkManager;
+    private Connection connection;
 
     // Informações do cliente
     private String playerName;
@@ -23,44 +24,82 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
     // Estado do jogo
     private boolean teamReady = false;
     private java.util.List<pokemon.Species> playerTeam;
-    private GameSession currentSession;
+    // Lida por threads de I/O e pelo loop da sessão
+    private volatile GameSession currentSession;
+    // Batalha assistida como espectador (null = nenhuma)
+    private volatile SpectatorHub watching;
+
+    // Prazos no timer do servidor: ping periódico e seleção de time
+    private volatile long lastSeen = System.currentTimeMillis();
+    private volatile HashedWheelTimer.Timeout heartbeatTimeout;
+    private volatile HashedWheelTimer.Timeout selectionTimeout;
+
+    // Permite religar o jogador à batalha após reinício do servidor
+    private final String resumeToken = UUID.randomUUID().toString();
+
+    // Orçamento de mensagens recebidas, verificado antes do dispatch
+    private final MessageRateLimiter rateLimiter;
 
     // Implementar novos métodos no ClientHandler.java
-    private BattleEndFrame battleEndFrame;
 
     public ClientHandler(Socket clientSocket, PokemonServer server) {
         this.clientSocket = clientSocket;
         this.server = server;
         this.clientId = UUID.randomUUID().toString().substring(0, 8);
         this.connected = new AtomicBoolean(false);
+        this.rateLimiter = new MessageRateLimiter(server.getConfig().getRateLimit());
 
         setName("ClientHandler-" + clientId);
         setDaemon(true);
     }
 
+    /**
+     * Handler para uma conexão já estabelecida (transporte NIO).
+     * Não roda como thread: as mensagens chegam pelo loop de eventos.
+     */
+    public ClientHandler(Connection connection, PokemonServer server) {
+        this.clientSocket = null;
+        this.server = server;
+        this.clientId = UUID.randomUUID().toString().substring(0, 8);
+        this.connected = new AtomicBoolean(true);
+        this.connection = connection;
+        this.rateLimiter = new MessageRateLimiter(server.getConfig().getRateLimit());
+    }
+
+    /**
+     * Registra o handler como ouvinte da conexão. Chamado depois da construção
+     * e antes de a conexão começar a entregar mensagens.
+     */
+    public void attach() {
+        connection.setMessageListener(this);
+        connection.setConnectionListener(this);
+    }
+
     @Override
     public void run() {
-        System.out.println("🔗 Iniciando handler para cliente: " + clientSocket.getRemoteSocketAddress());
+        Log.info(LogCategory.HANDLER, "🔗 Iniciando handler para cliente: {}", clientSocket.getRemoteSocketAddress());
 
         try {
             // Inicializar NetworkManager
             networkManager = new NetworkManager(clientSocket);
-            networkManager.setMessageListener(this);
-            networkManager.setConnectionListener(this);
+            networkManager.setThreadBuilder(server.getConfig().connectionThreadBuilder());
+            networkManager.setOutboundPolicy(server.getConfig().getOutboundPolicy());
+            connection = networkManager;
+            attach();
 
             if (networkManager.initialize()) {
                 connected.set(true);
-                networkManager.start();
+                networkManager.startReader();
 
                 // Aguardar mensagens
-                networkManager.join();
+                networkManager.awaitTermination();
 
             } else {
-                System.err.println("❌ Falha ao inicializar comunicação com cliente");
+                Log.error(LogCategory.HANDLER, "❌ Falha ao inicializar comunicação com cliente");
             }
 
         } catch (Exception e) {
-            System.err.println("❌ Erro no cliente handler: " + e.getMessage());
+            Log.error(LogCategory.HANDLER, "❌ Erro no cliente handler: {}", e.getMessage());
         } finally {
             cleanup();
         }
@@ -69,14 +108,50 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
     // Implementação de NetworkManager.MessageListener
     @Override
     public void onMessageReceived(Message message) {
+        lastSeen = System.currentTimeMillis();
+        if (!connected.get()) {
+            return; // Já desconectado por excesso: ignora o que ainda estava no buffer
+        }
+        MessageRateLimiter.Verdict verdict = rateLimiter.check(message.getType());
+        if (verdict != MessageRateLimiter.Verdict.ACCEPT) {
+            rejectMessage(message.getType(), verdict);
+            return;
+        }
         try {
             processMessage(message);
         } catch (Exception e) {
-            System.err.println("❌ Erro ao processar mensagem: " + e.getMessage());
+            Log.error(LogCategory.HANDLER, "❌ Erro ao processar mensagem: {}", e.getMessage());
             sendError("Erro interno do servidor");
         }
     }
 
+    /**
+     * Mensagem acima do orçamento: conta, loga uma vez por janela e, se o
+     * cliente insistir, desconecta
+     */
+    private void rejectMessage(MessageType type, MessageRateLimiter.Verdict verdict) {
+        server.getMetrics().recordMessageDropped();
+        String name = playerName != null ? playerName : clientId;
+
+        if (verdict == MessageRateLimiter.Verdict.KICK) {
+            Log.warn(LogCategory.HANDLER, "🚫 Desconectando {}: mensagens demais ({} descartadas)",
+                    name, rateLimiter.getDropped());
+            server.getMetrics().recordClientKicked();
+            sendError("Mensagens demais. Conexão encerrada.");
+
+            // Ler antes de fechar: o fechamento chama cleanup(), que limpa currentSession
+            GameSession session = currentSession;
+            connected.set(false);
+            connection.disconnectAfterFlush();
+
+            if (session != null) {
+                session.submit(() -> session.playerDisconnected(this));
+            }
+        } else if (rateLimiter.isFirstDropInWindow()) {
+            Log.warn(LogCategory.HANDLER, "🐢 Limite de mensagens atingido por {} ({}): descartando", name, type);
+        }
+    }
+
     private void handleRematchRequestToServer(Message message) {
         try {
             RematchRequest request = (RematchRequest) message.getData();
@@ -96,12 +171,10 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
     }
 
     private void handleTeamSelectionRestart(Message message) {
-        System.out.println("🔄 Reiniciando seleção de time para revanche: " + playerName);
+        Log.info(LogCategory.HANDLER, "🔄 Reiniciando seleção de time para revanche: {}", playerName);
 
-        SwingUtilities.invokeLater(() -> {
-            // Enviar mensagem diretamente para o cliente para abrir nova seleção
-            sendMessage(MessageType.TEAM_SELECTION_START, "Server", message.getData());
-        });
+        // Enviar mensagem diretamente para o cliente para abrir nova seleção
+        sendMessage(MessageType.TEAM_SELECTION_START, "Server", message.getData());
     }
 
     /**
@@ -154,38 +227,36 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
                 handleHeartbeat(message);
                 break;
 
+            case SPECTATE_REQUEST:
+                stopWatching();
+                server.spectate(this, (String) message.getData());
+                break;
+
+            case SPECTATE_END:
+                stopWatching();
+                break;
+
+            case PLAYER_LEAVE:
+                server.getLobby().leave(this);
+                break;
+
+            case LOBBY_CHAT:
+                if (!server.getLobby().chat(this, (String) message.getData())) {
+                    sendMessage(MessageType.NOTIFICATION, "Server", "Muitas mensagens no chat. Aguarde um pouco.");
+                }
+                break;
+
             default:
-                System.out.println("📨 Mensagem não tratada: " + message.getType() + " de " + playerName);
+                Log.warn(LogCategory.HANDLER, "📨 Mensagem não tratada: {} de {}", message.getType(), playerName);
                 break;
         }
     }
 
     private void handleBattleEnd(Message message) {
+        // A tela de fim de batalha é exibida pelo próprio cliente
         try {
             BattleEndData data = (BattleEndData) message.getData();
-
-            SwingUtilities.invokeLater(() -> {
-                battleEndFrame = new BattleEndFrame(
-                        data.getPlayerName(),
-                        data.getOpponentName(),
-                        data.getResult(),
-                        data.isWinner()
-                );
-
-                battleEndFrame.setRematchRequestCallback(accepted -> {
-                    if (accepted) {
-                        // Enviar solicitação de revanche para o servidor
-                        RematchRequest request = new RematchRequest(
-                                data.getPlayerName(),
-                                data.getOpponentName()
-                        );
-                        sendMessage(MessageType.REMATCH_REQUEST, playerName, request);
-                    }
-                });
-
-                battleEndFrame.setVisible(true);
-            });
-
+            Log.info(LogCategory.HANDLER, "🏁 {} confirmou o fim da batalha: {}", playerName, data.getResult());
         } catch (ClassCastException e) {
             sendError("Dados de fim de batalha inválidos");
         }
@@ -194,7 +265,7 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
 // Modificar handleRematchRequest para não usar mais o sistema antigo
     private void handleRematchRequest(Message message) {
         // Esta mensagem vai do cliente para o servidor
-        System.out.println("📤 Solicitação de revanche enviada por: " + playerName);
+        Log.info(LogCategory.HANDLER, "📤 Solicitação de revanche enviada por: {}", playerName);
         // O servidor processará e verificará se ambos solicitaram
     }
 
@@ -221,14 +292,7 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
         this.teamReady = false;
         this.playerTeam = null;
         this.currentSession = null;
-
-        // Fechar BattleEndFrame se estiver aberta
-        if (battleEndFrame != null) {
-            SwingUtilities.invokeLater(() -> {
-                battleEndFrame.dispose();
-                battleEndFrame = null;
-            });
-        }
+        armSelectionTimer();
     }
 
 //    private void handleRematchResponse(Message message) {
@@ -236,15 +300,7 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
 //        System.out.println("📝 Resposta de revanche processada");
 //    }
     private void handleRematchStart(Message message) {
-        System.out.println("🔄 Revanche iniciada!");
-
-        // Fechar tela de fim de batalha
-        if (battleEndFrame != null) {
-            SwingUtilities.invokeLater(() -> {
-                battleEndFrame.dispose();
-                battleEndFrame = null;
-            });
-        }
+        Log.info(LogCategory.HANDLER, "🔄 Revanche iniciada!");
     }
 
 //    private void handleRematchDeclined(Message message) {
@@ -259,25 +315,60 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
 //    }
     private void handleConnectRequest(Message message) {
         this.playerName = message.getSender();
+        server.registerPlayerName(this);
+
+        Log.info(LogCategory.HANDLER, "🤝 Solicitação de conexão de: {}", playerName);
+
+        // Reconexão após reinício: o cliente envia o token recebido antes
+        if (message.getData() instanceof String) {
+            PokemonServer.ResumeSlot slot = server.claimResume(playerName, (String) message.getData());
+            if (slot != null) {
+                sendMessage(MessageType.CONNECT_RESPONSE, "Server", "RESUMED");
+                sendMessage(MessageType.RESUME_TOKEN, "Server", resumeToken);
+                sendStandbyAddress();
+                Log.info(LogCategory.HANDLER, "♻️ Cliente retomado: {} ({})", playerName, clientId);
+                server.completeResume(this, slot);
+                return;
+            }
 
-        System.out.println("🤝 Solicitação de conexão de: " + playerName);
+            // Token de partida de outro nó do cluster: mandar para o dono
+            RedirectInfo redirect = server.routeFor((String) message.getData());
+            if (redirect != null) {
+                Log.info(LogCategory.HANDLER, "↪️ {} redirecionado para {}", playerName, redirect);
+                sendMessage(MessageType.REDIRECT, "Server", redirect);
+                return;
+            }
+        }
 
         // Verificar se nome já está em uso (simplificado)
         // Em implementação real, verificaria lista de clientes ativos
         // Aceitar conexão
         sendMessage(MessageType.CONNECT_RESPONSE, "Server", "OK");
+        sendMessage(MessageType.RESUME_TOKEN, "Server", resumeToken);
+        sendStandbyAddress();
 
-        System.out.println("✅ Cliente conectado: " + playerName + " (" + clientId + ")");
+        Log.info(LogCategory.HANDLER, "✅ Cliente conectado: {} ({})", playerName, clientId);
+    }
+
+    /**
+     * Onde reconectar (com o token) se este servidor cair, quando há standby
+     */
+    void sendStandbyAddress() {
+        RedirectInfo standby = server.getStandbyAddress();
+        if (standby != null) {
+            sendMessage(MessageType.STANDBY_ADDRESS, "Server", standby);
+        }
     }
 
     private void handlePlayerJoin(Message message) {
-        System.out.println("👋 Jogador entrou no jogo: " + playerName);
+        Log.info(LogCategory.HANDLER, "👋 Jogador entrou no jogo: {}", playerName);
 
-        // Notificar outros clientes sobre novo jogador
-        broadcastToOthers(MessageType.PLAYER_JOIN, playerName, playerName + " entrou no jogo");
+        // Entra no lobby: os outros jogadores veem a entrada no próximo tick
+        server.getLobby().join(this);
 
         // Iniciar seleção de time
         sendMessage(MessageType.TEAM_SELECTION_START, "Server", "Inicie a seleção do seu time");
+        armSelectionTimer();
     }
 
     @SuppressWarnings("unchecked")
@@ -285,8 +376,9 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
         try {
             this.playerTeam = (java.util.List<pokemon.Species>) message.getData();
             this.teamReady = true;
+            cancelTimeout(selectionTimeout);
 
-            System.out.println("📋 Time recebido de " + playerName + ": " + playerTeam.size() + " Pokémon");
+            Log.info(LogCategory.HANDLER, "📋 Time recebido de {}: {} Pokémon", playerName, playerTeam.size());
 
             // Procurar outro jogador para iniciar batalha
             findOpponentAndStartBattle();
@@ -297,12 +389,13 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
     }
 
     private void handleMoveExecution(Message message) {
-        if (currentSession != null) {
+        GameSession session = currentSession;
+        if (session != null) {
             try {
                 int moveIndex = (Integer) message.getData();
-                currentSession.executeMove(this, moveIndex);
+                session.submit(() -> session.executeMove(this, moveIndex));
 
-                System.out.println("⚡ Movimento executado por " + playerName + ": " + moveIndex);
+                Log.debug(LogCategory.HANDLER, "⚡ Movimento recebido de {}: {}", playerName, moveIndex);
 
             } catch (ClassCastException e) {
                 sendError("Índice de movimento inválido");
@@ -311,28 +404,107 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
     }
 
     private void handleDisconnect(Message message) {
-        System.out.println("📤 Cliente desconectando: " + playerName);
+        Log.info(LogCategory.HANDLER, "📤 Cliente desconectando: {}", playerName);
 
         String reason = message.getData() != null ? message.getData().toString() : "Desconexão solicitada";
-        System.out.println("📝 Motivo: " + reason);
+        Log.info(LogCategory.HANDLER, "📝 Motivo: {}", reason);
 
         disconnect();
     }
 
     private void handleHeartbeat(Message message) {
-        // Responder heartbeat
-        sendMessage(MessageType.HEARTBEAT, "Server", "pong");
+        // Responder apenas a pings; um pong só atualiza lastSeen
+        if ("ping".equals(message.getData())) {
+            sendMessage(MessageType.HEARTBEAT, "Server", "pong");
+        }
+    }
+
+    // === PRAZOS ===
+
+    /**
+     * Envia ping a cada HEARTBEAT_INTERVAL e desconecta se o cliente ficar
+     * CLIENT_TIMEOUT sem enviar nada
+     */
+    private void scheduleHeartbeat() {
+        heartbeatTimeout = server.getTimer().newTimeout(this::onHeartbeat,
+                NetworkConstants.HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private void onHeartbeat() {
+        if (!connected.get()) {
+            return;
+        }
+
+        long silence = System.currentTimeMillis() - lastSeen;
+        if (silence > NetworkConstants.CLIENT_TIMEOUT) {
+            Log.warn(LogCategory.HANDLER, "💀 Cliente sem resposta há {} ms: {}",
+                    silence, playerName != null ? playerName : clientId);
+            disconnect();
+            return;
+        }
+
+        sendMessage(MessageType.HEARTBEAT, "Server", "ping");
+        scheduleHeartbeat();
+    }
+
+    /**
+     * Prazo para o jogador enviar o time (reiniciado a cada nova seleção)
+     */
+    private void armSelectionTimer() {
+        cancelTimeout(selectionTimeout);
+        selectionTimeout = server.getTimer().newTimeout(this::onSelectionTimeout,
+                NetworkConstants.TEAM_SELECTION_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    private void onSelectionTimeout() {
+        if (teamReady || !connected.get()) {
+            return;
+        }
+
+        Log.info(LogCategory.HANDLER, "⏰ Tempo de seleção de time esgotado: {}", playerName);
+        sendMessage(MessageType.TIMEOUT, "Server", NetworkConstants.TIMEOUT_MSG);
+        connected.set(false);
+        connection.disconnectAfterFlush();
+    }
+
+    private static void cancelTimeout(HashedWheelTimer.Timeout timeout) {
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Jogador que estava na fila antes do reinício volta com o time gravado
+     */
+    void restoreQueuedTeam(java.util.List<pokemon.Species> team) {
+        adoptTeam(team);
+        findOpponentAndStartBattle();
+    }
+
+    /**
+     * Time escolhido em outro nó do cluster (jogador redirecionado)
+     */
+    void adoptTeam(java.util.List<pokemon.Species> team) {
+        this.playerTeam = team;
+        this.teamReady = true;
     }
 
     private void findOpponentAndStartBattle() {
-        ClientHandler opponent = server.findAvailableOpponent(this);
+        ClientHandler opponent = server.requestOpponent(this);
         if (opponent == null) {
-            System.out.println("🔍 Nenhum oponente disponível para " + playerName);
+            Log.info(LogCategory.HANDLER, "🔍 Nenhum oponente disponível para {}", playerName);
             sendMessage(MessageType.NOTIFICATION, "Server", "Aguardando outro jogador...");
             return;
         }
 
-        System.out.println("🎯 Emparelhando " + playerName + " vs " + opponent.getPlayerName());
+        startBattleWith(opponent);
+    }
+
+    /**
+     * Cria a sessão com o oponente emparelhado pelo matchmaking e inicia a batalha
+     */
+    void startBattleWith(ClientHandler opponent) {
+        Log.info(LogCategory.HANDLER, "🎯 Emparelhando {} vs {}", playerName, opponent.getPlayerName());
 
         GameSession session = server.createGameSession(this, opponent);
         this.currentSession = session;
@@ -355,65 +527,90 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
         sendMessage(MessageType.BATTLE_START, "Server", "Batalha iniciada contra " + opponent.getPlayerName());
         opponent.sendMessage(MessageType.BATTLE_START, "Server", "Batalha iniciada contra " + playerName);
 
-        // Iniciar a batalha na sessão
-        session.startBattle();
+        // Iniciar a batalha no loop da sessão
+        session.submit(session::startBattle);
     }
 
     // Implementação de NetworkManager.ConnectionListener
     @Override
     public void onConnected() {
-        System.out.println("🔗 Conexão estabelecida com cliente");
+        Log.debug(LogCategory.HANDLER, "🔗 Conexão estabelecida com cliente");
+        lastSeen = System.currentTimeMillis();
+        scheduleHeartbeat();
     }
 
     @Override
     public void onDisconnected() {
-        System.out.println("📤 Cliente desconectado: " + (playerName != null ? playerName : clientId));
+        Log.info(LogCategory.HANDLER, "📤 Cliente desconectado: {}", (playerName != null ? playerName : clientId));
         // Notifique o adversário caso haja sessão e estejamos em revanche pendente
-        if (currentSession != null) {
-            currentSession.notifyRematchDisconnected(this);
+        GameSession session = currentSession;
+        if (session != null) {
+            session.submit(() -> session.notifyRematchDisconnected(this));
         }
         cleanup();
     }
 
     @Override
     public void onError(Exception e) {
-        System.err.println("❌ Erro de conexão com " + (playerName != null ? playerName : clientId) + ": " + e.getMessage());
+        Log.error(LogCategory.HANDLER, "❌ Erro de conexão com {}: {}", (playerName != null ? playerName : clientId), e.getMessage());
         disconnect();
     }
 
     // Métodos utilitários
     public void sendMessage(MessageType type, String sender, Object data) {
-        if (networkManager != null && connected.get()) {
+        if (connection != null && connected.get()) {
             Message message = new Message(type, sender, data);
-            networkManager.sendMessage(message);
+            connection.sendMessage(message);
         }
     }
 
-    void sendError(String error) {
-        sendMessage(MessageType.ERROR, "Server", error);
+    /**
+     * Enfileira um frame compartilhado (espectadores) sem codificar de novo
+     */
+    boolean sendFrame(SharedFrame frame) {
+        return connection != null && connected.get() && connection.sendFrame(frame);
+    }
+
+    void setWatching(SpectatorHub hub) {
+        watching = hub;
+    }
+
+    private void stopWatching() {
+        SpectatorHub hub = watching;
+        watching = null;
+        if (hub != null) {
+            hub.leave(this);
+        }
     }
 
-    private void broadcastToOthers(MessageType type, String sender, Object data) {
-        // Implementação simplificada - servidor deveria ter lista de todos os clientes
-        System.out.println("📡 Broadcast: " + type + " de " + sender);
+    void sendError(String error) {
+        sendMessage(MessageType.ERROR, "Server", error);
     }
 
     public void disconnect() {
+        // Ler antes de fechar: connection.disconnect() chama onDisconnected -> cleanup(),
+        // que limpa currentSession
+        GameSession session = currentSession;
         connected.set(false);
 
-        if (networkManager != null) {
-            networkManager.disconnect();
+        if (connection != null) {
+            connection.disconnect();
         }
 
         // Notificar sessão atual se existir
-        if (currentSession != null) {
-            currentSession.playerDisconnected(this);
+        if (session != null) {
+            session.submit(() -> session.playerDisconnected(this));
         }
 
         cleanup();
     }
 
     private void cleanup() {
+        cancelTimeout(heartbeatTimeout);
+        cancelTimeout(selectionTimeout);
+        stopWatching();
+        server.getLobby().leave(this);
+
         // Remover cliente do servidor
         server.removeClient(this);
 
@@ -421,7 +618,7 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
         currentSession = null;
         playerTeam = null;
 
-        System.out.println("🧹 Limpeza concluída para cliente: " + (playerName != null ? playerName : clientId));
+        Log.info(LogCategory.HANDLER, "🧹 Limpeza concluída para cliente: {}", (playerName != null ? playerName : clientId));
     }
 
     // Getters
@@ -433,6 +630,17 @@ public class ClientHandler extends Thread implements NetworkManager.MessageListe
         return clientId;
     }
 
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public String getRemoteAddress() {
+        if (connection != null) {
+            return connection.getRemoteAddress();
+        }
+        return clientSocket != null ? String.valueOf(clientSocket.getRemoteSocketAddress()) : null;
+    }
+
     public boolean isConnected() {
         return connected.get();
     }
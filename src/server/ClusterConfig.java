@@ -0,0 +1,62 @@
+package server;
+
+import network.NetworkConstants;
+
+/**
+ * Modo cluster: endereço do coordenador e o host que este nó anuncia aos
+ * clientes redirecionados. Configurável por propriedades de sistema:
+ * -Dpokemon.cluster.coordinator=host:porta e -Dpokemon.cluster.advertiseHost
+ */
+public class ClusterConfig {
+
+    private final String coordinatorHost;
+    private final int coordinatorPort;
+    private final String advertiseHost;
+
+    public ClusterConfig(String coordinatorHost, int coordinatorPort, String advertiseHost) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        this.advertiseHost = advertiseHost;
+    }
+
+    /**
+     * Configuração das propriedades de sistema, ou null se o nó roda sozinho
+     */
+    public static ClusterConfig fromSystemProperties() {
+        String coordinator = System.getProperty("pokemon.cluster.coordinator");
+        if (coordinator == null || coordinator.trim().isEmpty()) {
+            return null;
+        }
+
+        String host = coordinator.trim();
+        int port = NetworkConstants.COORDINATOR_PORT;
+        int colon = host.lastIndexOf(':');
+        if (colon > 0) {
+            port = ServerConfig.parseInt(host.substring(colon + 1), port);
+            host = host.substring(0, colon);
+        }
+        String advertise = System.getProperty("pokemon.cluster.advertiseHost", NetworkConstants.DEFAULT_HOST);
+        return new ClusterConfig(host, port, advertise.trim());
+    }
+
+    public String getCoordinatorHost() {
+        return coordinatorHost;
+    }
+
+    public int getCoordinatorPort() {
+        return coordinatorPort;
+    }
+
+    /**
+     * Host enviado no REDIRECT para os clientes alcançarem este nó
+     */
+    public String getAdvertiseHost() {
+        return advertiseHost;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ClusterConfig{coordinator=%s:%d, advertiseHost=%s}",
+                coordinatorHost, coordinatorPort, advertiseHost);
+    }
+}
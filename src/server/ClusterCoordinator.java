@@ -0,0 +1,347 @@
+package server;
+
+import network.*;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Coordenador do cluster: mantém a lista de nós ativos, forma os pares da fila
+ * global e escolhe o nó dono de cada partida pelo anel de hash do matchId.
+ * Não participa das batalhas; roda como processo próprio:
+ * java server.ClusterCoordinator [porta]
+ *
+ * Os nós enviam ping a cada CLUSTER_HEARTBEAT_INTERVAL; um nó em silêncio por
+ * CLUSTER_NODE_TIMEOUT é removido e o anel é refeito sem ele.
+ */
+public class ClusterCoordinator implements Runnable {
+
+    private final int port;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private ServerSocket serverSocket;
+
+    // nodeId -> conexão do nó
+    private final ConcurrentMap<String, NodeLink> nodes = new ConcurrentHashMap<>();
+    private volatile HashRing ring = HashRing.empty();
+
+    // Fila global de jogadores com time pronto (protegida por ela mesma)
+    private final ArrayDeque<MatchHandoff> queue = new ArrayDeque<>();
+
+    // Partidas aguardando o nó dono confirmar (MATCH_READY)
+    private final ConcurrentMap<String, MatchAssignment> preparing = new ConcurrentHashMap<>();
+
+    private final AtomicLong matchesAssigned = new AtomicLong();
+    private final AtomicLong playersRedirected = new AtomicLong();
+    private final AtomicLong nodesEvicted = new AtomicLong();
+
+    // Varredura dos nós em silêncio
+    private final ScheduledExecutorService liveness;
+
+    /**
+     * Conexão de um nó com o coordenador
+     */
+    private final class NodeLink implements NetworkManager.MessageListener, NetworkManager.ConnectionListener {
+        private final NetworkManager connection;
+        private volatile ClusterNodeInfo info;
+        private volatile long lastSeen = System.currentTimeMillis();
+
+        NodeLink(NetworkManager connection) {
+            this.connection = connection;
+        }
+
+        void send(MessageType type, Object data) {
+            connection.sendMessage(new Message(type, "Coordinator", data));
+        }
+
+        @Override
+        public void onMessageReceived(Message message) {
+            lastSeen = System.currentTimeMillis();
+            switch (message.getType()) {
+                case NODE_JOIN:
+                    join(this, (ClusterNodeInfo) message.getData());
+                    break;
+                case MATCH_ENQUEUE:
+                    enqueue((MatchHandoff) message.getData());
+                    break;
+                case MATCH_CANCEL:
+                    cancel((String) message.getData());
+                    break;
+                case MATCH_READY:
+                    ready((String) message.getData());
+                    break;
+                case HEARTBEAT:
+                    if ("ping".equals(message.getData())) {
+                        send(MessageType.HEARTBEAT, "pong");
+                    }
+                    break;
+                default:
+                    Log.warn(LogCategory.CLUSTER, "Mensagem inesperada de {}: {}", info, message.getType());
+            }
+        }
+
+        @Override
+        public void onConnected() {
+        }
+
+        @Override
+        public void onDisconnected() {
+            leave(this);
+        }
+
+        @Override
+        public void onError(Exception e) {
+            Log.warn(LogCategory.CLUSTER, "Erro na conexão com {}: {}", info, e.getMessage());
+        }
+    }
+
+    public ClusterCoordinator(int port) {
+        this.port = port;
+        this.liveness = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ClusterCoordinator-liveness");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Inicia a thread que aceita os nós e a varredura de nós em silêncio
+     */
+    public void start() {
+        liveness.scheduleWithFixedDelay(this::evictSilentNodes, NetworkConstants.CLUSTER_HEARTBEAT_INTERVAL,
+                NetworkConstants.CLUSTER_HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+        new Thread(this, "ClusterCoordinator-" + port).start();
+    }
+
+    public boolean startCoordinator() {
+        try {
+            serverSocket = new ServerSocket(port, NetworkConstants.SERVER_BACKLOG);
+            running.set(true);
+            Log.info(LogCategory.CLUSTER, "🧭 Coordenador do cluster na porta {}", port);
+            return true;
+        } catch (IOException e) {
+            Log.error(LogCategory.CLUSTER, "❌ Erro ao iniciar coordenador: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!startCoordinator()) {
+            return;
+        }
+
+        while (running.get()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                // Só o codec binário: nada do que chega na porta do cluster vira objeto Java
+                NetworkManager connection = new NetworkManager(socket, CodecType.BINARY);
+                NodeLink link = new NodeLink(connection);
+                connection.setMessageListener(link);
+                connection.setConnectionListener(link);
+                if (connection.initialize()) {
+                    connection.start();
+                } else {
+                    socket.close();
+                }
+            } catch (IOException e) {
+                if (running.get()) {
+                    Log.error(LogCategory.CLUSTER, "Erro ao aceitar nó: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    public void stopCoordinator() {
+        if (!running.getAndSet(false)) {
+            return;
+        }
+        liveness.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Ignorar
+        }
+        for (NodeLink link : nodes.values()) {
+            link.connection.disconnect();
+        }
+        Log.info(LogCategory.CLUSTER, "🛑 Coordenador parado: {} partidas, {} redirecionamentos",
+                matchesAssigned.get(), playersRedirected.get());
+        Log.info(LogCategory.CLUSTER, "💀 Nós removidos por silêncio: {}", nodesEvicted.get());
+    }
+
+    // === MEMBROS ===
+
+    private void join(NodeLink link, ClusterNodeInfo info) {
+        link.info = info;
+        NodeLink previous = nodes.put(info.getNodeId(), link);
+        if (previous != null && previous != link) {
+            previous.connection.disconnect();
+        }
+        Log.info(LogCategory.CLUSTER, "➕ Nó entrou no cluster: {}", info);
+        membershipChanged();
+    }
+
+    private void leave(NodeLink link) {
+        ClusterNodeInfo info = link.info;
+        if (info == null || !nodes.remove(info.getNodeId(), link)) {
+            return;
+        }
+        Log.info(LogCategory.CLUSTER, "➖ Nó saiu do cluster: {}", info);
+        membershipChanged();
+
+        // Jogadores daquele nó não podem mais ser redirecionados
+        synchronized (queue) {
+            queue.removeIf(handoff -> handoff.getNodeId().equals(info.getNodeId()));
+        }
+
+        // Partidas que seriam do nó que saiu: devolve os jogadores à fila
+        for (Iterator<MatchAssignment> it = preparing.values().iterator(); it.hasNext(); ) {
+            MatchAssignment assignment = it.next();
+            if (assignment.getOwner().equals(info)) {
+                it.remove();
+                requeue(assignment.getPlayer1());
+                requeue(assignment.getPlayer2());
+            }
+        }
+    }
+
+    /**
+     * Remove os nós que pararam de enviar ping: um nó travado ou com a rede
+     * cortada pode manter o socket aberto, e sem isso ficaria no anel para sempre
+     */
+    private void evictSilentNodes() {
+        long now = System.currentTimeMillis();
+        for (NodeLink link : nodes.values()) {
+            long silence = now - link.lastSeen;
+            if (silence > NetworkConstants.CLUSTER_NODE_TIMEOUT) {
+                Log.warn(LogCategory.CLUSTER, "💀 Nó sem resposta há {} ms: {}", silence, link.info);
+                nodesEvicted.incrementAndGet();
+                leave(link);
+                link.connection.disconnect();
+            }
+        }
+    }
+
+    private void requeue(MatchHandoff handoff) {
+        if (nodes.containsKey(handoff.getNodeId())) {
+            enqueue(new MatchHandoff(handoff.getPlayerName(), handoff.getNodeId(), handoff.getTeam()));
+        }
+    }
+
+    /**
+     * Reconstrói o anel e envia a lista de membros para todos os nós
+     */
+    private synchronized void membershipChanged() {
+        ArrayList<ClusterNodeInfo> members = new ArrayList<>();
+        for (NodeLink link : nodes.values()) {
+            members.add(link.info);
+        }
+        ring = new HashRing(members);
+        for (NodeLink link : nodes.values()) {
+            link.send(MessageType.CLUSTER_MEMBERSHIP, members);
+        }
+    }
+
+    // === FILA GLOBAL E HAND-OFF ===
+
+    private void enqueue(MatchHandoff handoff) {
+        MatchHandoff waiting = null;
+        synchronized (queue) {
+            queue.removeIf(queued -> queued.getPlayerName().equals(handoff.getPlayerName()));
+            if (queue.isEmpty()) {
+                queue.add(handoff);
+            } else {
+                waiting = queue.poll();
+            }
+        }
+
+        if (waiting != null) {
+            assign(waiting, handoff);
+        }
+    }
+
+    private void cancel(String playerName) {
+        synchronized (queue) {
+            queue.removeIf(queued -> queued.getPlayerName().equals(playerName));
+        }
+    }
+
+    /**
+     * Escolhe o nó dono pelo anel e pede que ele prepare a partida; as origens
+     * só redirecionam os jogadores depois do MATCH_READY
+     */
+    private void assign(MatchHandoff first, MatchHandoff second) {
+        String matchId = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        ClusterNodeInfo owner = ring.nodeFor(matchId);
+        NodeLink ownerLink = owner != null ? nodes.get(owner.getNodeId()) : null;
+        if (ownerLink == null) {
+            Log.warn(LogCategory.CLUSTER, "Nenhum nó disponível para a partida {}", matchId);
+            return;
+        }
+
+        MatchAssignment assignment = new MatchAssignment(matchId, owner,
+                first.withToken(matchId + "." + UUID.randomUUID()),
+                second.withToken(matchId + "." + UUID.randomUUID()));
+        preparing.put(matchId, assignment);
+        matchesAssigned.incrementAndGet();
+
+        Log.info(LogCategory.CLUSTER, "🎯 Partida {}: {} no nó {}", matchId,
+                first.getPlayerName() + " vs " + second.getPlayerName(), owner.getNodeId());
+        ownerLink.send(MessageType.MATCH_ASSIGN, assignment);
+    }
+
+    private void ready(String matchId) {
+        MatchAssignment assignment = preparing.remove(matchId);
+        if (assignment == null) {
+            return;
+        }
+
+        List<String> origins = new ArrayList<>(2);
+        for (MatchHandoff handoff : new MatchHandoff[]{assignment.getPlayer1(), assignment.getPlayer2()}) {
+            String nodeId = handoff.getNodeId();
+            if (!nodeId.equals(assignment.getOwner().getNodeId())) {
+                playersRedirected.incrementAndGet();
+                if (!origins.contains(nodeId)) {
+                    origins.add(nodeId);
+                }
+            }
+        }
+
+        for (String nodeId : origins) {
+            NodeLink link = nodes.get(nodeId);
+            if (link != null) {
+                link.send(MessageType.MATCH_ASSIGN, assignment);
+            }
+        }
+    }
+
+    public long getMatchesAssigned() {
+        return matchesAssigned.get();
+    }
+
+    public static void main(String[] args) {
+        int port = NetworkConstants.COORDINATOR_PORT;
+        if (args.length > 0) {
+            port = ServerConfig.parseInt(args[0], port);
+        }
+
+        ClusterCoordinator coordinator = new ClusterCoordinator(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(coordinator::stopCoordinator));
+        coordinator.start();
+    }
+}
@@ -0,0 +1,388 @@
+package server;
+
+import network.*;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Ligação deste servidor com o {@link ClusterCoordinator}: registra o nó,
+ * mantém o anel de hash com os membros atuais e faz o hand-off dos jogadores
+ * para o nó dono de cada partida.
+ *
+ * A ligação envia ping a cada CLUSTER_HEARTBEAT_INTERVAL e derruba a conexão
+ * se o coordenador ficar CLUSTER_NODE_TIMEOUT em silêncio; sem conexão, tenta
+ * de novo com espera dobrando até CLUSTER_RECONNECT_MAX.
+ */
+public class ClusterNode implements NetworkManager.MessageListener, NetworkManager.ConnectionListener {
+
+    private final ClusterConfig config;
+    private final ClusterNodeInfo self;
+    private final HashedWheelTimer timer;
+
+    private volatile NetworkManager coordinator;
+    private volatile HashRing ring = HashRing.empty();
+
+    // Heartbeat e reconexão (conectar bloqueia, então fora da thread do timer)
+    private final ScheduledExecutorService link;
+    private volatile boolean stopped = false;
+    private volatile long lastSeen;
+    private volatile long reconnectDelay = NetworkConstants.RECONNECT_INTERVAL;
+
+    // Jogadores deste nó aguardando na fila do cluster, por nome
+    private final ConcurrentMap<String, ClientHandler> queued = new ConcurrentHashMap<>();
+
+    // Partidas das quais este nó é dono, aguardando os jogadores chegarem
+    private final ConcurrentMap<String, PendingMatch> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Partida preparada neste nó; os dois lados chegam por caminhos diferentes
+     * (local ou redirecionado), então o estado é protegido pelo próprio objeto
+     */
+    private static final class PendingMatch {
+        final MatchAssignment assignment;
+        final ClientHandler[] arrived = new ClientHandler[2];
+        HashedWheelTimer.Timeout timeout;
+
+        PendingMatch(MatchAssignment assignment) {
+            this.assignment = assignment;
+        }
+
+        MatchHandoff handoff(int index) {
+            return index == 0 ? assignment.getPlayer1() : assignment.getPlayer2();
+        }
+
+        int indexOf(String playerName) {
+            for (int i = 0; i < 2; i++) {
+                if (handoff(i).getPlayerName().equals(playerName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    public ClusterNode(ClusterConfig config, ClusterNodeInfo self, HashedWheelTimer timer) {
+        this.config = config;
+        this.self = self;
+        this.timer = timer;
+        this.link = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ClusterNode-link");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Conecta ao coordenador e se registra; na falha o nó segue sozinho e
+     * continua tentando em segundo plano
+     */
+    public boolean start() {
+        link.scheduleWithFixedDelay(this::heartbeat, NetworkConstants.CLUSTER_HEARTBEAT_INTERVAL,
+                NetworkConstants.CLUSTER_HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
+        try {
+            connect();
+            return true;
+        } catch (IOException e) {
+            Log.error(LogCategory.CLUSTER, "❌ Coordenador indisponível ({}), nó seguirá sozinho", e.getMessage());
+            scheduleReconnect();
+            return false;
+        }
+    }
+
+    private void connect() throws IOException {
+        Socket socket = new Socket(config.getCoordinatorHost(), config.getCoordinatorPort());
+        socket.setTcpNoDelay(true);
+        NetworkManager connection = new NetworkManager(socket, CodecType.BINARY);
+        connection.setMessageListener(this);
+        connection.setConnectionListener(this);
+        if (!connection.initialize()) {
+            socket.close();
+            throw new IOException("handshake com o coordenador falhou");
+        }
+        lastSeen = System.currentTimeMillis();
+        reconnectDelay = NetworkConstants.RECONNECT_INTERVAL;
+        connection.start();
+        coordinator = connection;
+
+        connection.sendMessage(new Message(MessageType.NODE_JOIN, self.getNodeId(), self));
+        Log.info(LogCategory.CLUSTER, "🧭 Nó {} conectado ao coordenador {}:{}", self,
+                config.getCoordinatorHost(), config.getCoordinatorPort());
+    }
+
+    /**
+     * Nova tentativa após a espera atual, que dobra a cada falha
+     */
+    private void scheduleReconnect() {
+        if (stopped) {
+            return;
+        }
+        long delay = reconnectDelay;
+        reconnectDelay = Math.min(delay * 2, NetworkConstants.CLUSTER_RECONNECT_MAX);
+        link.schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect() {
+        if (stopped || coordinator != null) {
+            return;
+        }
+        try {
+            connect();
+        } catch (IOException e) {
+            Log.debug(LogCategory.CLUSTER, "Coordenador ainda indisponível: {}", e.getMessage());
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * Ping para o coordenador; silêncio além de CLUSTER_NODE_TIMEOUT derruba a
+     * conexão (e onDisconnected agenda a reconexão)
+     */
+    private void heartbeat() {
+        NetworkManager connection = coordinator;
+        if (stopped || connection == null) {
+            return;
+        }
+
+        long silence = System.currentTimeMillis() - lastSeen;
+        if (silence > NetworkConstants.CLUSTER_NODE_TIMEOUT) {
+            Log.warn(LogCategory.CLUSTER, "💀 Coordenador sem resposta há {} ms", silence);
+            connection.disconnect();
+            return;
+        }
+        connection.sendHeartbeat(self.getNodeId());
+    }
+
+    public void stop() {
+        stopped = true;
+        link.shutdownNow();
+        NetworkManager connection = coordinator;
+        coordinator = null;
+        if (connection != null) {
+            connection.setConnectionListener(null);
+            connection.disconnect();
+        }
+    }
+
+    public boolean isConnected() {
+        NetworkManager connection = coordinator;
+        return connection != null && connection.isConnected();
+    }
+
+    private void send(MessageType type, Object data) {
+        NetworkManager connection = coordinator;
+        if (connection != null) {
+            connection.sendMessage(new Message(type, self.getNodeId(), data));
+        }
+    }
+
+    // === FILA DO CLUSTER ===
+
+    /**
+     * Coloca o jogador (time pronto) na fila global do coordenador
+     */
+    public void enqueue(ClientHandler player) {
+        queued.put(player.getPlayerName(), player);
+        send(MessageType.MATCH_ENQUEUE, new MatchHandoff(player.getPlayerName(), self.getNodeId(),
+                player.getPlayerTeam()));
+    }
+
+    public void cancel(ClientHandler player) {
+        if (player.getPlayerName() != null && queued.remove(player.getPlayerName(), player)) {
+            send(MessageType.MATCH_CANCEL, player.getPlayerName());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onMessageReceived(Message message) {
+        lastSeen = System.currentTimeMillis();
+        switch (message.getType()) {
+            case CLUSTER_MEMBERSHIP:
+                List<ClusterNodeInfo> members = (List<ClusterNodeInfo>) message.getData();
+                ring = new HashRing(members);
+                Log.info(LogCategory.CLUSTER, "🗺️ Membros do cluster: {}", members);
+                break;
+            case MATCH_ASSIGN:
+                MatchAssignment assignment = (MatchAssignment) message.getData();
+                if (self.equals(assignment.getOwner())) {
+                    prepare(assignment);
+                } else {
+                    redirect(assignment);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Este nó é o dono: reserva a partida, recebe os jogadores locais e avisa
+     * o coordenador que os outros já podem ser redirecionados
+     */
+    private void prepare(MatchAssignment assignment) {
+        String matchId = assignment.getMatchId();
+        PendingMatch match = new PendingMatch(assignment);
+        match.timeout = timer.newTimeout(() -> expire(matchId),
+                NetworkConstants.HANDOFF_TIMEOUT, TimeUnit.MILLISECONDS);
+        pending.put(matchId, match);
+
+        for (int i = 0; i < 2; i++) {
+            MatchHandoff handoff = match.handoff(i);
+            if (handoff.getNodeId().equals(self.getNodeId())) {
+                ClientHandler client = queued.remove(handoff.getPlayerName());
+                if (client != null) {
+                    arrive(matchId, client);
+                }
+            }
+        }
+
+        send(MessageType.MATCH_READY, matchId);
+    }
+
+    /**
+     * Outro nó é o dono: manda os jogadores daqui reconectarem lá com o token
+     */
+    private void redirect(MatchAssignment assignment) {
+        ClusterNodeInfo owner = assignment.getOwner();
+        for (MatchHandoff handoff : new MatchHandoff[]{assignment.getPlayer1(), assignment.getPlayer2()}) {
+            if (!handoff.getNodeId().equals(self.getNodeId())) {
+                continue;
+            }
+            ClientHandler client = queued.remove(handoff.getPlayerName());
+            if (client != null) {
+                Log.info(LogCategory.CLUSTER, "↪️ {} redirecionado para {}", handoff.getPlayerName(), owner);
+                client.sendMessage(MessageType.REDIRECT, "Server",
+                        new RedirectInfo(owner.getHost(), owner.getPort(), handoff.getToken()));
+            }
+        }
+    }
+
+    // === CHEGADA NO NÓ DONO ===
+
+    /**
+     * Reserva o lugar do jogador redirecionado se nome e token conferem
+     */
+    PokemonServer.ResumeSlot claimHandoff(String playerName, String token) {
+        String matchId = MatchAssignment.matchIdOf(token);
+        PendingMatch match = matchId != null ? pending.get(matchId) : null;
+        if (match == null) {
+            return null;
+        }
+        int index = match.indexOf(playerName);
+        if (index < 0 || !MessageDigest.isEqual(match.handoff(index).getToken().getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            return null;
+        }
+        return new PokemonServer.ResumeSlot(token, matchId, match.handoff(index).getTeam());
+    }
+
+    /**
+     * Jogador chegou ao nó dono; com os dois presentes a batalha começa
+     */
+    void arrive(String matchId, ClientHandler client) {
+        PendingMatch match = pending.get(matchId);
+        if (match == null) {
+            client.sendMessage(MessageType.NOTIFICATION, "Server", "Partida expirada, voltando para a fila...");
+            return;
+        }
+
+        ClientHandler first;
+        synchronized (match) {
+            int index = match.indexOf(client.getPlayerName());
+            if (index < 0) {
+                return;
+            }
+            client.adoptTeam(match.handoff(index).getTeam());
+            match.arrived[index] = client;
+            first = match.arrived[1 - index];
+            if (first == null || !pending.remove(matchId, match)) {
+                return;
+            }
+            match.timeout.cancel();
+        }
+
+        Log.info(LogCategory.CLUSTER, "🤝 Partida {} completa neste nó", matchId);
+        client.startBattleWith(first);
+    }
+
+    /**
+     * Um dos jogadores não chegou a tempo: quem chegou volta para a fila
+     */
+    private void expire(String matchId) {
+        PendingMatch match = pending.remove(matchId);
+        if (match == null) {
+            return;
+        }
+
+        List<ClientHandler> present = new ArrayList<>(2);
+        synchronized (match) {
+            for (ClientHandler client : match.arrived) {
+                if (client != null && client.isConnected()) {
+                    present.add(client);
+                }
+            }
+        }
+
+        Log.info(LogCategory.CLUSTER, "⌛ Partida {} expirou aguardando jogadores", matchId);
+        for (ClientHandler client : present) {
+            client.sendMessage(MessageType.NOTIFICATION, "Server", "O oponente não chegou. Voltando para a fila...");
+            client.restoreQueuedTeam(client.getPlayerTeam());
+        }
+    }
+
+    /**
+     * Token de uma partida de outro nó: endereço do dono pelo anel de hash
+     */
+    RedirectInfo routeFor(String token) {
+        String matchId = MatchAssignment.matchIdOf(token);
+        ClusterNodeInfo owner = matchId != null ? ring.nodeFor(matchId) : null;
+        if (owner == null || owner.equals(self)) {
+            return null;
+        }
+        return new RedirectInfo(owner.getHost(), owner.getPort(), token);
+    }
+
+    public ClusterNodeInfo getSelf() {
+        return self;
+    }
+
+    @Override
+    public void onConnected() {
+    }
+
+    /**
+     * Coordenador caiu: os jogadores na fila do cluster voltam para o matchmaking
+     * local até a reconexão
+     */
+    @Override
+    public void onDisconnected() {
+        NetworkManager lost = coordinator;
+        if (lost == null || lost.isConnected()) {
+            return; // Já tratado, ou aviso atrasado de uma conexão anterior
+        }
+        coordinator = null;
+        Log.warn(LogCategory.CLUSTER, "⚠️ Conexão com o coordenador perdida; matchmaking local");
+        for (ClientHandler client : new ArrayList<>(queued.values())) {
+            if (queued.remove(client.getPlayerName(), client)) {
+                client.restoreQueuedTeam(client.getPlayerTeam());
+            }
+        }
+        scheduleReconnect();
+    }
+
+    @Override
+    public void onError(Exception e) {
+        Log.warn(LogCategory.CLUSTER, "Erro na conexão com o coordenador: {}", e.getMessage());
+    }
+}
@@ -0,0 +1,152 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matchmaking FIFO sem lock global.
+ *
+ * O jogador que chega procura, a partir da cabeça da fila, o ticket mais antigo
+ * aceito pela {@link PairingStrategy}. Os dois tickets são reservados por CAS
+ * sempre na ordem de sequência (o mais antigo primeiro), então duas buscas
+ * simultâneas nunca reivindicam o mesmo oponente e não entram em impasse.
+ * A busca examina no máximo {@link #MAX_PROBES} tickets vivos e tickets
+ * finalizados são removidos durante a própria busca: o custo não depende de
+ * quantos clientes estão conectados.
+ */
+public class FifoMatchmaker implements Matchmaker {
+
+    static final int MAX_PROBES = 8;
+
+    private final PairingStrategy strategy;
+    private final Queue<MatchTicket> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<String, MatchTicket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final MatchmakingStats stats = new MatchmakingStats();
+
+    public FifoMatchmaker() {
+        this(PairingStrategy.ANY);
+    }
+
+    public FifoMatchmaker(PairingStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public Pairing enqueue(ClientHandler client) {
+        MatchTicket mine = new MatchTicket(client, sequence.incrementAndGet());
+        if (tickets.putIfAbsent(client.getClientId(), mine) != null) {
+            // Já está na fila
+            return null;
+        }
+        waiting.incrementAndGet();
+        queue.offer(mine);
+
+        return tryPair(mine);
+    }
+
+    private Pairing tryPair(MatchTicket mine) {
+        while (mine.isWaiting()) {
+            MatchTicket other = findCandidate(mine);
+            if (other == null) {
+                return null;
+            }
+
+            // Reservar sempre o mais antigo primeiro
+            MatchTicket first = other.getSequence() < mine.getSequence() ? other : mine;
+            MatchTicket second = first == other ? mine : other;
+
+            if (!first.tryClaim()) {
+                continue;
+            }
+            if (!second.tryClaim()) {
+                first.release();
+                continue;
+            }
+
+            complete(first);
+            complete(second);
+            stats.recordMatch(other, mine);
+            return new Pairing(other.getClient(), mine.getClient());
+        }
+        // Outro jogador já formou o par com este ticket (ou ele foi cancelado)
+        return null;
+    }
+
+    /**
+     * Primeiro ticket aguardando que a estratégia aceita; descarta tickets finalizados
+     */
+    private MatchTicket findCandidate(MatchTicket mine) {
+        int probes = 0;
+        Iterator<MatchTicket> it = queue.iterator();
+        while (it.hasNext() && probes < MAX_PROBES) {
+            MatchTicket candidate = it.next();
+            if (candidate.isDone()) {
+                it.remove();
+                continue;
+            }
+            if (candidate == mine || !candidate.isWaiting()) {
+                continue;
+            }
+            probes++;
+            if (strategy.canPair(candidate, mine)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void complete(MatchTicket ticket) {
+        ticket.matched();
+        // Sai da fila de forma preguiçosa: findCandidate descarta tickets finalizados
+        tickets.remove(ticket.getClient().getClientId(), ticket);
+        waiting.decrementAndGet();
+    }
+
+    @Override
+    public boolean cancel(ClientHandler client) {
+        MatchTicket ticket = tickets.get(client.getClientId());
+        if (ticket == null || !ticket.cancel()) {
+            return false;
+        }
+        tickets.remove(client.getClientId(), ticket);
+        waiting.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    @Override
+    public MatchmakingStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public List<ClientHandler> waitingClients() {
+        List<MatchTicket> live = new ArrayList<>();
+        for (MatchTicket ticket : tickets.values()) {
+            if (ticket.isWaiting()) {
+                live.add(ticket);
+            }
+        }
+        live.sort(Comparator.comparingLong(MatchTicket::getSequence));
+
+        List<ClientHandler> clients = new ArrayList<>(live.size());
+        for (MatchTicket ticket : live) {
+            clients.add(ticket.getClient());
+        }
+        return clients;
+    }
+}
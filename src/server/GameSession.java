@@ -1,79 +1,220 @@
 package server;
 
 import network.MessageType;
+import network.NetworkConstants;
 import network.BattleStateDTO;
-import pokemon.Species;
+import pokemon.DamageCalculator;
 import pokemon.Move;
+import pokemon.Species;
+import java.util.Queue;
+import java.util.SplittableRandom;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Collections;
 import logging.BattleLogIntegration;
 import logging.BattleLogger;
-import logging.LogReader;
+import logging.Log;
+import logging.LogCategory;
 import network.BattleEndData;
+import network.TurnResult;
+import network.BattleInitPayload;
 
 /**
- * Gerencia uma sessão de jogo entre dois jogadores VERSÃO CORRIGIDA -
- * implementa lógica real de batalha com HP e dano
+ * Sessão de jogo entre dois jogadores: adapta o {@link BattleKernel} à rede,
+ * repassando as jogadas dos clientes e traduzindo os eventos da batalha em
+ * mensagens, logs, espectadores e snapshots.
+ *
+ * Os comandos (movimento, desconexão, revanche) entram pela caixa de mensagens
+ * com {@link #submit(Runnable)} e são executados em série pelo loop da sessão;
+ * o estado da batalha só é alterado nessa thread.
  */
 public class GameSession {
 
+    // Comandos executados por vez antes de devolver o loop às outras sessões
+    private static final int MAX_BATCH = 64;
+
     private final String sessionId;
-    private final ClientHandler player1;
-    private final ClientHandler player2;
+    // Trocados apenas na retomada após reinício (null até o jogador reconectar)
+    private volatile ClientHandler player1;
+    private volatile ClientHandler player2;
 
     // Estado da sessão
     private final AtomicBoolean active;
+    private volatile SessionState state = SessionState.ACTIVE;
+    private volatile long endedAt; // Quando a batalha terminou (retenção para revanche)
     private boolean battleStarted = false;
-    private boolean currentPlayerTurn; // true = player1, false = player2
 
     // === ESTADO REAL DA BATALHA ===
-    private List<PokemonBattleInstance> team1; // Time do player1
-    private List<PokemonBattleInstance> team2; // Time do player2
-    private int player1ActiveIndex = 0; // Índice do Pokémon ativo do player1  
-    private int player2ActiveIndex = 0; // Índice do Pokémon ativo do player2
+    // HP, Pokémon ativos, PP, vez e turno; a sessão só traduz os eventos em mensagens
+    private BattleKernel kernel;
+
+    // Único gerador da batalha (ordem, precisão, crítico, variação): mesma semente e
+    // mesmas jogadas reproduzem a batalha. Usado só no loop da sessão.
+    private final long seed;
+    private final SplittableRandom random;
     private boolean battleEnded = false;
     
     private BattleLogger battleLogger;
     private int logTurnCounter = 0;
 
-    public GameSession(ClientHandler player1, ClientHandler player2) {
+    // Atualizado ao fim da batalha (pode ser null)
+    private final RatingService ratingService;
+
+    // Caixa de mensagens e loop que a executa (null = executar na thread de quem envia)
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final SessionWorkerPool.Worker worker;
+
+    // Prazo do turno atual (jogador inativo perde por W.O.)
+    private final HashedWheelTimer timer;
+    private HashedWheelTimer.Timeout turnTimeout;
+    private volatile long turnStartedAt;
+
+    // Retomada após reinício: nomes esperados (null = sessão normal)
+    private String[] resumeNames;
+    // Estado já gravado no snapshot; novos movimentos são ignorados
+    private boolean frozen = false;
+
+    // Replicação para o standby (null = servidor sem standby)
+    private final ReplicationSender replication;
+
+    // Espectadores: eventos codificados uma vez para todos
+    private final SpectatorHub spectators;
+
+    /**
+     * Serviços do servidor compartilhados pelas sessões (qualquer um pode ser
+     * null: sem rating, comandos na thread de quem envia, sem prazo de turno,
+     * sem standby)
+     */
+    public static final class Options {
+
+        final RatingService ratingService;
+        final SessionWorkerPool workers;
+        final HashedWheelTimer timer;
+        final ReplicationSender replication;
+        final long spectatorDelay; // Atraso da transmissão para espectadores (ms)
+
+        public Options(RatingService ratingService, SessionWorkerPool workers, HashedWheelTimer timer,
+                ReplicationSender replication, long spectatorDelay) {
+            this.ratingService = ratingService;
+            this.workers = workers;
+            this.timer = timer;
+            this.replication = replication;
+            this.spectatorDelay = spectatorDelay;
+        }
+    }
+
+    public GameSession(ClientHandler player1, ClientHandler player2, long seed, Options options) {
+        this.ratingService = options.ratingService;
+        this.timer = options.timer;
+        this.replication = options.replication;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
         this.sessionId = UUID.randomUUID().toString().substring(0, 12);
+        this.spectators = new SpectatorHub(sessionId, timer, options.spectatorDelay);
+        this.worker = options.workers != null ? options.workers.workerFor(sessionId) : null;
         this.player1 = player1;
         this.player2 = player2;
         this.active = new AtomicBoolean(true);
-        this.currentPlayerTurn = new java.util.Random().nextBoolean();
 
-        // Inicializar times com PokemonBattleInstance
-        initializeTeams();
+        initializeTeams(random.nextBoolean() ? BattleKernel.PLAYER1 : BattleKernel.PLAYER2);
 
-        this.battleLogger = BattleLogIntegration.initializeBattleLogging(player1, player2);
+        this.battleLogger = BattleLogIntegration.initializeBattleLogging(player1, player2, seed);
         
-        System.out.println("🎲 Nova sessão criada: " + sessionId);
-        System.out.println("👥 Jogadores: " + player1.getPlayerName() + " vs " + player2.getPlayerName());
+        Log.info(LogCategory.SESSION, "🎲 Nova sessão criada: {} (semente {})", sessionId, seed);
+        Log.info(LogCategory.SESSION, "👥 Jogadores: {} vs {}", player1.getPlayerName(), player2.getPlayerName());
     }
 
     /**
-     * Inicializa os times convertendo Species para PokemonBattleInstance
+     * Sessão restaurada de um snapshot: os jogadores são religados com
+     * {@link #resumePlayer(ClientHandler, boolean)} quando reconectarem
      */
-    private void initializeTeams() {
-        team1 = new ArrayList<>();
-        team2 = new ArrayList<>();
+    GameSession(SessionSnapshot.SessionRecord record, Options options) {
+        this.ratingService = options.ratingService;
+        this.timer = options.timer;
+        this.replication = options.replication;
+        this.sessionId = record.sessionId;
+        // A sequência recomeça de (semente, turno): determinística também após a retomada
+        this.seed = record.seed;
+        long resumedSeed = resumeSeed(record.seed, record.turnNumber);
+        this.random = new SplittableRandom(resumedSeed);
+        this.spectators = new SpectatorHub(sessionId, timer, options.spectatorDelay);
+        this.worker = options.workers != null ? options.workers.workerFor(sessionId) : null;
+        this.active = new AtomicBoolean(true);
+
+        this.kernel = new BattleKernel(record.player1.team, record.player2.team,
+                record.currentPlayerTurn ? BattleKernel.PLAYER1 : BattleKernel.PLAYER2, random);
+        kernel.restoreSide(BattleKernel.PLAYER1, record.player1.hp, record.player1.pp, record.player1ActiveIndex);
+        kernel.restoreSide(BattleKernel.PLAYER2, record.player2.hp, record.player2.pp, record.player2ActiveIndex);
+        kernel.restoreTurn(record.turnNumber);
+        this.logTurnCounter = record.logTurnCounter;
+        this.battleStarted = true;
+        this.resumeNames = new String[]{record.player1.name, record.player2.name};
+
+        Log.info(LogCategory.SESSION, "♻️ Sessão restaurada: {} ({} vs {})",
+                sessionId, record.player1.name, record.player2.name);
+        // Para o replay: semente original até o turno gravado, a derivada daí em diante
+        Log.info(LogCategory.SESSION, "🎲 Semente da retomada: {} (original {}, turno {})",
+                resumedSeed, record.seed, record.turnNumber);
+    }
+
+    /**
+     * Semente do gerador de uma sessão retomada no turno dado
+     */
+    static long resumeSeed(long seed, int turnNumber) {
+        return seed ^ (turnNumber * 0x9E3779B97F4A7C15L);
+    }
 
-        // Converter time do player1
-        for (Species species : player1.getPlayerTeam()) {
-            team1.add(new PokemonBattleInstance(species));
+    /**
+     * Enfileira um comando para ser executado pelo loop da sessão
+     */
+    public void submit(Runnable command) {
+        if (worker == null) {
+            synchronized (this) {
+                command.run();
+            }
+            return;
         }
 
-        // Converter time do player2  
-        for (Species species : player2.getPlayerTeam()) {
-            team2.add(new PokemonBattleInstance(species));
+        mailbox.offer(command);
+        if (scheduled.compareAndSet(false, true)) {
+            worker.schedule(this);
         }
+    }
 
-        System.out.println("✅ Times inicializados:");
-        System.out.println("   " + player1.getPlayerName() + ": " + team1.size() + " Pokémon");
-        System.out.println("   " + player2.getPlayerName() + ": " + team2.size() + " Pokémon");
+    /**
+     * Executa os comandos pendentes (apenas no loop da sessão)
+     */
+    void drainMailbox() {
+        Runnable command;
+        int executed = 0;
+        while (executed < MAX_BATCH && (command = mailbox.poll()) != null) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                Log.error(LogCategory.SESSION, "❌ Erro na sessão {}: {}", sessionId, e.getMessage());
+            }
+            executed++;
+        }
+
+        scheduled.set(false);
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            worker.schedule(this);
+        }
+    }
+
+    /**
+     * Inicializa os times no kernel da batalha
+     */
+    private void initializeTeams(int firstSide) {
+        kernel = new BattleKernel(player1.getPlayerTeam(), player2.getPlayerTeam(), firstSide, random);
+
+        Log.info(LogCategory.SESSION, "✅ Times inicializados:");
+        Log.info(LogCategory.SESSION, "   {}: {} Pokémon", player1.getPlayerName(), kernel.getTeam(BattleKernel.PLAYER1).size());
+        Log.info(LogCategory.SESSION, "   {}: {} Pokémon", player2.getPlayerName(), kernel.getTeam(BattleKernel.PLAYER2).size());
     }
 
     /**
@@ -85,177 +226,214 @@ public class GameSession {
         }
 
         if (!player1.isTeamReady() || !player2.isTeamReady()) {
-            System.err.println("❌ Nem todos os jogadores têm times prontos");
+            Log.warn(LogCategory.SESSION, "❌ Nem todos os jogadores têm times prontos");
             return;
         }
 
         battleStarted = true;
-        System.out.println("⚔️ Iniciando batalha na sessão: " + sessionId);
-        System.out.println("🎯 Jogador inicial: " + getCurrentPlayer().getPlayerName());
+        Log.info(LogCategory.SESSION, "⚔️ Iniciando batalha na sessão: {}", sessionId);
+        Log.info(LogCategory.SESSION, "🎯 Jogador inicial: {}", getCurrentPlayer().getPlayerName());
 
         // Enviar estado inicial
         sendBattleState();
+        beginSpectating();
 
         // Solicitar primeiro movimento
         ClientHandler first = getCurrentPlayer();
         first.sendMessage(MessageType.MOVE_REQUEST, "Server", "É sua vez de jogar!");
+        armTurnTimer();
+        replicate();
     }
 
     /**
-     * Executa movimento de um jogador - LÓGICA REAL DE BATALHA
+     * Espectadores recebem a batalha na visão do player1
      */
-    public void executeMove(ClientHandler player, int moveIndex) {
-        if (!active.get() || battleEnded) {
-            return;
-        }
+    private void beginSpectating() {
+        spectators.begin(new BattleInitPayload(kernel.getTeam(BattleKernel.PLAYER1), kernel.getTeam(BattleKernel.PLAYER2),
+                isPlayer1Turn()),
+                player1.getPlayerName(), player2.getPlayerName(), stateFor(true));
+    }
 
-        // Verificar turno
-        if (getCurrentPlayer() != player) {
-            player.sendMessage(MessageType.ERROR, "Server", "Não é seu turno!");
+    /**
+     * Agenda o prazo do turno atual (substitui o anterior)
+     */
+    private void armTurnTimer() {
+        turnStartedAt = System.currentTimeMillis();
+        cancelTurnTimer();
+        if (timer == null) {
             return;
         }
 
-        // Obter Pokémon atacante e defensor
-        PokemonBattleInstance attacker, defender;
-        String attackerName, defenderName;
+        int turn = kernel.getTurn();
+        turnTimeout = timer.newTimeout(() -> submit(() -> onTurnTimeout(turn)),
+                NetworkConstants.BATTLE_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
 
-        if (player == player1) {
-            attacker = team1.get(player1ActiveIndex);
-            defender = team2.get(player2ActiveIndex);
-            attackerName = player1.getPlayerName();
-            defenderName = player2.getPlayerName();
-        } else {
-            attacker = team2.get(player2ActiveIndex);
-            defender = team1.get(player1ActiveIndex);
-            attackerName = player2.getPlayerName();
-            defenderName = player1.getPlayerName();
+    private void cancelTurnTimer() {
+        if (turnTimeout != null) {
+            turnTimeout.cancel();
+            turnTimeout = null;
         }
+    }
 
-        // Verificar se atacante não desmaiou
-        if (attacker.isFainted()) {
-            player.sendMessage(MessageType.ERROR, "Server", "Seu Pokémon desmaiou!");
+    /**
+     * Prazo do turno esgotado: o jogador da vez perde por inatividade
+     */
+    private void onTurnTimeout(int turn) {
+        if (turn != kernel.getTurn() || !active.get() || battleEnded) {
             return;
         }
 
-        // Obter movimento
-        Move move = attacker.getMove(moveIndex);
-        if (move == null) {
-            player.sendMessage(MessageType.INVALID_MOVE, "Server", "Movimento inválido!");
+        ClientHandler afk = getCurrentPlayer();
+        ClientHandler winner = getOpponent(afk);
+        String msg = afk.getPlayerName() + " não jogou a tempo e perdeu por inatividade.";
+        Log.info(LogCategory.SESSION, "⏰ {} (sessão {})", msg, sessionId);
+
+        player1.sendMessage(MessageType.NOTIFICATION, "Server", msg);
+        player2.sendMessage(MessageType.NOTIFICATION, "Server", msg);
+
+        endBattle(winner);
+    }
+
+    /**
+     * Executa movimento de um jogador - LÓGICA REAL DE BATALHA
+     */
+    public void executeMove(ClientHandler player, int moveIndex) {
+        if (!active.get() || battleEnded || frozen) {
+            return;
+        }
+        if (isAwaitingPlayers()) {
+            player.sendMessage(MessageType.NOTIFICATION, "Server", "Aguardando o oponente reconectar...");
             return;
         }
 
-        // === EXECUTAR MOVIMENTO COM DANO REAL ===
-        executeBattleMove(attacker, defender, move, attackerName, defenderName);
+        int side = player == player1 ? BattleKernel.PLAYER1 : BattleKernel.PLAYER2;
+        int opponentSide = 1 - side;
+        int attackerSlot = kernel.getActive(side);
+        int defenderSlot = kernel.getActive(opponentSide);
+
+        switch (kernel.apply(side, moveIndex)) {
+            case BattleKernel.APPLIED:
+                break;
+            case BattleKernel.NOT_YOUR_TURN:
+                player.sendMessage(MessageType.ERROR, "Server", "Não é seu turno!");
+                return;
+            case BattleKernel.ATTACKER_FAINTED:
+                player.sendMessage(MessageType.ERROR, "Server", "Seu Pokémon desmaiou!");
+                return;
+            case BattleKernel.INVALID_MOVE:
+                player.sendMessage(MessageType.INVALID_MOVE, "Server", "Movimento inválido!");
+                return;
+            case BattleKernel.NO_PP:
+                Move empty = kernel.getSpecies(side, attackerSlot).getMoves()[moveIndex];
+                player.sendMessage(MessageType.INVALID_MOVE, "Server", "Sem PP para " + empty.getName() + "!");
+                player.sendMessage(MessageType.MOVE_REQUEST, "Server", "Escolha outro movimento.");
+                return;
+            default:
+                return;
+        }
 
-        // Verificar se defensor desmaiou
-        if (defender.isFainted()) {
-            handlePokemonFainted(defender, player == player1 ? player2 : player1);
+        // === TRADUZIR OS EVENTOS DO KERNEL EM MENSAGENS ===
+        String moveResult = null;
+        List<String> faintMessages = Collections.emptyList();
+        Move move = null;
+        for (int i = 0; i < kernel.eventCount(); i++) {
+            long event = kernel.event(i);
+            switch (BattleKernel.eventType(event)) {
+                case BattleKernel.EVENT_MOVE:
+                    move = BattleKernel.moveOf(event);
+                    break;
+                case BattleKernel.EVENT_DAMAGE:
+                    moveResult = describeMove(side, attackerSlot, defenderSlot, move, BattleKernel.eventValue(event));
+                    break;
+                case BattleKernel.EVENT_FAINT:
+                    faintMessages = Collections.singletonList(faintMessage(opponentSide, BattleKernel.eventValue(event)));
+                    break;
+                default:
+                    break;
+            }
         }
 
-        // Alternar turno
-        currentPlayerTurn = !currentPlayerTurn;
+        // Resultado do turno em um único frame por jogador
+        boolean battleOver = checkBattleEnd();
+        sendTurnResult(moveResult, faintMessages, battleOver);
 
-        // Enviar estado atualizado
-        sendBattleState();
-
-        // Verificar fim da batalha
-        if (checkBattleEnd()) {
+        if (battleOver) {
             endBattle();
         } else {
-            // Próximo movimento
-            requestMove();
+            armTurnTimer();
+            replicate();
         }
     }
 
     /**
-     * Executa o movimento com cálculo real de dano
+     * Descrição do golpe (e registro no log XML) a partir do resultado do kernel
      */
-    private void executeBattleMove(PokemonBattleInstance attacker, PokemonBattleInstance defender,
-            Move move, String attackerName, String defenderName) {
-
-        // Calcular dano
-        int damage = defender.calculateDamageReceived(move, true);
-        int actualDamage = defender.takeDamage(damage);
+    private String describeMove(int side, int attackerSlot, int defenderSlot, Move move, int roll) {
+        int defenderSide = 1 - side;
+        ClientHandler attackerClient = side == BattleKernel.PLAYER1 ? player1 : player2;
+        String attackerName = attackerClient.getPlayerName();
+        String defenderName = (side == BattleKernel.PLAYER1 ? player2 : player1).getPlayerName();
+        String attackerSpecies = kernel.getSpecies(side, attackerSlot).getName();
+        String defenderSpecies = kernel.getSpecies(defenderSide, defenderSlot).getName();
+        int actualDamage = DamageCalculator.damageOf(roll);
+        int defenderHp = kernel.getHp(defenderSide, defenderSlot);
+        String detail = DamageCalculator.describe(roll, move, kernel.getSpecies(defenderSide, defenderSlot));
 
         // Criar mensagem de resultado
         String moveResult;
         if (actualDamage > 0) {
-            moveResult = String.format("%s (%s) usou %s contra %s (%s) e causou %d de dano! "
+            moveResult = String.format("%s (%s) usou %s contra %s (%s) e causou %d de dano!%s "
                     + "HP restante: %d/%d",
-                    attacker.getSpecies().getName(), attackerName,
+                    attackerSpecies, attackerName,
                     move.getName(),
-                    defender.getSpecies().getName(), defenderName,
-                    actualDamage,
-                    defender.getCurrentHp(), defender.getMaxHp());
-        } else {
-            moveResult = String.format("%s (%s) usou %s, mas não causou dano.",
-                    attacker.getSpecies().getName(), attackerName,
+                    defenderSpecies, defenderName,
+                    actualDamage, detail,
+                    defenderHp, kernel.getMaxHp(defenderSide, defenderSlot));
+        } else if (DamageCalculator.isMiss(roll)) {
+            moveResult = String.format("%s (%s) usou %s, mas errou!",
+                    attackerSpecies, attackerName,
                     move.getName());
+        } else {
+            moveResult = String.format("%s (%s) usou %s, mas não causou dano.%s",
+                    attackerSpecies, attackerName,
+                    move.getName(), detail);
         }
         
         logTurnCounter++;
         if (battleLogger != null) {
-            ClientHandler attackerClient = attackerName.equals(player1.getPlayerName()) ? player1 : player2;
             BattleLogIntegration.logMove(
                 battleLogger,
                 logTurnCounter,
                 attackerClient,
-                attacker.getSpecies().getName(),
+                attackerSpecies,
                 move,
                 actualDamage,
-                defender.getCurrentHp(),
-                defender.getSpecies().getName()
+                defenderHp,
+                defenderSpecies
             );
         }
 
-        // Enviar resultado para ambos os jogadores
-        player1.sendMessage(MessageType.MOVE_RESULT, "Server", moveResult);
-        player2.sendMessage(MessageType.MOVE_RESULT, "Server", moveResult);
-
-        System.out.println("💥 " + moveResult);
+        Log.debug(LogCategory.SESSION, "💥 {}", moveResult);
+        return moveResult;
     }
 
     /**
-     * Lida com Pokémon que desmaiou
+     * Mensagem do desmaio (o kernel já trocou para o próximo Pokémon vivo)
      */
-    private void handlePokemonFainted(PokemonBattleInstance fainted, ClientHandler owner) {
-        String faintMsg = fainted.getSpecies().getName() + " (" + owner.getPlayerName() + ") desmaiou!";
-
-        player1.sendMessage(MessageType.POKEMON_FAINT, "Server", faintMsg);
-        player2.sendMessage(MessageType.POKEMON_FAINT, "Server", faintMsg);
+    private String faintMessage(int side, int slot) {
+        ClientHandler owner = side == BattleKernel.PLAYER1 ? player1 : player2;
+        String faintMsg = kernel.getSpecies(side, slot).getName() + " (" + owner.getPlayerName() + ") desmaiou!";
 
-        System.out.println("💀 " + faintMsg);
-
-        // Trocar para próximo Pokémon não desmaiado
-        if (owner == player1) {
-            player1ActiveIndex = findNextAlivePokemon(team1, player1ActiveIndex);
-        } else {
-            player2ActiveIndex = findNextAlivePokemon(team2, player2ActiveIndex);
-        }
-    }
-
-    /**
-     * Encontra próximo Pokémon vivo no time
-     */
-    private int findNextAlivePokemon(List<PokemonBattleInstance> team, int currentIndex) {
-        for (int i = 0; i < team.size(); i++) {
-            if (!team.get(i).isFainted()) {
-                return i;
-            }
-        }
-        return currentIndex; // Todos desmaiaram
+        Log.debug(LogCategory.SESSION, "💀 {}", faintMsg);
+        return faintMsg;
     }
 
     /**
      * Verifica se a batalha acabou
      */
     private boolean checkBattleEnd() {
-        boolean team1AllFainted = team1.stream().allMatch(PokemonBattleInstance::isFainted);
-        boolean team2AllFainted = team2.stream().allMatch(PokemonBattleInstance::isFainted);
-
-        boolean disconnected = !player1.isConnected() || !player2.isConnected();
-
-        return team1AllFainted || team2AllFainted || disconnected;
+        return kernel.isOver() || !player1.isConnected() || !player2.isConnected();
     }
 
     /**
@@ -266,42 +444,77 @@ public class GameSession {
             return;
         }
 
-        // Obter HP percentual dos Pokémon ativos
-        int hpP1 = team1.get(player1ActiveIndex).getHpPercentage();
-        int hpP2 = team2.get(player2ActiveIndex).getHpPercentage();
-
-        // Estado personalizado para cada jogador
-        BattleStateDTO stateP1 = new BattleStateDTO(hpP1, hpP2, player1ActiveIndex, player2ActiveIndex, currentPlayerTurn);
-        BattleStateDTO stateP2 = new BattleStateDTO(hpP2, hpP1, player2ActiveIndex, player1ActiveIndex, !currentPlayerTurn);
+        BattleStateDTO stateP1 = stateFor(true);
+        BattleStateDTO stateP2 = stateFor(false);
 
         player1.sendMessage(MessageType.BATTLE_STATE, "Server", stateP1);
         player2.sendMessage(MessageType.BATTLE_STATE, "Server", stateP2);
 
-        System.out.println("📊 Estado enviado - P1: " + hpP1 + "% HP, P2: " + hpP2 + "% HP");
+        Log.debug(LogCategory.SESSION, "📊 Estado enviado - P1: {}% HP, P2: {}% HP", stateP1.hpP1, stateP1.hpP2);
     }
 
     /**
-     * Solicita movimento do jogador atual
+     * Estado personalizado para um jogador (o "P1" do DTO é sempre quem recebe)
      */
-    private void requestMove() {
-        if (!active.get() || battleEnded) {
+    private BattleStateDTO stateFor(boolean forPlayer1) {
+        // HP percentual dos Pokémon ativos
+        int hpP1 = kernel.getActiveHpPercentage(BattleKernel.PLAYER1);
+        int hpP2 = kernel.getActiveHpPercentage(BattleKernel.PLAYER2);
+        int activeP1 = kernel.getActive(BattleKernel.PLAYER1);
+        int activeP2 = kernel.getActive(BattleKernel.PLAYER2);
+
+        if (forPlayer1) {
+            return new BattleStateDTO(hpP1, hpP2, activeP1, activeP2, isPlayer1Turn());
+        }
+        return new BattleStateDTO(hpP2, hpP1, activeP2, activeP1, !isPlayer1Turn());
+    }
+
+    /**
+     * Envia o resultado do turno: golpe, desmaios, novo estado e próxima jogada
+     * em um único TURN_RESULT por jogador (uma escrita em vez de até quatro)
+     */
+    private void sendTurnResult(String moveResult, List<String> faintMessages, boolean battleOver) {
+        if (!active.get()) {
             return;
         }
 
-        ClientHandler currentPlayer = getCurrentPlayer();
-        currentPlayer.sendMessage(MessageType.MOVE_REQUEST, "Server", "É sua vez de jogar!");
-        System.out.println("🎯 Solicitando movimento de: " + currentPlayer.getPlayerName());
+        BattleStateDTO stateP1 = stateFor(true);
+        BattleStateDTO stateP2 = stateFor(false);
+        boolean player1Next = !battleOver && isPlayer1Turn();
+        boolean player2Next = !battleOver && !isPlayer1Turn();
+
+        player1.sendMessage(MessageType.TURN_RESULT, "Server",
+                new TurnResult(moveResult, faintMessages, stateP1, player1Next, battleOver));
+        player2.sendMessage(MessageType.TURN_RESULT, "Server",
+                new TurnResult(moveResult, faintMessages, stateP2, player2Next, battleOver));
+        spectators.publish(new TurnResult(moveResult, faintMessages, stateP1, false, battleOver), stateP1);
+
+        Log.debug(LogCategory.SESSION, "📊 Turno enviado - P1: {}% HP, P2: {}% HP", stateP1.hpP1, stateP1.hpP2);
+        if (!battleOver) {
+            Log.debug(LogCategory.SESSION, "🎯 Solicitando movimento de: {}", getCurrentPlayer().getPlayerName());
+        }
     }
 
     private void endBattle() {
+        endBattle(null);
+    }
+
+    /**
+     * Finaliza a batalha; forcedWinner define o vencedor (ex.: W.O. por inatividade)
+     */
+    private void endBattle(ClientHandler forcedWinner) {
         battleEnded = true;
+        cancelTurnTimer();
 
         // Determinar vencedor baseado nos Pokémon vivos
         ClientHandler winner = null;
-        boolean team1HasAlive = team1.stream().anyMatch(p -> !p.isFainted());
-        boolean team2HasAlive = team2.stream().anyMatch(p -> !p.isFainted());
+        boolean team1HasAlive = kernel.hasAlive(BattleKernel.PLAYER1);
+        boolean team2HasAlive = kernel.hasAlive(BattleKernel.PLAYER2);
 
-        if (team1HasAlive && !team2HasAlive) {
+        if (forcedWinner != null) {
+            winner = forcedWinner;
+            kernel.forfeit(forcedWinner == player1 ? BattleKernel.PLAYER1 : BattleKernel.PLAYER2);
+        } else if (team1HasAlive && !team2HasAlive) {
             winner = player1;
         } else if (!team1HasAlive && team2HasAlive) {
             winner = player2;
@@ -311,23 +524,23 @@ public class GameSession {
             winner = player1;
         }
 
-        System.out.println("🏁 Batalha finalizada na sessão: " + sessionId);
+        Log.info(LogCategory.SESSION, "🏁 Batalha finalizada na sessão: {}", sessionId);
 
         if (winner != null) {
-            System.out.println("🏆 Vencedor: " + winner.getPlayerName());
+            Log.info(LogCategory.SESSION, "🏆 Vencedor: {}", winner.getPlayerName());
 
             ClientHandler loser = (winner == player1) ? player2 : player1;
 
             // Enviar resultado para ambos com tela de fim de jogo
             winner.sendMessage(MessageType.BATTLE_END, "Server",
-                    createBattleEndData(winner.getPlayerName(), loser.getPlayerName(), "Você venceu!", true));
+                    createBattleEndData(winner.getPlayerName(), opponentName(winner), "Você venceu!", true));
 
-            if (loser.isConnected()) {
+            if (loser != null && loser.isConnected()) {
                 loser.sendMessage(MessageType.BATTLE_END, "Server",
                         createBattleEndData(loser.getPlayerName(), winner.getPlayerName(), "Você perdeu!", false));
             }
         } else {
-            System.out.println("🤝 Batalha terminou em empate");
+            Log.info(LogCategory.SESSION, "🤝 Batalha terminou em empate");
 
             BattleEndData dataP1 = createBattleEndData(player1.getPlayerName(), player2.getPlayerName(), "Empate", false);
             BattleEndData dataP2 = createBattleEndData(player2.getPlayerName(), player1.getPlayerName(), "Empate", false);
@@ -336,14 +549,31 @@ public class GameSession {
             player2.sendMessage(MessageType.BATTLE_END, "Server", dataP2);
         }
         
-        if (battleLogger != null) {
-            String winnerName = (winner != null) ? winner.getPlayerName() : "Empate";
-            BattleLogIntegration.finalizeBattleLog(battleLogger, winnerName);
+        if (ratingService != null) {
+            if (winner != null) {
+                ratingService.recordWin(winner.getPlayerName(), opponentName(winner));
+            } else {
+                ratingService.recordDraw(player1.getPlayerName(), player2.getPlayerName());
+            }
+        }
+
+        // XML gravado e logs relidos na thread de I/O dos logs: o disco não
+        // bloqueia o loop, que é compartilhado com outras sessões
+        String winnerName = (winner != null) ? winner.getPlayerName() : "Empate";
+        BattleLogIntegration.finalizeBattleLogAsync(battleLogger, winnerName);
+        battleLogger = null; // O DOM agora pertence à thread de I/O
+
+        if (replication != null) {
+            replication.remove(sessionId); // Nada a retomar no standby
         }
+        spectators.finish(winner != null ? winner.getPlayerName() + " venceu!" : "Empate");
 
-        LogReader.readBattleLogs();
-        // NÃO encerrar sessão ainda - aguardar possível revanche
-        //endSession(); // Comentar esta linha
+        // NÃO encerrar sessão ainda - aguardar possível revanche (o SessionReaper
+        // fecha a sessão se ninguém pedir revanche dentro do prazo)
+        if (state == SessionState.ACTIVE) {
+            endedAt = System.currentTimeMillis();
+            state = SessionState.ENDED_AWAITING_REMATCH;
+        }
     }
 
 // Novo método para criar dados de fim de batalha
@@ -351,76 +581,173 @@ public class GameSession {
         return new BattleEndData(playerName, opponentName, result, isWinner);
     }
 
-// Novo método para reiniciar batalha (revanche)
-//    public void restartBattle() {
-//        if (!active.get()) {
-//            return;
-//        }
-//
-//        // Resetar estado da batalha
-//        battleEnded = false;
-//        currentPlayerTurn = new java.util.Random().nextBoolean();
-//
-//        // Reinicializar times (curar todos os Pokémon)
-//        for (PokemonBattleInstance pokemon : team1) {
-//            pokemon.fullHeal();
-//        }
-//        for (PokemonBattleInstance pokemon : team2) {
-//            pokemon.fullHeal();
-//        }
-//
-//        // Resetar índices ativos
-//        player1ActiveIndex = 0;
-//        player2ActiveIndex = 0;
-//
-//        System.out.println("🔄 Revanche iniciada na sessão: " + sessionId);
-//
-//        // Notificar início da revanche
-//        player1.sendMessage(MessageType.REMATCH_START, "Server", "Revanche iniciada!");
-//        player2.sendMessage(MessageType.REMATCH_START, "Server", "Revanche iniciada!");
-//
-//        // Começar nova batalha
-//        sendBattleState();
-//        requestMove();
-//    }
+
+    // === SNAPSHOT E RETOMADA ===
+
+    /**
+     * Grava o estado da batalha em andamento e congela a sessão (no loop da
+     * sessão). Retorna null se não há batalha a preservar.
+     */
+    SessionSnapshot.SessionRecord capture() {
+        if (!active.get() || !battleStarted || battleEnded || player1 == null || player2 == null) {
+            return null;
+        }
+        frozen = true;
+        cancelTurnTimer();
+        return record();
+    }
+
+    /**
+     * Envia o estado atual ao standby (no loop da sessão, após cada transição).
+     * Só o registro é montado aqui; a serialização fica na thread de replicação.
+     */
+    void replicate() {
+        if (replication == null || !active.get() || !battleStarted || battleEnded
+                || player1 == null || player2 == null) {
+            return;
+        }
+        replication.publish(record());
+    }
+
+    private SessionSnapshot.SessionRecord record() {
+        return new SessionSnapshot.SessionRecord(sessionId,
+                captureTeam(player1, BattleKernel.PLAYER1), captureTeam(player2, BattleKernel.PLAYER2),
+                kernel.getActive(BattleKernel.PLAYER1), kernel.getActive(BattleKernel.PLAYER2),
+                isPlayer1Turn(), kernel.getTurn(), logTurnCounter, seed);
+    }
+
+    private SessionSnapshot.PlayerRecord captureTeam(ClientHandler player, int side) {
+        List<Species> team = kernel.getTeam(side);
+        return new SessionSnapshot.PlayerRecord(player.getPlayerName(), player.getResumeToken(), team,
+                kernel.captureHp(side), kernel.getMoveState().capture(side, team.size()));
+    }
+
+    /**
+     * Religa um jogador que reconectou após o reinício (no loop da sessão).
+     * Quando os dois voltam, a batalha continua do turno gravado.
+     */
+    void resumePlayer(ClientHandler client, boolean asPlayer1) {
+        if (!active.get() || battleEnded) {
+            client.sendMessage(MessageType.NOTIFICATION, "Server", "A batalha anterior já foi encerrada.");
+            return;
+        }
+
+        if (asPlayer1) {
+            player1 = client;
+        } else {
+            player2 = client;
+        }
+        client.setCurrentSession(this);
+
+        int side = asPlayer1 ? BattleKernel.PLAYER1 : BattleKernel.PLAYER2;
+        client.sendMessage(MessageType.BATTLE_INIT, "Server",
+                new BattleInitPayload(kernel.getTeam(side), kernel.getTeam(1 - side), isCurrentPlayer(client)));
+        client.sendMessage(MessageType.BATTLE_START, "Server", "Batalha retomada");
+        client.sendMessage(MessageType.BATTLE_STATE, "Server", stateFor(asPlayer1));
+
+        if (isAwaitingPlayers()) {
+            client.sendMessage(MessageType.NOTIFICATION, "Server", "Aguardando o oponente reconectar...");
+            return;
+        }
+
+        resumeNames = null;
+        Log.info(LogCategory.SESSION, "▶️ Batalha retomada na sessão: {}", sessionId);
+        beginSpectating();
+        getCurrentPlayer().sendMessage(MessageType.MOVE_REQUEST, "Server", "É sua vez de jogar!");
+        armTurnTimer();
+        replicate();
+    }
+
+    /**
+     * Prazo de retomada esgotado (no loop da sessão). Quem voltou vence por W.O.;
+     * retorna true se ninguém voltou e a sessão deve ser removida.
+     */
+    boolean expireResume() {
+        if (!isAwaitingPlayers() || battleEnded) {
+            return false;
+        }
+
+        ClientHandler present = player1 != null ? player1 : player2;
+        if (present == null) {
+            Log.info(LogCategory.SESSION, "⌛ Ninguém retomou a sessão {}", sessionId);
+            endSession();
+            return true;
+        }
+
+        present.sendMessage(MessageType.NOTIFICATION, "Server",
+                opponentName(present) + " não reconectou a tempo. Você venceu por W.O.!");
+        endBattle(present);
+        return false;
+    }
+
+    private boolean isAwaitingPlayers() {
+        return resumeNames != null && (player1 == null || player2 == null);
+    }
+
+    /**
+     * Nome do oponente, mesmo que ele ainda não tenha reconectado
+     */
+    private String opponentName(ClientHandler player) {
+        ClientHandler opponent = getOpponent(player);
+        if (opponent != null) {
+            return opponent.getPlayerName();
+        }
+        return resumeNames != null ? resumeNames[player == player1 ? 1 : 0] : null;
+    }
+
     // === MÉTODOS DE UTILIDADE ===
     public boolean isCurrentPlayer(ClientHandler player) {
         if (player == player1) {
-            return currentPlayerTurn;
+            return isPlayer1Turn();
         } else if (player == player2) {
-            return !currentPlayerTurn;
+            return !isPlayer1Turn();
         }
         return false;
     }
 
+    private boolean isPlayer1Turn() {
+        return kernel.getCurrentSide() == BattleKernel.PLAYER1;
+    }
+
     private ClientHandler getCurrentPlayer() {
-        return currentPlayerTurn ? player1 : player2;
+        return isPlayer1Turn() ? player1 : player2;
     }
 
+    /**
+     * Se o jogador da vez já passou do prazo do turno
+     */
     public boolean shouldEndDueToInactivity() {
-        // Implementar lógica de timeout se necessário
-        return false;
+        return battleStarted && !battleEnded
+                && System.currentTimeMillis() - turnStartedAt > NetworkConstants.BATTLE_TIMEOUT;
     }
 
     public void endSession() {
         active.set(false);
         battleEnded = true;
-
-        if (player1 != null) {
-            player1.setCurrentSession(null);
+        state = SessionState.CLOSED;
+        battleLogger = null;
+        cancelTurnTimer();
+        if (replication != null) {
+            replication.remove(sessionId);
         }
-        if (player2 != null) {
-            player2.setCurrentSession(null);
+        spectators.finish("Batalha encerrada"); // Ignorado se o resultado já foi enviado
+
+        // O jogador pode já estar em outra sessão (sessão antiga fechada pelo reaper)
+        for (ClientHandler player : new ClientHandler[]{player1, player2}) {
+            if (player != null && player.getCurrentSession() == this) {
+                player.setCurrentSession(null);
+            }
         }
 
-        System.out.println("🔚 Sessão finalizada: " + sessionId);
+        Log.info(LogCategory.SESSION, "🔚 Sessão finalizada: {}", sessionId);
     }
 
     public void playerDisconnected(ClientHandler player) {
-        System.out.println("📤 Jogador desconectado da sessão: " + player.getPlayerName());
+        Log.info(LogCategory.SESSION, "📤 Jogador desconectado da sessão: {}", player.getPlayerName());
 
         ClientHandler otherPlayer = (player == player1) ? player2 : player1;
-        if (otherPlayer != null && otherPlayer.isConnected()) {
+        // Sessão congelada no snapshot: a batalha continua após o reinício
+        if (!frozen && otherPlayer != null && otherPlayer.isConnected()) {
             otherPlayer.sendMessage(MessageType.BATTLE_END, "Server", otherPlayer.getPlayerName());
             otherPlayer.sendMessage(MessageType.NOTIFICATION, "Server",
                     "Seu oponente desconectou. Você venceu por W.O.!");
@@ -431,7 +758,7 @@ public class GameSession {
     
     public void notifyRematchDisconnected(ClientHandler disconnectedPlayer) {
     ClientHandler waitingPlayer = getOpponent(disconnectedPlayer);
-    if (waitingPlayer != null && waitingPlayer.isConnected()) {
+    if (!frozen && waitingPlayer != null && waitingPlayer.isConnected()) {
         // Envia recusa explícita de revanche para quem estava esperando
         waitingPlayer.sendMessage(network.MessageType.REMATCH_RESPONSE, "Server", false);
     }
@@ -442,6 +769,13 @@ public class GameSession {
         return sessionId;
     }
 
+    /**
+     * Semente do gerador da batalha (registrada no log para reproduzir a partida)
+     */
+    public long getSeed() {
+        return seed;
+    }
+
     public ClientHandler getPlayer1() {
         return player1;
     }
@@ -462,6 +796,21 @@ public class GameSession {
         return battleEnded;
     }
 
+    public SpectatorHub getSpectators() {
+        return spectators;
+    }
+
+    public SessionState getState() {
+        return state;
+    }
+
+    /**
+     * Sessão encerrada aguardando revanche há mais de retentionMillis
+     */
+    boolean isRetentionExpired(long now, long retentionMillis) {
+        return state == SessionState.ENDED_AWAITING_REMATCH && now - endedAt >= retentionMillis;
+    }
+
     public boolean hasPlayer(ClientHandler player) {
         return player == player1 || player == player2;
     }
@@ -0,0 +1,69 @@
+package server;
+
+import network.ClusterNodeInfo;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anel de hash consistente com nós virtuais. Imutável: um novo anel é montado
+ * a cada mudança de membros, e a troca de um nó só move as chaves dele.
+ */
+public class HashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final TreeMap<Long, ClusterNodeInfo> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    public HashRing(Collection<ClusterNodeInfo> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public HashRing(Collection<ClusterNodeInfo> nodes, int virtualNodes) {
+        for (ClusterNodeInfo node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node.getNodeId() + "#" + i), node);
+            }
+        }
+        this.nodeCount = nodes.size();
+    }
+
+    public static HashRing empty() {
+        return new HashRing(Collections.emptyList());
+    }
+
+    /**
+     * Nó dono da chave (primeiro ponto do anel no sentido horário), ou null se vazio
+     */
+    public ClusterNodeInfo nodeFor(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, ClusterNodeInfo> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * FNV-1a de 64 bits com a mistura final do MurmurHash3 (espalha chaves parecidas)
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,243 @@
+package server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timer de roda (hashed wheel) para prazos do servidor: turno, seleção de time,
+ * heartbeat e revanche. Uma única thread avança a roda a cada tick.
+ *
+ * Inserir e cancelar são O(1): novos prazos entram em uma fila e são colocados
+ * no slot pela thread da roda; cancelamentos só marcam o prazo e o removem da
+ * lista do slot no próximo tick. A precisão é de um tick.
+ *
+ * As tarefas rodam na thread do timer e devem ser curtas (normalmente apenas
+ * enfileiram um comando na sessão ou no cliente).
+ */
+public class HashedWheelTimer {
+
+    public static final long DEFAULT_TICK_MILLIS = 100;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Prazo agendado; cancel() pode ser chamado de qualquer thread
+     */
+    public final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // Lista duplamente ligada do slot (acessada apenas pela thread da roda)
+        private long remainingRounds;
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancela o prazo; retorna false se ele já expirou ou foi cancelado
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            pendingCount.decrementAndGet();
+            cancelled.offer(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(PENDING, EXPIRED)) {
+                return;
+            }
+            pendingCount.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Erro em tarefa do timer: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Slot da roda: lista duplamente ligada de prazos
+     */
+    private static final class Slot {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.slot = null;
+        }
+    }
+
+    private final long tickNanos;
+    private final Slot[] wheel;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicLong currentTick = new AtomicLong();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+
+    public HashedWheelTimer() {
+        this("HashedWheelTimer", DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public HashedWheelTimer(String name, long tickMillis, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+
+        // Tamanho em potência de 2 para indexar com máscara
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Slot();
+        }
+        this.mask = size - 1;
+
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Agenda a tarefa para daqui a delay
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        long elapsed = System.nanoTime() - startTime;
+        // Arredonda para cima: o prazo nunca dispara antes do pedido
+        long deadlineTick = (elapsed + unit.toNanos(Math.max(0, delay)) + tickNanos - 1) / tickNanos;
+
+        Timeout timeout = new Timeout(task, deadlineTick);
+        pendingCount.incrementAndGet();
+        added.offer(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            waitForTick(tick + 1);
+            if (!running) {
+                break;
+            }
+            tick++;
+            currentTick.set(tick);
+
+            removeCancelled();
+            transferAdded(tick);
+            expireSlot(wheel[(int) (tick & mask)]);
+        }
+    }
+
+    private void waitForTick(long tick) {
+        long deadline = startTime + tick * tickNanos;
+        while (running) {
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos <= 0) {
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.slot != null) {
+                timeout.slot.remove(timeout);
+            }
+        }
+    }
+
+    private void transferAdded(long tick) {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            // Prazo já vencido: vai para o slot atual
+            long target = Math.max(timeout.deadlineTick, tick);
+            timeout.remainingRounds = (target - tick) / wheel.length;
+            wheel[(int) (target & mask)].add(timeout);
+        }
+    }
+
+    private void expireSlot(Slot slot) {
+        Timeout timeout = slot.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.isCancelled()) {
+                slot.remove(timeout);
+            } else if (timeout.remainingRounds <= 0) {
+                slot.remove(timeout);
+                timeout.expire();
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Quantidade de prazos ainda não expirados nem cancelados
+     */
+    public int getPendingTimeouts() {
+        return pendingCount.get();
+    }
+
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+}
@@ -0,0 +1,233 @@
+package server;
+
+import network.LobbyUpdate;
+import network.MessageType;
+import network.NetworkConstants;
+import network.SharedFrame;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Presença e chat do lobby. Entradas, saídas e chat se acumulam e saem a cada
+ * LOBBY_TICK em um único LOBBY_UPDATE, codificado uma vez ({@link SharedFrame})
+ * e enfileirado para todos os presentes: o custo por tick é um encode e uma
+ * escrita por jogador, independente de quantos eventos houve.
+ *
+ * Quem entra recebe a lista do último tick (PLAYER_LIST, também compartilhada
+ * até o próximo tick) e, no tick seguinte, a diferença desde ela.
+ */
+public class Lobby {
+
+    /**
+     * Jogador presente e o limite do chat dele
+     */
+    private static final class Member {
+        final ClientHandler client;
+        long windowStart;
+        int sentInWindow;
+
+        Member(ClientHandler client) {
+            this.client = client;
+        }
+    }
+
+    private final HashedWheelTimer timer;
+    private final Object lock = new Object();
+
+    // Presentes, por nome (ordem de entrada)
+    private final Map<String, Member> members = new LinkedHashMap<>();
+
+    // Diferença desde o último tick; entrar e sair no mesmo tick se anulam
+    private final Set<String> joined = new LinkedHashSet<>();
+    private final Set<String> left = new LinkedHashSet<>();
+    private final ArrayDeque<String[]> chat = new ArrayDeque<>();
+
+    // Lista do último tick (nomes) e o frame dela, gerado no primeiro pedido
+    private List<String> lastList = new ArrayList<>();
+    private SharedFrame lastListFrame;
+
+    private volatile HashedWheelTimer.Timeout nextTick;
+    private volatile boolean stopped = false;
+
+    private long ticks;
+    private long updatesSent;
+    private long chatDropped;
+
+    public Lobby(HashedWheelTimer timer) {
+        this.timer = timer;
+    }
+
+    public void start() {
+        schedule();
+    }
+
+    public void stop() {
+        stopped = true;
+        HashedWheelTimer.Timeout timeout = nextTick;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void schedule() {
+        if (!stopped) {
+            nextTick = timer.newTimeout(this::tick, NetworkConstants.LOBBY_TICK, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // === PRESENÇA ===
+
+    /**
+     * Jogador entrou no lobby (repetir não tem efeito)
+     */
+    public void join(ClientHandler client) {
+        String name = client.getPlayerName();
+        if (name == null) {
+            return;
+        }
+        synchronized (lock) {
+            Member previous = members.put(name, new Member(client));
+            if (previous != null && previous.client == client) {
+                members.put(name, previous);
+                return;
+            }
+            if (!left.remove(name)) {
+                joined.add(name);
+            }
+            if (lastListFrame == null) {
+                lastListFrame = new SharedFrame(MessageType.PLAYER_LIST, "Server", LobbyUpdate.fullList(lastList));
+            }
+            client.sendFrame(lastListFrame);
+        }
+    }
+
+    /**
+     * Jogador saiu (desconectou ou pediu PLAYER_LEAVE)
+     */
+    public void leave(ClientHandler client) {
+        String name = client.getPlayerName();
+        if (name == null) {
+            return;
+        }
+        synchronized (lock) {
+            Member member = members.get(name);
+            if (member == null || member.client != client) {
+                return; // Outra conexão com o mesmo nome já ocupa o lugar
+            }
+            members.remove(name);
+            if (!joined.remove(name)) {
+                left.add(name);
+            }
+        }
+    }
+
+    // === CHAT ===
+
+    /**
+     * Mensagem de chat; false se o jogador passou do limite (ou não está no lobby)
+     */
+    public boolean chat(ClientHandler client, String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return true;
+        }
+        text = text.trim();
+        if (text.length() > NetworkConstants.LOBBY_CHAT_MAX_LENGTH) {
+            text = text.substring(0, NetworkConstants.LOBBY_CHAT_MAX_LENGTH);
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            Member member = members.get(client.getPlayerName());
+            if (member == null || member.client != client) {
+                return false;
+            }
+            if (now - member.windowStart >= NetworkConstants.LOBBY_CHAT_WINDOW) {
+                member.windowStart = now;
+                member.sentInWindow = 0;
+            }
+            if (member.sentInWindow >= NetworkConstants.LOBBY_CHAT_BURST) {
+                return false;
+            }
+            member.sentInWindow++;
+
+            if (chat.size() >= NetworkConstants.LOBBY_CHAT_BACKLOG) {
+                chat.pollFirst(); // Lobby inundado: as mais antigas são descartadas
+                chatDropped++;
+            }
+            chat.addLast(new String[]{client.getPlayerName(), text});
+        }
+        return true;
+    }
+
+    // === TICK ===
+
+    /**
+     * Envia a diferença acumulada para todos os presentes em um único frame
+     */
+    private void tick() {
+        try {
+            SharedFrame update;
+            List<ClientHandler> recipients;
+            synchronized (lock) {
+                ticks++;
+                if (joined.isEmpty() && left.isEmpty() && chat.isEmpty()) {
+                    return;
+                }
+
+                List<String> lines = new ArrayList<>();
+                for (int i = 0; i < NetworkConstants.LOBBY_CHAT_PER_TICK && !chat.isEmpty(); i++) {
+                    String[] line = chat.pollFirst();
+                    lines.add(line[0]);
+                    lines.add(line[1]);
+                }
+                update = new SharedFrame(MessageType.LOBBY_UPDATE, "Server",
+                        new LobbyUpdate(new ArrayList<>(joined), new ArrayList<>(left), lines));
+
+                if (!joined.isEmpty() || !left.isEmpty()) {
+                    lastList = new ArrayList<>(members.keySet());
+                    lastListFrame = null;
+                }
+                joined.clear();
+                left.clear();
+
+                recipients = new ArrayList<>(members.size());
+                for (Member member : members.values()) {
+                    recipients.add(member.client);
+                }
+                updatesSent += recipients.size();
+            }
+
+            // Fora do lock: só enfileira o mesmo frame em cada conexão
+            for (ClientHandler client : recipients) {
+                client.sendFrame(update);
+            }
+
+        } catch (RuntimeException e) {
+            Log.error(LogCategory.SERVER, "❌ Erro no tick do lobby: {}", e.getMessage());
+        } finally {
+            schedule();
+        }
+    }
+
+    public int getMemberCount() {
+        synchronized (lock) {
+            return members.size();
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return String.format("Lobby{members=%d, ticks=%d, updatesSent=%d, chatDropped=%d}",
+                    members.size(), ticks, updatesSent, chatDropped);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entrada de um jogador na fila de matchmaking.
+ * O estado é trocado apenas por CAS: um ticket só pode ser reivindicado
+ * por um emparelhamento, mesmo com vários jogadores procurando ao mesmo tempo.
+ */
+public class MatchTicket {
+
+    static final int WAITING = 0;   // Na fila, disponível
+    static final int CLAIMING = 1;  // Reservado por um emparelhamento em andamento
+    static final int MATCHED = 2;   // Emparelhado
+    static final int CANCELLED = 3; // Jogador saiu da fila
+
+    private final ClientHandler client;
+    private final long sequence;
+    private final int rating;
+    private final long enqueuedAt;
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+
+    MatchTicket(ClientHandler client, long sequence) {
+        this(client, sequence, RatingService.DEFAULT_RATING);
+    }
+
+    MatchTicket(ClientHandler client, long sequence, int rating) {
+        this.client = client;
+        this.sequence = sequence;
+        this.rating = rating;
+        this.enqueuedAt = System.currentTimeMillis();
+    }
+
+    boolean tryClaim() {
+        return state.compareAndSet(WAITING, CLAIMING);
+    }
+
+    void release() {
+        state.compareAndSet(CLAIMING, WAITING);
+    }
+
+    void matched() {
+        state.set(MATCHED);
+    }
+
+    /**
+     * Tira o ticket da fila; se estiver sendo reservado, aguarda o resultado
+     */
+    boolean cancel() {
+        while (true) {
+            int current = state.get();
+            if (current == WAITING && state.compareAndSet(WAITING, CANCELLED)) {
+                return true;
+            }
+            if (current == MATCHED || current == CANCELLED) {
+                return false;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    boolean isWaiting() {
+        return state.get() == WAITING;
+    }
+
+    boolean isDone() {
+        int current = state.get();
+        return current == MATCHED || current == CANCELLED;
+    }
+
+    public ClientHandler getClient() {
+        return client;
+    }
+
+    /**
+     * Ordem de chegada na fila (FIFO)
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Rating do jogador no momento em que entrou na fila
+     */
+    public int getRating() {
+        return rating;
+    }
+
+    public long getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    /**
+     * Tempo de espera na fila em milissegundos
+     */
+    public long getWaitMillis() {
+        return System.currentTimeMillis() - enqueuedAt;
+    }
+}
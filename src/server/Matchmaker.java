@@ -0,0 +1,70 @@
+package server;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fila de matchmaking: recebe jogadores com time pronto e forma os pares.
+ */
+public interface Matchmaker {
+
+    /**
+     * Par formado pela fila
+     */
+    final class Pairing {
+        private final ClientHandler waiting;
+        private final ClientHandler incoming;
+
+        Pairing(ClientHandler waiting, ClientHandler incoming) {
+            this.waiting = waiting;
+            this.incoming = incoming;
+        }
+
+        /**
+         * Jogador que já estava aguardando na fila
+         */
+        public ClientHandler getWaiting() {
+            return waiting;
+        }
+
+        /**
+         * Jogador cuja entrada na fila completou o par
+         */
+        public ClientHandler getIncoming() {
+            return incoming;
+        }
+    }
+
+    /**
+     * Coloca o jogador na fila. Retorna o par formado (com este jogador) ou null
+     * se ele ficou aguardando; nesse caso o par será formado por quem chegar depois.
+     */
+    Pairing enqueue(ClientHandler client);
+
+    /**
+     * Remove o jogador da fila (desconexão). Retorna true se ele estava aguardando.
+     */
+    boolean cancel(ClientHandler client);
+
+    /**
+     * Quantidade de jogadores aguardando
+     */
+    int getWaitingCount();
+
+    MatchmakingStats getStats();
+
+    /**
+     * Jogadores aguardando no momento, do mais antigo ao mais novo (snapshot)
+     */
+    List<ClientHandler> waitingClients();
+
+    /**
+     * Recebe pares formados fora de enqueue (ex.: quando a janela de rating
+     * de quem aguarda se alarga com o tempo)
+     */
+    default void setMatchListener(Consumer<Pairing> listener) {
+    }
+
+    default void shutdown() {
+    }
+}
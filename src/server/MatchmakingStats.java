@@ -0,0 +1,59 @@
+package server;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas do matchmaking: tempo de espera na fila e diferença de rating dos pares.
+ */
+public class MatchmakingStats {
+
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder waitMillis = new LongAdder();
+    private final LongAccumulator maxWaitMillis = new LongAccumulator(Math::max, 0);
+    private final LongAdder ratingSpread = new LongAdder();
+    private final LongAccumulator maxRatingSpread = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra um par formado (a espera é a do jogador que estava na fila)
+     */
+    void recordMatch(MatchTicket waiting, MatchTicket incoming) {
+        long wait = waiting.getWaitMillis();
+        long spread = Math.abs(waiting.getRating() - incoming.getRating());
+
+        matches.increment();
+        waitMillis.add(wait);
+        maxWaitMillis.accumulate(wait);
+        ratingSpread.add(spread);
+        maxRatingSpread.accumulate(spread);
+    }
+
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = getMatches();
+        return count > 0 ? (double) waitMillis.sum() / count : 0.0;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis.get();
+    }
+
+    public double getAverageRatingSpread() {
+        long count = getMatches();
+        return count > 0 ? (double) ratingSpread.sum() / count : 0.0;
+    }
+
+    public long getMaxRatingSpread() {
+        return maxRatingSpread.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MatchmakingStats{matches=%d, wait=%.0f ms avg/%d ms max, spread=%.0f avg/%d max}",
+                getMatches(), getAverageWaitMillis(), getMaxWaitMillis(),
+                getAverageRatingSpread(), getMaxRatingSpread());
+    }
+}
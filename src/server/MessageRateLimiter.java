@@ -0,0 +1,96 @@
+package server;
+
+import network.MessageType;
+
+/**
+ * Baldes de fichas de uma conexão, um por tipo de mensagem, conforme a
+ * {@link RateLimitPolicy}. A verificação só faz contas sobre arrays criados
+ * junto com a conexão: nenhuma alocação por mensagem.
+ *
+ * Usado apenas pela thread que lê a conexão (leitor bloqueante ou loop NIO),
+ * por isso não sincroniza.
+ */
+public class MessageRateLimiter {
+
+    /**
+     * Decisão para uma mensagem recebida
+     */
+    public enum Verdict {
+        ACCEPT, // Dentro do orçamento: segue para o dispatch
+        DROP,   // Sem fichas: descartada
+        KICK    // Descartada e a conexão passou do limite de descartes
+    }
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final RateLimitPolicy policy;
+    private final double[] tokens;
+    private final long[] lastRefill;
+
+    // Descartes na janela atual (para desconectar quem insiste)
+    private long windowStart;
+    private int droppedInWindow;
+    private long dropped;
+
+    public MessageRateLimiter(RateLimitPolicy policy) {
+        this.policy = policy;
+        int types = MessageType.values().length;
+        this.tokens = new double[types];
+        this.lastRefill = new long[types];
+
+        long now = System.nanoTime();
+        for (MessageType type : MessageType.values()) {
+            tokens[type.ordinal()] = policy.getBurst(type);
+            lastRefill[type.ordinal()] = now;
+        }
+    }
+
+    /**
+     * Gasta uma ficha do balde do tipo, se houver
+     */
+    public Verdict check(MessageType type) {
+        double rate = policy.getRatePerSecond(type);
+        if (rate <= 0) {
+            return Verdict.ACCEPT;
+        }
+
+        int i = type.ordinal();
+        long now = System.nanoTime();
+        double available = Math.min(policy.getBurst(type), tokens[i] + (now - lastRefill[i]) * rate / NANOS_PER_SECOND);
+        lastRefill[i] = now;
+
+        if (available >= 1) {
+            tokens[i] = available - 1;
+            return Verdict.ACCEPT;
+        }
+        tokens[i] = available;
+        return recordDrop(now);
+    }
+
+    private Verdict recordDrop(long now) {
+        dropped++;
+        long window = policy.getKickWindowMillis() * 1_000_000L;
+        if (droppedInWindow == 0 || now - windowStart >= window) {
+            windowStart = now;
+            droppedInWindow = 0;
+        }
+        droppedInWindow++;
+
+        int kickAfter = policy.getKickAfter();
+        return kickAfter > 0 && droppedInWindow >= kickAfter ? Verdict.KICK : Verdict.DROP;
+    }
+
+    /**
+     * Primeiro descarte da janela atual (para logar uma vez por janela)
+     */
+    public boolean isFirstDropInWindow() {
+        return droppedInWindow == 1;
+    }
+
+    /**
+     * Total de mensagens descartadas nesta conexão
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,75 @@
+package server;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Publica fotos das métricas a uma taxa fixa. Várias mudanças entre dois
+ * ciclos viram uma única notificação, e nada é enviado se nada mudou.
+ */
+public class MetricsPublisher {
+
+    private final Supplier<ServerMetrics.Snapshot> source;
+    private final long intervalMillis;
+    private final List<ServerMetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    // Última foto publicada (protegida por this)
+    private ServerMetrics.Snapshot last;
+
+    public MetricsPublisher(Supplier<ServerMetrics.Snapshot> source, long intervalMillis) {
+        this.source = source;
+        this.intervalMillis = intervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MetricsPublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::publish, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void addListener(ServerMetricsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ServerMetricsListener listener) {
+        listeners.remove(listener);
+    }
+
+    private synchronized void publish() {
+        ServerMetrics.Snapshot snapshot = source.get();
+        if (snapshot.sameAs(last)) {
+            return;
+        }
+        last = snapshot;
+
+        for (ServerMetricsListener listener : listeners) {
+            try {
+                listener.onSnapshot(snapshot);
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao publicar métricas: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Para o agendamento e publica a foto final (servidor parado)
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+        publish();
+    }
+
+    public ServerMetrics.Snapshot getLastSnapshot() {
+        synchronized (this) {
+            return last;
+        }
+    }
+}
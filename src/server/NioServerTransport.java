@@ -0,0 +1,50 @@
+package server;
+
+import network.NioConnection;
+import network.NioEventLoop;
+import network.OutboundPolicy;
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Transporte NIO do servidor: um número fixo de loops de eventos,
+ * com as conexões aceitas distribuídas entre eles em round-robin.
+ */
+public class NioServerTransport {
+
+    private final NioEventLoop[] loops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final OutboundPolicy outboundPolicy;
+
+    public NioServerTransport(int ioThreads, OutboundPolicy outboundPolicy) throws IOException {
+        this.outboundPolicy = outboundPolicy;
+        this.loops = new NioEventLoop[ioThreads];
+        for (int i = 0; i < ioThreads; i++) {
+            loops[i] = new NioEventLoop("NioEventLoop-" + i);
+        }
+    }
+
+    public void start() {
+        for (NioEventLoop loop : loops) {
+            loop.start();
+        }
+        Log.info(LogCategory.SERVER, "⚙️ Transporte NIO com {} thread(s) de I/O", loops.length);
+    }
+
+    /**
+     * Cria a conexão para um canal aceito (ainda não registrada no loop)
+     */
+    public NioConnection wrap(SocketChannel channel) {
+        int index = Math.floorMod(nextLoop.getAndIncrement(), loops.length);
+        return new NioConnection(channel, loops[index], outboundPolicy);
+    }
+
+    public void shutdown() {
+        for (NioEventLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
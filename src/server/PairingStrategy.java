@@ -0,0 +1,21 @@
+package server;
+
+/**
+ * Regra que decide se dois tickets da fila podem formar uma partida.
+ * Deve ser barata e sem efeitos colaterais: é avaliada durante a busca.
+ */
+@FunctionalInterface
+public interface PairingStrategy {
+
+    /**
+     * Qualquer par de jogadores diferentes e conectados
+     */
+    PairingStrategy ANY = (waiting, incoming) ->
+            waiting.getClient() != incoming.getClient() && waiting.getClient().isConnected();
+
+    /**
+     * @param waiting ticket que já estava na fila
+     * @param incoming ticket que está procurando oponente
+     */
+    boolean canPair(MatchTicket waiting, MatchTicket incoming);
+}
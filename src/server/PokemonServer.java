@@ -1,50 +1,170 @@
 package server;
 
 import network.*;
+import java.io.File;
 import java.io.IOException;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import javax.swing.SwingUtilities;
+import logging.BattleLogIntegration;
+import logging.Log;
+import logging.LogCategory;
+import pokemon.Species;
 
 public class PokemonServer extends Thread {
 
     private final int port;
+    private final ServerConfig config;
     private ServerSocket serverSocket;
+    private ServerSocketChannel serverChannel;
+    private NioServerTransport nioTransport;
     private final AtomicBoolean running;
 
-    private final List<RematchRequest> pendingRequests;
-
     // Thread pool para gerenciar clientes
     private final ExecutorService clientThreadPool;
-    private final List<ClientHandler> clients;
-    private final List<GameSession> activeSessions;
 
-    private final Map<String, Set<String>> rematchRequests = new HashMap<>();
+    // Clientes e sessões indexados (clientId, nome, sessionId)
+    private final ServerRegistry registry;
+
+    // Fila de jogadores com time pronto aguardando oponente
+    private final RatingService ratingService;
+    private final Matchmaker matchmaker;
+
+    // Loops que executam os comandos das sessões
+    private final SessionWorkerPool sessionWorkers;
+
+    // Prazos: turno, seleção de time, heartbeat e revanche
+    private final HashedWheelTimer timer;
+
+    // Remove sessões encerradas (sem revanche dentro do prazo)
+    private final SessionReaper sessionReaper;
+
+    // Presença e chat do lobby, em lotes por tick
+    private final Lobby lobby;
+
+    // Lugares restaurados do snapshot, por nome, aguardando o jogador reconectar
+    private final ConcurrentMap<String, ResumeSlot> resumeSlots = new ConcurrentHashMap<>();
+
+    /**
+     * Lugar de um jogador restaurado: na sessão (session != null) ou na fila (team).
+     * No cluster, também o lugar de um jogador redirecionado para a partida matchId.
+     */
+    static final class ResumeSlot {
+        final String token;
+        final GameSession session;
+        final boolean asPlayer1;
+        final List<Species> team;
+        final String matchId;
+
+        ResumeSlot(String token, GameSession session, boolean asPlayer1, List<Species> team) {
+            this.token = token;
+            this.session = session;
+            this.asPlayer1 = asPlayer1;
+            this.team = team;
+            this.matchId = null;
+        }
+
+        ResumeSlot(String token, String matchId, List<Species> team) {
+            this.token = token;
+            this.session = null;
+            this.asPlayer1 = false;
+            this.team = team;
+            this.matchId = matchId;
+        }
+    }
+
+    // Modo cluster: fila global e hand-off para o nó dono da partida (null = nó único)
+    private final ClusterNode cluster;
+
+    // Replicação das sessões para o standby (primário) e espera pela falha dele (standby)
+    private final ReplicationSender replication;
+    private final StandbyReceiver standby;
+    private volatile RedirectInfo standbyAddress;
+    private SessionSnapshot failover; // Sessões recebidas antes da promoção
+
+    // Serviços repassados a cada sessão criada ou restaurada
+    private final GameSession.Options sessionOptions;
+
+    // sessionId -> jogadores que pediram revanche
+    private final ConcurrentMap<String, Set<String>> rematchRequests = new ConcurrentHashMap<>();
+
+    // Limite de admissão de clientes (independente do tipo de thread)
+    private final Semaphore admission;
 
-    // Interface gráfica do servidor (opcional)
-    private Object serverFrame; // Usando Object para evitar dependência circular
+    // Contadores dos caminhos quentes e publicação periódica (console gráfico)
+    private final ServerMetrics metrics = new ServerMetrics();
+    private final MetricsPublisher metricsPublisher;
 
     public PokemonServer() {
         this(NetworkConstants.DEFAULT_PORT);
     }
 
     public PokemonServer(int port) {
+        this(port, ServerConfig.fromSystemProperties());
+    }
+
+    public PokemonServer(int port, ServerConfig config) {
         this.port = port;
+        this.config = config;
         this.running = new AtomicBoolean(false);
-        this.clients = new ArrayList<>();
-        this.activeSessions = new ArrayList<>();
+        this.registry = new ServerRegistry();
+        this.sessionWorkers = new SessionWorkerPool(config.getSessionWorkers());
+        this.ratingService = new RatingService();
+        if (config.getMatchmaking() == ServerConfig.Matchmaking.RATING) {
+            this.matchmaker = new RatingMatchmaker(ratingService, PairingStrategy.ANY);
+        } else {
+            this.matchmaker = new FifoMatchmaker(PairingStrategy.ANY);
+        }
+        // Pares formados enquanto ambos aguardavam (janela de rating alargada)
+        this.matchmaker.setMatchListener(pairing -> pairing.getIncoming().startBattleWith(pairing.getWaiting()));
+
+        // Thread pool para clientes: threads virtuais ou pool fixo de plataforma
+        if (config.getExecution() == ServerConfig.Execution.VIRTUAL) {
+            this.clientThreadPool = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            this.clientThreadPool = Executors.newFixedThreadPool(config.getMaxClients());
+        }
+        this.admission = new Semaphore(config.getMaxClients());
+
+        this.metricsPublisher = new MetricsPublisher(this::metricsSnapshot,
+                NetworkConstants.METRICS_PUBLISH_INTERVAL);
+        this.timer = new HashedWheelTimer("ServerTimer-" + port,
+                HashedWheelTimer.DEFAULT_TICK_MILLIS, HashedWheelTimer.DEFAULT_WHEEL_SIZE);
+        this.sessionReaper = new SessionReaper(registry, timer, metrics, this::removeGameSession,
+                config.getSessionRetention(), NetworkConstants.SESSION_REAP_INTERVAL);
+        this.lobby = new Lobby(timer);
+
+        ClusterConfig clusterConfig = config.getCluster();
+        if (clusterConfig != null) {
+            String host = clusterConfig.getAdvertiseHost();
+            this.cluster = new ClusterNode(clusterConfig, new ClusterNodeInfo(host + ":" + port, host, port), timer);
+        } else {
+            this.cluster = null;
+        }
 
-        // Thread pool para clientes
-        this.clientThreadPool = Executors.newFixedThreadPool(NetworkConstants.MAX_CLIENTS);
+        ReplicationConfig replicationConfig = config.getReplication();
+        if (replicationConfig != null && replicationConfig.isPrimary()) {
+            this.replication = new ReplicationSender(replicationConfig.getStandbyHost(),
+                    replicationConfig.getStandbyPort(), metrics, this::resyncReplication, this::setStandbyAddress);
+        } else {
+            this.replication = null;
+        }
+        if (replicationConfig != null && replicationConfig.isStandby()) {
+            this.standby = new StandbyReceiver(replicationConfig.getListenPort(),
+                    replicationConfig.getAdvertiseHost(), port);
+        } else {
+            this.standby = null;
+        }
 
-        this.pendingRequests = new ArrayList<>();
+        this.sessionOptions = new GameSession.Options(ratingService, sessionWorkers, timer, replication,
+                config.getSpectatorDelay());
 
         setName("PokemonServer-" + port);
         setDaemon(false);
@@ -52,14 +172,34 @@ public class PokemonServer extends Thread {
 
     public boolean startServer() {
         try {
-            serverSocket = new ServerSocket(port, NetworkConstants.SERVER_BACKLOG);
+            if (config.getTransport() == ServerConfig.Transport.NIO) {
+                serverChannel = ServerSocketChannel.open();
+                serverChannel.bind(new InetSocketAddress(port), NetworkConstants.SERVER_BACKLOG);
+                nioTransport = new NioServerTransport(config.getIoThreads(), config.getOutboundPolicy());
+                nioTransport.start();
+            } else {
+                serverSocket = new ServerSocket(port, NetworkConstants.SERVER_BACKLOG);
+            }
             running.set(true);
+            restoreSnapshot();
+            if (failover != null) {
+                restoreSessions(failover, "Failover", System.nanoTime());
+                failover = null;
+            }
 
-            System.out.println("🎮 Servidor Pokémon iniciado na porta " + port);
+            System.out.println("🎮 Servidor Pokémon iniciado na porta " + port + " (" + config.getTransport() + ")");
             System.out.println("📡 Aguardando conexões de clientes...");
 
-            // Iniciar interface gráfica do servidor (se disponível)
-            updateServerFrameIfExists("Rodando na porta " + port, 0, 0);
+            // Publicar métricas para a interface gráfica (se houver listener)
+            metricsPublisher.start();
+            sessionReaper.start();
+            lobby.start();
+            if (cluster != null) {
+                cluster.start();
+            }
+            if (replication != null) {
+                replication.start();
+            }
 
             return true;
 
@@ -74,56 +214,123 @@ public class PokemonServer extends Thread {
      */
     @Override
     public void run() {
+        // Standby: só aceita clientes depois que o primário cair
+        if (standby != null) {
+            failover = standby.awaitFailover();
+            if (failover == null) {
+                return;
+            }
+        }
+
         if (!startServer()) {
             return;
         }
 
+        if (nioTransport != null) {
+            acceptNioClients();
+        } else {
+            acceptBlockingClients();
+        }
+
+        shutdown();
+    }
+
+    /**
+     * Aceita conexões no transporte bloqueante: uma thread por cliente
+     */
+    private void acceptBlockingClients() {
         while (running.get()) {
             try {
                 // Aceitar nova conexão
                 Socket clientSocket = serverSocket.accept();
 
                 // Verificar limite de clientes
-                if (clients.size() >= NetworkConstants.MAX_CLIENTS) {
+                if (!admission.tryAcquire()) {
+                    metrics.recordRejected();
                     rejectClient(clientSocket, "Servidor lotado");
                     continue;
                 }
 
                 // Criar handler para o cliente
                 ClientHandler clientHandler = new ClientHandler(clientSocket, this);
-
-                synchronized (clients) {
-                    clients.add(clientHandler);
-                }
+                registry.addClient(clientHandler);
 
                 // Executar handler no thread pool
                 clientThreadPool.execute(clientHandler);
 
-                System.out.println("✅ Nova conexão aceita: " + clientSocket.getRemoteSocketAddress());
-                updateServerStats();
+                metrics.recordAccepted();
+                Log.info(LogCategory.SERVER, "✅ Nova conexão aceita: {}", clientSocket.getRemoteSocketAddress());
 
             } catch (IOException e) {
                 if (running.get()) {
-                    System.err.println("Erro ao aceitar conexão: " + e.getMessage());
+                    Log.error(LogCategory.SERVER, "Erro ao aceitar conexão: {}", e.getMessage());
                 }
             }
         }
+    }
 
-        shutdown();
+    /**
+     * Aceita conexões no transporte NIO: os canais são entregues aos loops de
+     * eventos e as mensagens chegam ao ClientHandler pelos mesmos callbacks
+     */
+    private void acceptNioClients() {
+        while (running.get()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                NioConnection connection = nioTransport.wrap(channel);
+
+                // Verificar limite de clientes
+                if (!admission.tryAcquire()) {
+                    metrics.recordRejected();
+                    connection.start();
+                    connection.sendMessage(new Message(MessageType.ERROR, "Server", "Servidor lotado"));
+                    connection.disconnectAfterFlush();
+                    Log.info(LogCategory.SERVER, "❌ Cliente rejeitado: Servidor lotado");
+                    continue;
+                }
+
+                ClientHandler clientHandler = new ClientHandler(connection, this);
+                clientHandler.attach();
+                registry.addClient(clientHandler);
+
+                connection.start();
+
+                metrics.recordAccepted();
+                Log.info(LogCategory.SERVER, "✅ Nova conexão aceita: {}", connection.getRemoteAddress());
+
+            } catch (IOException e) {
+                if (running.get()) {
+                    Log.error(LogCategory.SERVER, "Erro ao aceitar conexão: {}", e.getMessage());
+                }
+            }
+        }
     }
 
     /**
      * Para o servidor
      */
     public void stopServer() {
-        running.set(false);
+        if (standby != null) {
+            standby.stop();
+        }
+        if (!running.getAndSet(false)) {
+            return;
+        }
+
+        // Sair do cluster: o coordenador deixa de mandar partidas para cá
+        if (cluster != null) {
+            cluster.stop();
+        }
+
+        // Gravar as batalhas antes de desconectar os jogadores
+        saveSnapshot();
+        if (replication != null) {
+            replication.shutdown();
+        }
 
         // Notificar todos os clientes
-        synchronized (clients) {
-            for (ClientHandler client : clients) {
-                client.disconnect();
-            }
-            clients.clear();
+        for (ClientHandler client : registry.clients()) {
+            client.disconnect();
         }
 
         // Fechar socket do servidor
@@ -131,10 +338,16 @@ public class PokemonServer extends Thread {
             if (serverSocket != null && !serverSocket.isClosed()) {
                 serverSocket.close();
             }
+            if (serverChannel != null && serverChannel.isOpen()) {
+                serverChannel.close();
+            }
         } catch (IOException e) {
             System.err.println("Erro ao fechar servidor: " + e.getMessage());
         }
 
+        // Logs de batalhas encerradas ainda sendo gravados
+        BattleLogIntegration.awaitPendingWrites(5000);
+
         System.out.println("🛑 Servidor Pokémon parado");
     }
 
@@ -142,6 +355,20 @@ public class PokemonServer extends Thread {
      * Shutdown completo
      */
     private void shutdown() {
+        // Parar loops de I/O
+        if (nioTransport != null) {
+            nioTransport.shutdown();
+        }
+        matchmaker.shutdown();
+        sessionReaper.stop();
+        lobby.stop();
+        sessionWorkers.shutdown();
+        timer.stop();
+        metricsPublisher.stop();
+        System.out.println("🎯 Matchmaking: " + matchmaker.getStats());
+        System.out.println("💬 " + lobby);
+        System.out.println("📈 " + metrics.snapshot(false, port, registry.getClientCount(), registry.getSessionCount()));
+
         // Parar thread pool
         clientThreadPool.shutdown();
         try {
@@ -153,104 +380,293 @@ public class PokemonServer extends Thread {
         }
 
         // Fechar sessões ativas
-        synchronized (activeSessions) {
-            for (GameSession session : activeSessions) {
-                session.endSession();
-            }
-            activeSessions.clear();
+        for (GameSession session : registry.sessions()) {
+            session.endSession();
         }
+        registry.clear();
 
         System.out.println("🔧 Servidor finalizado completamente");
     }
 
-// Modificar handleRematchRequest para rastrear ambos os jogadores
-    public void handleRematchRequest(ClientHandler requester, RematchRequest request) {
-        synchronized (activeSessions) {
-            GameSession session = findSessionByPlayer(requester);
-            if (session == null) {
-                requester.sendError("Sessão não encontrada");
-                return;
+    // === REINÍCIO A QUENTE ===
+
+    /**
+     * Congela as batalhas em andamento (cada uma no seu loop) e grava o
+     * snapshot junto com a fila de matchmaking
+     */
+    private void saveSnapshot() {
+        File file = config.getSnapshotFile();
+        if (file == null) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        List<GameSession> sessions = new ArrayList<>(registry.sessions());
+        SessionSnapshot.SessionRecord[] captured = new SessionSnapshot.SessionRecord[sessions.size()];
+        CountDownLatch done = new CountDownLatch(sessions.size());
+        for (int i = 0; i < sessions.size(); i++) {
+            int index = i;
+            GameSession session = sessions.get(i);
+            session.submit(() -> {
+                try {
+                    captured[index] = session.capture();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        try {
+            if (!done.await(2, TimeUnit.SECONDS)) {
+                System.err.println("⚠️ Snapshot incompleto: " + done.getCount() + " sessões não responderam");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<SessionSnapshot.SessionRecord> records = new ArrayList<>(captured.length);
+        for (SessionSnapshot.SessionRecord record : captured) {
+            if (record != null) {
+                records.add(record);
+            }
+        }
+
+        List<SessionSnapshot.PlayerRecord> queued = new ArrayList<>();
+        for (ClientHandler client : matchmaker.waitingClients()) {
+            if (client.getPlayerName() != null && client.getPlayerTeam() != null) {
+                queued.add(new SessionSnapshot.PlayerRecord(client.getPlayerName(), client.getResumeToken(),
+                        new ArrayList<>(client.getPlayerTeam()), new int[0], new byte[0]));
             }
+        }
 
-            ClientHandler opponent = session.getOpponent(requester);
-            if (opponent == null || !opponent.isConnected()) {
-                requester.sendMessage(MessageType.REMATCH_DECLINED, "Server",
-                        "Oponente não está mais conectado");
+        SessionSnapshot snapshot = new SessionSnapshot(records, queued);
+        try {
+            if (snapshot.isEmpty()) {
+                file.delete();
                 return;
             }
+            snapshot.save(file);
+            System.out.printf("💾 Snapshot gravado: %d batalhas, %d na fila, %d bytes em %.1f ms%n",
+                    records.size(), queued.size(), file.length(), (System.nanoTime() - start) / 1e6);
+        } catch (IOException e) {
+            System.err.println("❌ Erro ao gravar snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restaura batalhas e fila do snapshot; os jogadores têm RESUME_TIMEOUT
+     * para reconectar com nome + token de retomada
+     */
+    private void restoreSnapshot() {
+        File file = config.getSnapshotFile();
+        if (file == null || !file.exists()) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        SessionSnapshot snapshot;
+        try {
+            snapshot = SessionSnapshot.load(file);
+        } catch (IOException e) {
+            System.err.println("❌ Snapshot ignorado: " + e.getMessage());
+            return;
+        } finally {
+            // Um snapshot só vale para o reinício seguinte
+            file.delete();
+        }
+
+        restoreSessions(snapshot, "Snapshot", start);
+    }
+
+    /**
+     * Recria as batalhas (e a fila) de um snapshot ou do espelho do standby
+     */
+    private void restoreSessions(SessionSnapshot snapshot, String origin, long start) {
+        List<GameSession> restored = new ArrayList<>(snapshot.getSessions().size());
+        for (SessionSnapshot.SessionRecord record : snapshot.getSessions()) {
+            GameSession session;
+            try {
+                session = new GameSession(record, sessionOptions);
+            } catch (IllegalArgumentException e) {
+                Log.warn(LogCategory.SERVER, "⚠️ Sessão {} ignorada na restauração: {}", record.sessionId, e.getMessage());
+                continue;
+            }
+            registry.addSession(session);
+            resumeSlots.put(record.player1.name, new ResumeSlot(record.player1.resumeToken, session, true, null));
+            resumeSlots.put(record.player2.name, new ResumeSlot(record.player2.resumeToken, session, false, null));
+            restored.add(session);
+        }
+        for (SessionSnapshot.PlayerRecord player : snapshot.getQueued()) {
+            resumeSlots.put(player.name, new ResumeSlot(player.resumeToken, null, false, player.team));
+        }
+
+        timer.newTimeout(() -> expireResumeSlots(restored),
+                NetworkConstants.RESUME_TIMEOUT, TimeUnit.MILLISECONDS);
+
+        System.out.printf("♻️ %s restaurado: %d batalhas, %d na fila em %.1f ms%n",
+                origin, restored.size(), snapshot.getQueued().size(), (System.nanoTime() - start) / 1e6);
+    }
+
+    private void expireResumeSlots(List<GameSession> restored) {
+        resumeSlots.clear();
+        for (GameSession session : restored) {
+            session.submit(() -> {
+                if (session.expireResume()) {
+                    removeGameSession(session);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reserva o lugar restaurado se nome e token conferem (uso único)
+     */
+    ResumeSlot claimResume(String playerName, String token) {
+        if (playerName == null || token == null) {
+            return null;
+        }
+        ResumeSlot slot = resumeSlots.get(playerName);
+        if (slot == null && cluster != null) {
+            return cluster.claimHandoff(playerName, token);
+        }
+        if (slot == null || !MessageDigest.isEqual(slot.token.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8))) {
+            return null;
+        }
+        return resumeSlots.remove(playerName, slot) ? slot : null;
+    }
+
+    /**
+     * Nó dono de uma partida de outro nó do cluster (token de hand-off), ou null
+     */
+    RedirectInfo routeFor(String token) {
+        return cluster != null && token != null ? cluster.routeFor(token) : null;
+    }
+
+    /**
+     * Religa o cliente à batalha restaurada ou o devolve à fila com o time gravado
+     */
+    void completeResume(ClientHandler client, ResumeSlot slot) {
+        if (slot.matchId != null) {
+            cluster.arrive(slot.matchId, client);
+            return;
+        }
+        if (slot.session == null) {
+            client.restoreQueuedTeam(slot.team);
+            return;
+        }
+        registry.bindSessionPlayer(slot.session, client);
+        slot.session.submit(() -> slot.session.resumePlayer(client, slot.asPlayer1));
+    }
+
+// Modificar handleRematchRequest para rastrear ambos os jogadores
+    public void handleRematchRequest(ClientHandler requester, RematchRequest request) {
+        GameSession session = findSessionByPlayer(requester);
+        if (session == null) {
+            requester.sendError("Sessão não encontrada");
+            return;
+        }
+
+        // Processado no loop da sessão, em série com os demais comandos dela
+        session.submit(() -> processRematchRequest(requester, session));
+    }
 
-            String sessionId = session.getSessionId();
+    private void processRematchRequest(ClientHandler requester, GameSession session) {
+        if (session.getState() != SessionState.ENDED_AWAITING_REMATCH) {
+            requester.sendMessage(MessageType.REMATCH_DECLINED, "Server",
+                    "Revanche indisponível para esta sessão");
+            return;
+        }
+
+        ClientHandler opponent = session.getOpponent(requester);
+        if (opponent == null || !opponent.isConnected()) {
+            requester.sendMessage(MessageType.REMATCH_DECLINED, "Server",
+                    "Oponente não está mais conectado");
+            return;
+        }
 
-            // Inicializar set se não existir
-            rematchRequests.putIfAbsent(sessionId, new HashSet<>());
-            Set<String> requesters = rematchRequests.get(sessionId);
+        String sessionId = session.getSessionId();
 
-            // Adicionar solicitação do jogador atual
-            requesters.add(requester.getPlayerName());
+        // Set por sessão: pedidos de sessões diferentes não disputam o mesmo lock
+        Set<String> requesters = rematchRequests.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet());
 
-            System.out.println("🔄 Revanche solicitada por: " + requester.getPlayerName()
-                    + " (Sessão: " + sessionId + ")");
+        // Adicionar solicitação do jogador atual; o primeiro pedido agenda a expiração.
+        // Pedido repetido do mesmo jogador é ignorado (a expiração já está agendada).
+        if (!requesters.add(requester.getPlayerName())) {
+            return;
+        }
+        if (requesters.size() == 1) {
+            timer.newTimeout(() -> session.submit(() -> expireRematch(session, requesters)),
+                    NetworkConstants.REMATCH_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
 
-            // Verificar se ambos solicitaram
-            if (requesters.size() == 2) {
-                // Ambos solicitaram - iniciar processo de nova seleção
-                System.out.println("✅ Ambos jogadores solicitaram revanche! Iniciando nova seleção...");
+        Log.info(LogCategory.SESSION, "🔄 Revanche solicitada por: {} (Sessão: {})",
+                requester.getPlayerName(), sessionId);
 
-                // Limpar solicitações
-                rematchRequests.remove(sessionId);
+        // Verificar se ambos solicitaram (apenas quem remover o set inicia a revanche)
+        if (requesters.size() == 2 && rematchRequests.remove(sessionId, requesters)) {
+            // Ambos solicitaram - iniciar processo de nova seleção
+            Log.info(LogCategory.SESSION, "✅ Ambos jogadores solicitaram revanche! Iniciando nova seleção...");
 
-                // Encerrar sessão atual
-                session.endSession();
+            // Encerrar sessão atual
+            session.endSession();
+            removeGameSession(session);
 
-                // Resetar estado dos jogadores
-                requester.resetForRematch();
-                opponent.resetForRematch();
+            // Resetar estado dos jogadores
+            requester.resetForRematch();
+            opponent.resetForRematch();
 
-                // Enviar mensagem para ambos iniciarem nova seleção
-                requester.sendMessage(MessageType.TEAM_SELECTION_RESTART, "Server",
-                        "Revanche aceita! Escolha seus pokémon novamente.");
-                opponent.sendMessage(MessageType.TEAM_SELECTION_RESTART, "Server",
-                        "Revanche aceita! Escolha seus pokémon novamente.");
+            // Enviar mensagem para ambos iniciarem nova seleção
+            requester.sendMessage(MessageType.TEAM_SELECTION_RESTART, "Server",
+                    "Revanche aceita! Escolha seus pokémon novamente.");
+            opponent.sendMessage(MessageType.TEAM_SELECTION_RESTART, "Server",
+                    "Revanche aceita! Escolha seus pokémon novamente.");
 
-            } else {
-                // Apenas um solicitou - notificar que está aguardando o outro
-                requester.sendMessage(MessageType.NOTIFICATION, "Server",
-                        "Aguardando " + opponent.getPlayerName() + " também solicitar revanche...");
+        } else if (requesters.size() < 2) {
+            // Apenas um solicitou - notificar que está aguardando o outro
+            requester.sendMessage(MessageType.NOTIFICATION, "Server",
+                    "Aguardando " + opponent.getPlayerName() + " também solicitar revanche...");
 
-                // Notificar oponente que alguém quer revanche
-                opponent.sendMessage(MessageType.NOTIFICATION, "Server",
-                        requester.getPlayerName() + " quer revanche! Você também quer?");
-            }
+            // Notificar oponente que alguém quer revanche
+            opponent.sendMessage(MessageType.NOTIFICATION, "Server",
+                    requester.getPlayerName() + " quer revanche! Você também quer?");
         }
     }
 
     // Adicionar método para limpar solicitações quando jogador sai
     public void clearRematchRequests(String sessionId) {
-        synchronized (activeSessions) {
-            rematchRequests.remove(sessionId);
-        }
+        rematchRequests.remove(sessionId);
     }
 
-    private ClientHandler findClientByName(String playerName) {
-        synchronized (clients) {
-            return clients.stream()
-                    .filter(client -> client.getPlayerName().equals(playerName))
-                    .findFirst()
-                    .orElse(null);
-        }
+    /**
+     * Indexa o cliente pelo nome do jogador (após o CONNECT_REQUEST)
+     */
+    public void registerPlayerName(ClientHandler client) {
+        registry.bindName(client, client.getPlayerName());
     }
 
-    private GameSession findSessionByPlayer(ClientHandler player) {
-        return activeSessions.stream()
-                .filter(session -> session.hasPlayer(player))
-                .findFirst()
-                .orElse(null);
+    public ClientHandler findClientByName(String playerName) {
+        return registry.findClientByName(playerName);
     }
 
-// Limpeza periódica de solicitações expiradas
-    public void cleanupExpiredRequests() {
-        synchronized (activeSessions) {
-            pendingRequests.removeIf(RematchRequest::isExpired);
+    public GameSession findSessionByPlayer(ClientHandler player) {
+        return registry.findSessionByPlayer(player);
+    }
+
+    /**
+     * Pedido de revanche sem resposta do oponente dentro do prazo
+     */
+    private void expireRematch(GameSession session, Set<String> requesters) {
+        if (!rematchRequests.remove(session.getSessionId(), requesters)) {
+            return; // Revanche já iniciada ou sessão removida
+        }
+
+        Log.info(LogCategory.SESSION, "⏰ Revanche expirada na sessão: {}", session.getSessionId());
+        for (ClientHandler player : new ClientHandler[]{session.getPlayer1(), session.getPlayer2()}) {
+            if (requesters.contains(player.getPlayerName())) {
+                player.sendMessage(MessageType.REMATCH_DECLINED, "Server",
+                        "O oponente não respondeu ao pedido de revanche");
+            }
         }
     }
 
@@ -263,10 +679,12 @@ public class PokemonServer extends Thread {
             if (tempManager.initialize()) {
                 Message rejection = new Message(MessageType.ERROR, "Server", reason);
                 tempManager.sendMessage(rejection);
+                tempManager.disconnectAfterFlush();
+            } else {
+                clientSocket.close();
             }
-            clientSocket.close();
 
-            System.out.println("❌ Cliente rejeitado: " + reason);
+            Log.info(LogCategory.SERVER, "❌ Cliente rejeitado: {}", reason);
 
         } catch (IOException e) {
             // Ignorar erro na rejeição
@@ -277,43 +695,70 @@ public class PokemonServer extends Thread {
      * Remove cliente da lista
      */
     public void removeClient(ClientHandler client) {
-        synchronized (clients) {
-            clients.remove(client);
+        if (!registry.removeClient(client)) {
+            return;
+        }
+        admission.release();
+        metrics.recordClientRemoved();
+        matchmaker.cancel(client);
+        if (cluster != null) {
+            cluster.cancel(client);
+        }
+
+        // Sessão sem nenhum jogador conectado, ou encerrada (revanche impossível): remover do registro
+        GameSession session = registry.findSessionByPlayer(client);
+        if (session != null) {
+            ClientHandler opponent = session.getOpponent(client);
+            if (opponent == null || registry.findClientById(opponent.getClientId()) == null
+                    || session.getState() == SessionState.ENDED_AWAITING_REMATCH) {
+                session.submit(session::endSession);
+                removeGameSession(session);
+            }
         }
-        updateServerStats();
 
-        System.out.println("📤 Cliente removido. Total: " + clients.size());
+        Log.info(LogCategory.SERVER, "📤 Cliente removido. Total: {}", registry.getClientCount());
     }
 
     /**
-     * Procura oponente disponível para um jogador
+     * Coloca o jogador na fila de matchmaking.
+     * Retorna o oponente reivindicado para ele, ou null se ficou aguardando
+     * (o par será formado quando outro jogador entrar na fila).
      */
-    public ClientHandler findAvailableOpponent(ClientHandler player) {
-        synchronized (clients) {
-            for (ClientHandler client : clients) {
-                if (client != player
-                        && client.isConnected()
-                        && client.isTeamReady()
-                        && client.getCurrentSession() == null) {
-                    return client;
-                }
-            }
+    public ClientHandler requestOpponent(ClientHandler player) {
+        // No cluster o par é formado pelo coordenador (resposta chega em MATCH_ASSIGN)
+        if (cluster != null && cluster.isConnected()) {
+            cluster.enqueue(player);
+            return null;
+        }
+        Matchmaker.Pairing pairing = matchmaker.enqueue(player);
+        return pairing != null ? pairing.getWaiting() : null;
+    }
+
+    /**
+     * Espectador pede para assistir a batalha do jogador informado
+     */
+    void spectate(ClientHandler spectator, String playerName) {
+        ClientHandler player = playerName != null ? registry.findClientByName(playerName) : null;
+        GameSession session = player != null ? player.getCurrentSession() : null;
+        if (session == null || session.getState() != SessionState.ACTIVE
+                || !session.getSpectators().join(spectator)) {
+            spectator.sendMessage(MessageType.SPECTATE_END, "Server",
+                    "Nenhuma batalha em andamento de " + playerName);
+            return;
         }
-        return null;
+        spectator.setWatching(session.getSpectators());
     }
 
     /**
      * Cria nova sessão de jogo
      */
     public GameSession createGameSession(ClientHandler player1, ClientHandler player2) {
-        GameSession session = new GameSession(player1, player2);
+        GameSession session = new GameSession(player1, player2, config.nextBattleSeed(), sessionOptions);
 
-        synchronized (activeSessions) {
-            activeSessions.add(session);
-        }
+        registry.addSession(session);
 
-        System.out.println("🎲 Nova sessão de jogo criada: " + session.getSessionId());
-        updateServerStats();
+        metrics.recordSessionCreated();
+        Log.info(LogCategory.SESSION, "🎲 Nova sessão de jogo criada: {}", session.getSessionId());
         return session;
     }
 
@@ -321,94 +766,120 @@ public class PokemonServer extends Thread {
      * Remove sessão de jogo
      */
     public void removeGameSession(GameSession session) {
-        synchronized (activeSessions) {
-            activeSessions.remove(session);
+        if (!registry.removeSession(session)) {
+            return;
         }
+        rematchRequests.remove(session.getSessionId());
 
-        System.out.println("🏁 Sessão finalizada: " + session.getSessionId());
-        updateServerStats();
+        metrics.recordSessionEnded();
+        Log.info(LogCategory.SESSION, "🏁 Sessão finalizada: {}", session.getSessionId());
     }
 
+    // === REPLICAÇÃO ===
+
     /**
-     * Atualiza estatísticas do servidor
+     * Nova conexão com o standby: cada sessão republica o estado atual no seu loop
      */
-    private void updateServerStats() {
-        updateServerFrameIfExists(null, clients.size(), activeSessions.size());
+    private void resyncReplication() {
+        for (GameSession session : registry.sessions()) {
+            session.submit(session::replicate);
+        }
     }
 
     /**
-     * Atualiza interface do servidor se existir (usando reflection para evitar
-     * dependências)
+     * O standby anunciou o endereço de jogo: avisar os clientes já conectados
      */
-    private void updateServerFrameIfExists(String status, int clientCount, int sessionCount) {
-        if (serverFrame != null) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    if (status != null) {
-                        // serverFrame.setServerStatus(status);
-                        java.lang.reflect.Method setStatus = serverFrame.getClass().getMethod("setServerStatus", String.class);
-                        setStatus.invoke(serverFrame, status);
-                    }
-
-                    if (clientCount >= 0) {
-                        // serverFrame.updateClientCount(clientCount);
-                        java.lang.reflect.Method updateClient = serverFrame.getClass().getMethod("updateClientCount", int.class);
-                        updateClient.invoke(serverFrame, clientCount);
-                    }
-
-                    if (sessionCount >= 0) {
-                        // serverFrame.updateSessionCount(sessionCount);
-                        java.lang.reflect.Method updateSession = serverFrame.getClass().getMethod("updateSessionCount", int.class);
-                        updateSession.invoke(serverFrame, sessionCount);
-                    }
-
-                } catch (Exception e) {
-                    // Ignorar erros de reflection - interface opcional
-                }
-            });
+    private void setStandbyAddress(RedirectInfo address) {
+        standbyAddress = address;
+        for (ClientHandler client : registry.clients()) {
+            client.sendStandbyAddress();
         }
     }
 
+    RedirectInfo getStandbyAddress() {
+        return standbyAddress;
+    }
+
+    /**
+     * Foto das métricas com o estado atual (chamado pelo MetricsPublisher)
+     */
+    private ServerMetrics.Snapshot metricsSnapshot() {
+        return metrics.snapshot(running.get(), port, registry.getClientCount(), registry.getSessionCount());
+    }
+
     // Getters
     public int getPort() {
         return port;
     }
 
+    public ServerConfig getConfig() {
+        return config;
+    }
+
     public int getClientCount() {
-        synchronized (clients) {
-            return clients.size();
-        }
+        return registry.getClientCount();
     }
 
     public int getActiveSessionCount() {
-        synchronized (activeSessions) {
-            return activeSessions.size();
-        }
+        return registry.getSessionCount();
+    }
+
+    public ServerRegistry getRegistry() {
+        return registry;
+    }
+
+    public Matchmaker getMatchmaker() {
+        return matchmaker;
+    }
+
+    public Lobby getLobby() {
+        return lobby;
+    }
+
+    public RatingService getRatingService() {
+        return ratingService;
+    }
+
+    public HashedWheelTimer getTimer() {
+        return timer;
     }
 
     public boolean isRunning() {
         return running.get();
     }
 
-    // Setter para GUI
-    public void setServerFrame(Object serverFrame) {
-        this.serverFrame = serverFrame;
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Listener para GUI
+    public void addMetricsListener(ServerMetricsListener listener) {
+        metricsPublisher.addListener(listener);
     }
 
+    /**
+     * Ponto de entrada headless: nenhuma classe de server/ depende de gui/ ou
+     * javax.swing, então o AWT nunca é carregado
+     */
     public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
         int port = NetworkConstants.DEFAULT_PORT;
 
-        // Parse argumentos de linha de comando
-        if (args.length > 0) {
+        // Parse argumentos de linha de comando: [porta] [--nio]
+        for (String arg : args) {
+            if (arg.equals("--nio")) {
+                System.setProperty("pokemon.transport", "nio");
+                continue;
+            }
             try {
-                port = Integer.parseInt(args[0]);
+                port = Integer.parseInt(arg);
             } catch (NumberFormatException e) {
                 System.err.println("Porta inválida, usando padrão: " + NetworkConstants.DEFAULT_PORT);
             }
         }
 
         // Criar e iniciar servidor
-        PokemonServer server = new PokemonServer(port);
+        PokemonServer server = new PokemonServer(port, ServerConfig.fromSystemProperties());
 
         // Adicionar hook para shutdown gracioso
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
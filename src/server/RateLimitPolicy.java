@@ -0,0 +1,136 @@
+package server;
+
+import network.MessageType;
+
+/**
+ * Orçamento de mensagens por conexão e por tipo: cada tipo tem um balde de
+ * fichas com taxa (mensagens por segundo) e rajada (capacidade). Mensagens
+ * além do orçamento são descartadas antes do dispatch; quem passa de
+ * kickAfter descartes dentro de kickWindow ms é desconectado.
+ *
+ * Configurável por propriedades de sistema:
+ * -Dpokemon.ratelimit.TIPO=taxa/rajada (ex.: -Dpokemon.ratelimit.MOVE_EXECUTE=5/10),
+ * -Dpokemon.ratelimit.default=taxa/rajada (tipos sem orçamento próprio),
+ * -Dpokemon.ratelimit.kickAfter=N (0 nunca desconecta), -Dpokemon.ratelimit.kickWindowMs=ms
+ * e -Dpokemon.ratelimit.enabled=false. Taxa 0 deixa o tipo sem limite.
+ */
+public class RateLimitPolicy {
+
+    static final int DEFAULT_KICK_AFTER = 50;
+    static final long DEFAULT_KICK_WINDOW = 10000;
+
+    private static final MessageType[] TYPES = MessageType.values();
+
+    // Indexados pelo ordinal do tipo
+    private final double[] ratePerSecond = new double[TYPES.length];
+    private final int[] burst = new int[TYPES.length];
+    private final int kickAfter;
+    private final long kickWindowMillis;
+
+    private RateLimitPolicy(int kickAfter, long kickWindowMillis) {
+        this.kickAfter = Math.max(0, kickAfter);
+        this.kickWindowMillis = Math.max(1, kickWindowMillis);
+    }
+
+    /**
+     * Orçamentos padrão: folgados para um cliente normal (que manda no máximo
+     * algumas mensagens por turno), apertados para quem repete a mesma mensagem
+     */
+    public static RateLimitPolicy defaults() {
+        RateLimitPolicy policy = new RateLimitPolicy(DEFAULT_KICK_AFTER, DEFAULT_KICK_WINDOW);
+        for (MessageType type : TYPES) {
+            policy.set(type, 2, 5);
+        }
+        policy.set(MessageType.MOVE_EXECUTE, 5, 10);
+        policy.set(MessageType.HEARTBEAT, 1, 5);
+        policy.set(MessageType.CONNECT_REQUEST, 1, 3);
+        policy.set(MessageType.PLAYER_JOIN, 1, 3);
+        policy.set(MessageType.TEAM_SELECTION_COMPLETE, 1, 3);
+        policy.set(MessageType.TEAM_SELECTION_RESTART, 1, 3);
+        policy.set(MessageType.REMATCH_REQUEST, 1, 3);
+        policy.set(MessageType.REMATCH_RESPONSE, 1, 3);
+        policy.set(MessageType.REMATCH_START, 1, 3);
+        policy.set(MessageType.LOBBY_CHAT, 2, 5); // O lobby ainda aplica o limite de chat dele
+        return policy;
+    }
+
+    /**
+     * Sem limites (mensagens nunca são descartadas)
+     */
+    public static RateLimitPolicy unlimited() {
+        return new RateLimitPolicy(0, DEFAULT_KICK_WINDOW);
+    }
+
+    public static RateLimitPolicy fromSystemProperties() {
+        String enabled = System.getProperty("pokemon.ratelimit.enabled");
+        if (enabled != null && !Boolean.parseBoolean(enabled.trim())) {
+            return unlimited();
+        }
+
+        RateLimitPolicy defaults = defaults();
+        RateLimitPolicy policy = new RateLimitPolicy(
+                ServerConfig.parseInt(System.getProperty("pokemon.ratelimit.kickAfter"), DEFAULT_KICK_AFTER),
+                ServerConfig.parseInt(System.getProperty("pokemon.ratelimit.kickWindowMs"), (int) DEFAULT_KICK_WINDOW));
+
+        String fallback = System.getProperty("pokemon.ratelimit.default");
+        for (MessageType type : TYPES) {
+            int i = type.ordinal();
+            policy.set(type, defaults.ratePerSecond[i], defaults.burst[i]);
+            String value = System.getProperty("pokemon.ratelimit." + type.name(), fallback);
+            if (value != null) {
+                policy.parse(type, value);
+            }
+        }
+        return policy;
+    }
+
+    private void set(MessageType type, double rate, int capacity) {
+        ratePerSecond[type.ordinal()] = Math.max(0, rate);
+        burst[type.ordinal()] = Math.max(1, capacity);
+    }
+
+    private void parse(MessageType type, String value) {
+        String[] parts = value.trim().split("/");
+        try {
+            double rate = Double.parseDouble(parts[0].trim());
+            int capacity = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : (int) Math.ceil(rate);
+            set(type, rate, capacity);
+        } catch (NumberFormatException e) {
+            System.err.println("Limite inválido '" + value + "' para " + type + ", usando o padrão");
+        }
+    }
+
+    /**
+     * Mensagens por segundo do tipo (0 = sem limite)
+     */
+    public double getRatePerSecond(MessageType type) {
+        return ratePerSecond[type.ordinal()];
+    }
+
+    /**
+     * Mensagens do tipo aceitas de uma vez, com o balde cheio
+     */
+    public int getBurst(MessageType type) {
+        return burst[type.ordinal()];
+    }
+
+    /**
+     * Descartes dentro da janela que levam à desconexão (0 = nunca desconecta)
+     */
+    public int getKickAfter() {
+        return kickAfter;
+    }
+
+    public long getKickWindowMillis() {
+        return kickWindowMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RateLimitPolicy{move=%s/%d, heartbeat=%s/%d, rematch=%s/%d, kickAfter=%d/%dms}",
+                ratePerSecond[MessageType.MOVE_EXECUTE.ordinal()], burst[MessageType.MOVE_EXECUTE.ordinal()],
+                ratePerSecond[MessageType.HEARTBEAT.ordinal()], burst[MessageType.HEARTBEAT.ordinal()],
+                ratePerSecond[MessageType.REMATCH_REQUEST.ordinal()], burst[MessageType.REMATCH_REQUEST.ordinal()],
+                kickAfter, kickWindowMillis);
+    }
+}
@@ -0,0 +1,244 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Matchmaking por rating com índice em faixas (buckets) de {@link #BUCKET_WIDTH} pontos.
+ *
+ * Quem entra procura a partir da própria faixa, alternando para baixo e para
+ * cima, dentro de uma janela que começa em {@link #BASE_WINDOW} e cresce com o
+ * tempo de espera. Uma varredura periódica tenta de novo quem ficou aguardando,
+ * já com a janela alargada. A reserva dos tickets segue as mesmas regras do
+ * {@link FifoMatchmaker} (CAS, o mais antigo primeiro).
+ */
+public class RatingMatchmaker implements Matchmaker {
+
+    static final int BUCKET_WIDTH = 50;
+    static final int BUCKET_COUNT = 80; // Ratings de 0 a 3999
+    static final int BASE_WINDOW = 100;
+    static final int WINDOW_GROWTH_PER_SECOND = 25;
+    static final int MAX_PROBES_PER_BUCKET = 8;
+    static final long SWEEP_INTERVAL_MS = 1000;
+
+    private final RatingService ratings;
+    private final PairingStrategy strategy;
+    private final List<Queue<MatchTicket>> buckets;
+    private final ConcurrentMap<String, MatchTicket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final MatchmakingStats stats = new MatchmakingStats();
+
+    private final ScheduledExecutorService sweeper;
+    private volatile Consumer<Pairing> matchListener;
+
+    public RatingMatchmaker(RatingService ratings, PairingStrategy strategy) {
+        this.ratings = ratings;
+        this.strategy = strategy;
+        this.buckets = new ArrayList<>(BUCKET_COUNT);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.add(new ConcurrentLinkedQueue<>());
+        }
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "RatingMatchmaker-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Pairing enqueue(ClientHandler client) {
+        int rating = ratings.getRating(client.getPlayerName());
+        MatchTicket mine = new MatchTicket(client, sequence.incrementAndGet(), rating);
+        if (tickets.putIfAbsent(client.getClientId(), mine) != null) {
+            // Já está na fila
+            return null;
+        }
+        waiting.incrementAndGet();
+        buckets.get(bucketOf(rating)).offer(mine);
+
+        return tryPair(mine);
+    }
+
+    private Pairing tryPair(MatchTicket mine) {
+        while (mine.isWaiting()) {
+            MatchTicket other = findCandidate(mine, windowFor(mine));
+            if (other == null) {
+                return null;
+            }
+
+            // Reservar sempre o mais antigo primeiro
+            MatchTicket first = other.getSequence() < mine.getSequence() ? other : mine;
+            MatchTicket second = first == other ? mine : other;
+
+            if (!first.tryClaim()) {
+                continue;
+            }
+            if (!second.tryClaim()) {
+                first.release();
+                continue;
+            }
+
+            complete(first);
+            complete(second);
+            stats.recordMatch(other, mine);
+            return new Pairing(other.getClient(), mine.getClient());
+        }
+        return null;
+    }
+
+    /**
+     * Janela de rating aceita para o ticket, alargada pelo tempo de espera
+     */
+    static int windowFor(MatchTicket ticket) {
+        long seconds = ticket.getWaitMillis() / 1000;
+        return (int) Math.min(BUCKET_COUNT * BUCKET_WIDTH, BASE_WINDOW + seconds * WINDOW_GROWTH_PER_SECOND);
+    }
+
+    static int bucketOf(int rating) {
+        return Math.max(0, Math.min(BUCKET_COUNT - 1, rating / BUCKET_WIDTH));
+    }
+
+    /**
+     * Procura da faixa do jogador para fora; a primeira faixa com candidato vence
+     */
+    private MatchTicket findCandidate(MatchTicket mine, int window) {
+        int home = bucketOf(mine.getRating());
+        int reach = window / BUCKET_WIDTH + 1;
+
+        for (int distance = 0; distance <= reach; distance++) {
+            MatchTicket best = null;
+
+            int below = home - distance;
+            if (below >= 0) {
+                best = scanBucket(below, mine, window);
+            }
+            int above = home + distance;
+            if (distance > 0 && above < BUCKET_COUNT) {
+                MatchTicket candidate = scanBucket(above, mine, window);
+                if (best == null || (candidate != null && candidate.getSequence() < best.getSequence())) {
+                    best = candidate;
+                }
+            }
+
+            if (best != null) {
+                return best;
+            }
+            if (below <= 0 && above >= BUCKET_COUNT - 1) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private MatchTicket scanBucket(int bucket, MatchTicket mine, int window) {
+        int probes = 0;
+        Iterator<MatchTicket> it = buckets.get(bucket).iterator();
+        while (it.hasNext() && probes < MAX_PROBES_PER_BUCKET) {
+            MatchTicket candidate = it.next();
+            if (candidate.isDone()) {
+                it.remove();
+                continue;
+            }
+            if (candidate == mine || !candidate.isWaiting()) {
+                continue;
+            }
+            probes++;
+            if (Math.abs(candidate.getRating() - mine.getRating()) <= window
+                    && strategy.canPair(candidate, mine)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void complete(MatchTicket ticket) {
+        // Sai da faixa de forma preguiçosa: scanBucket descarta tickets finalizados
+        ticket.matched();
+        tickets.remove(ticket.getClient().getClientId(), ticket);
+        waiting.decrementAndGet();
+    }
+
+    /**
+     * Tenta de novo os tickets que aguardam, com a janela já alargada
+     */
+    private void sweep() {
+        Consumer<Pairing> listener = matchListener;
+        if (listener == null || waiting.get() < 2) {
+            return;
+        }
+
+        for (MatchTicket ticket : tickets.values()) {
+            try {
+                Pairing pairing = tryPair(ticket);
+                if (pairing != null) {
+                    listener.accept(pairing);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Erro no matchmaking: " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(ClientHandler client) {
+        MatchTicket ticket = tickets.get(client.getClientId());
+        if (ticket == null || !ticket.cancel()) {
+            return false;
+        }
+        tickets.remove(client.getClientId(), ticket);
+        waiting.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    @Override
+    public MatchmakingStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public List<ClientHandler> waitingClients() {
+        List<MatchTicket> live = new ArrayList<>();
+        for (MatchTicket ticket : tickets.values()) {
+            if (ticket.isWaiting()) {
+                live.add(ticket);
+            }
+        }
+        live.sort(Comparator.comparingLong(MatchTicket::getSequence));
+
+        List<ClientHandler> clients = new ArrayList<>(live.size());
+        for (MatchTicket ticket : live) {
+            clients.add(ticket.getClient());
+        }
+        return clients;
+    }
+
+    @Override
+    public void setMatchListener(Consumer<Pairing> listener) {
+        this.matchListener = listener;
+    }
+
+    @Override
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+}
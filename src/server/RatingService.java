@@ -0,0 +1,94 @@
+package server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ratings Elo dos jogadores, mantidos em memória pelo processo do servidor.
+ * Indexados pelo nome do jogador (o protocolo não tem contas).
+ */
+public class RatingService {
+
+    public static final int DEFAULT_RATING = 1500;
+    static final double K_FACTOR = 32.0;
+
+    /**
+     * Rating de um jogador (imutável; substituído a cada partida)
+     */
+    public static final class PlayerRating {
+        private final double rating;
+        private final int games;
+
+        PlayerRating(double rating, int games) {
+            this.rating = rating;
+            this.games = games;
+        }
+
+        public int getRating() {
+            return (int) Math.round(rating);
+        }
+
+        public int getGames() {
+            return games;
+        }
+    }
+
+    private static final PlayerRating INITIAL = new PlayerRating(DEFAULT_RATING, 0);
+
+    private final ConcurrentMap<String, PlayerRating> ratings = new ConcurrentHashMap<>();
+
+    public int getRating(String playerName) {
+        if (playerName == null) {
+            return DEFAULT_RATING;
+        }
+        return ratings.getOrDefault(playerName, INITIAL).getRating();
+    }
+
+    public PlayerRating getPlayerRating(String playerName) {
+        return ratings.getOrDefault(playerName, INITIAL);
+    }
+
+    /**
+     * Registra o resultado de uma partida (score: 1 vitória de a, 0.5 empate, 0 derrota)
+     */
+    public void recordResult(String playerA, String playerB, double scoreA) {
+        if (playerA == null || playerB == null || playerA.equals(playerB)) {
+            return;
+        }
+
+        // Leituras independentes: partidas simultâneas do mesmo jogador são raras
+        // e o erro fica limitado a um ajuste de K pontos
+        double ratingA = ratings.getOrDefault(playerA, INITIAL).rating;
+        double ratingB = ratings.getOrDefault(playerB, INITIAL).rating;
+
+        double expectedA = expectedScore(ratingA, ratingB);
+        double delta = K_FACTOR * (scoreA - expectedA);
+
+        PlayerRating newA = ratings.merge(playerA, new PlayerRating(ratingA + delta, 1),
+                (old, ignored) -> new PlayerRating(old.rating + delta, old.games + 1));
+        PlayerRating newB = ratings.merge(playerB, new PlayerRating(ratingB - delta, 1),
+                (old, ignored) -> new PlayerRating(old.rating - delta, old.games + 1));
+
+        System.out.printf("📈 Rating: %s %d (%+.0f), %s %d (%+.0f)%n",
+                playerA, newA.getRating(), delta, playerB, newB.getRating(), -delta);
+    }
+
+    public void recordWin(String winner, String loser) {
+        recordResult(winner, loser, 1.0);
+    }
+
+    public void recordDraw(String playerA, String playerB) {
+        recordResult(playerA, playerB, 0.5);
+    }
+
+    /**
+     * Probabilidade esperada de vitória de a contra b
+     */
+    static double expectedScore(double ratingA, double ratingB) {
+        return 1.0 / (1.0 + Math.pow(10.0, (ratingB - ratingA) / 400.0));
+    }
+
+    public int getPlayerCount() {
+        return ratings.size();
+    }
+}
@@ -0,0 +1,84 @@
+package server;
+
+import network.NetworkConstants;
+
+/**
+ * Replicação para um servidor standby. O primário envia as sessões para
+ * -Dpokemon.replication.standby=host:porta; o standby escuta em
+ * -Dpokemon.replication.listen=porta e anuncia aos clientes o endereço
+ * -Dpokemon.replication.advertiseHost (com a porta de jogo dele).
+ */
+public class ReplicationConfig {
+
+    private final String standbyHost;
+    private final int standbyPort;
+    private final int listenPort;
+    private final String advertiseHost;
+
+    public ReplicationConfig(String standbyHost, int standbyPort, int listenPort, String advertiseHost) {
+        this.standbyHost = standbyHost;
+        this.standbyPort = standbyPort;
+        this.listenPort = listenPort;
+        this.advertiseHost = advertiseHost;
+    }
+
+    /**
+     * Configuração das propriedades de sistema, ou null sem replicação
+     */
+    public static ReplicationConfig fromSystemProperties() {
+        String standby = System.getProperty("pokemon.replication.standby");
+        int listenPort = ServerConfig.parseInt(System.getProperty("pokemon.replication.listen"), 0);
+        if ((standby == null || standby.trim().isEmpty()) && listenPort <= 0) {
+            return null;
+        }
+
+        String host = null;
+        int port = 0;
+        if (standby != null && !standby.trim().isEmpty()) {
+            host = standby.trim();
+            int colon = host.lastIndexOf(':');
+            if (colon > 0) {
+                port = ServerConfig.parseInt(host.substring(colon + 1), 0);
+                host = host.substring(0, colon);
+            }
+        }
+        String advertise = System.getProperty("pokemon.replication.advertiseHost", NetworkConstants.DEFAULT_HOST);
+        return new ReplicationConfig(host, port, listenPort, advertise.trim());
+    }
+
+    /**
+     * Este servidor envia as sessões para um standby
+     */
+    public boolean isPrimary() {
+        return standbyHost != null && standbyPort > 0;
+    }
+
+    /**
+     * Este servidor é o standby: só aceita clientes depois de promovido
+     */
+    public boolean isStandby() {
+        return listenPort > 0;
+    }
+
+    public String getStandbyHost() {
+        return standbyHost;
+    }
+
+    public int getStandbyPort() {
+        return standbyPort;
+    }
+
+    public int getListenPort() {
+        return listenPort;
+    }
+
+    public String getAdvertiseHost() {
+        return advertiseHost;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplicationConfig{standby=%s:%d, listen=%d, advertiseHost=%s}",
+                standbyHost, standbyPort, listenPort, advertiseHost);
+    }
+}
@@ -0,0 +1,268 @@
+package server;
+
+import network.NetworkConstants;
+import network.RedirectInfo;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Replicação assíncrona das sessões para o servidor standby. A sessão só deixa
+ * o estado mais recente em um mapa (mudanças seguidas da mesma sessão viram
+ * uma); esta thread envia os lotes a cada REPLICATION_BATCH_INTERVAL e mede o
+ * atraso até a confirmação do standby.
+ */
+public class ReplicationSender implements Runnable {
+
+    // Quadros do protocolo de replicação
+    static final int FRAME_BATCH = 'B';
+    static final int FRAME_HELLO = 'H';
+    static final int FRAME_ACK = 'A';
+    static final int FRAME_SHUTDOWN = 'S'; // Desligamento ordenado: o standby não deve assumir
+
+    /**
+     * Estado pendente de uma sessão (record null = sessão encerrada)
+     */
+    private static final class Pending {
+        final SessionSnapshot.SessionRecord record;
+        final long enqueuedAt;
+
+        Pending(SessionSnapshot.SessionRecord record, long enqueuedAt) {
+            this.record = record;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final ServerMetrics metrics;
+    private final Runnable resync;
+    private final Consumer<RedirectInfo> standbyListener;
+
+    private final ConcurrentMap<String, Pending> pending = new ConcurrentHashMap<>();
+    // seq do lote -> instante da mudança mais antiga nele (para medir o atraso)
+    private final ConcurrentMap<Long, Long> inflight = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+    private volatile Thread thread;
+    private volatile Socket socket;
+    private volatile DataOutputStream out;
+    private long sequence = 0;
+    private long lastSentAt = 0;
+
+    /**
+     * @param resync pede que todas as sessões publiquem o estado atual (nova conexão)
+     * @param standbyListener recebe o endereço que o standby anuncia aos clientes
+     */
+    public ReplicationSender(String host, int port, ServerMetrics metrics, Runnable resync,
+            Consumer<RedirectInfo> standbyListener) {
+        this.host = host;
+        this.port = port;
+        this.metrics = metrics;
+        this.resync = resync;
+        this.standbyListener = standbyListener;
+    }
+
+    /**
+     * Inicia a thread de envio (conecta ao standby e reconecta se cair)
+     */
+    public void start() {
+        Thread sender = new Thread(this, "ReplicationSender");
+        sender.setDaemon(true);
+        this.thread = sender;
+        sender.start();
+    }
+
+    /**
+     * Estado da sessão após uma transição (chamado no loop da sessão: só um put)
+     */
+    public void publish(SessionSnapshot.SessionRecord record) {
+        pending.merge(record.sessionId, new Pending(record, System.nanoTime()), ReplicationSender::keepOldest);
+    }
+
+    /**
+     * Sessão terminou: o standby deixa de guardá-la
+     */
+    public void remove(String sessionId) {
+        pending.merge(sessionId, new Pending(null, System.nanoTime()), ReplicationSender::keepOldest);
+    }
+
+    private static Pending keepOldest(Pending previous, Pending latest) {
+        return new Pending(latest.record, previous.enqueuedAt);
+    }
+
+    /**
+     * Para a replicação avisando o standby: o servidor foi desligado de propósito
+     * e as sessões ficam no snapshot dele, então o standby não deve assumir
+     */
+    public void shutdown() {
+        running = false;
+        Thread sender = thread;
+        if (sender != null) {
+            LockSupport.unpark(sender);
+            try {
+                sender.join(NetworkConstants.FAILOVER_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        closeSocket();
+    }
+
+    @Override
+    public void run() {
+        long batchNanos = TimeUnit.MILLISECONDS.toNanos(NetworkConstants.REPLICATION_BATCH_INTERVAL);
+        while (running) {
+            if (out == null && !connect()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(NetworkConstants.RECONNECT_INTERVAL));
+                continue;
+            }
+
+            LockSupport.parkNanos(batchNanos);
+            boolean heartbeatDue = System.currentTimeMillis() - lastSentAt >= NetworkConstants.REPLICATION_HEARTBEAT;
+            if (pending.isEmpty() && !heartbeatDue) {
+                continue;
+            }
+
+            try {
+                sendBatch();
+            } catch (IOException e) {
+                Log.warn(LogCategory.SERVER, "⚠️ Replicação interrompida: {}", e.getMessage());
+                closeSocket();
+            }
+        }
+        sendShutdown();
+        closeSocket();
+    }
+
+    /**
+     * Último quadro da conexão: desligamento ordenado do primário
+     */
+    private void sendShutdown() {
+        DataOutputStream stream = out;
+        if (stream == null) {
+            return;
+        }
+        try {
+            stream.writeByte(FRAME_SHUTDOWN);
+            stream.flush();
+            Log.info(LogCategory.SERVER, "👋 Standby avisado do desligamento do primário");
+        } catch (IOException e) {
+            Log.debug(LogCategory.SERVER, "Aviso de desligamento não enviado: {}", e.getMessage());
+        }
+    }
+
+    private boolean connect() {
+        try {
+            Socket s = new Socket(host, port);
+            s.setTcpNoDelay(true);
+            socket = s;
+            out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 64 * 1024));
+            inflight.clear();
+
+            Thread reader = new Thread(() -> readAcks(s), "ReplicationAcks");
+            reader.setDaemon(true);
+            reader.start();
+
+            Log.info(LogCategory.SERVER, "🔁 Replicando sessões para o standby {}:{}", host, port);
+            resync.run();
+            return true;
+        } catch (IOException e) {
+            Log.debug(LogCategory.SERVER, "Standby indisponível: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Esvazia o mapa de pendências em um único quadro
+     */
+    private void sendBatch() throws IOException {
+        List<SessionSnapshot.SessionRecord> upserts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+        long oldest = System.nanoTime();
+
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            Pending change = entry.getValue();
+            if (!pending.remove(entry.getKey(), change)) {
+                continue; // Atualizada enquanto lia: vai no próximo lote
+            }
+            if (change.record != null) {
+                upserts.add(change.record);
+            } else {
+                removals.add(entry.getKey());
+            }
+            oldest = Math.min(oldest, change.enqueuedAt);
+        }
+
+        long seq = ++sequence;
+        inflight.put(seq, oldest);
+
+        out.writeByte(FRAME_BATCH);
+        out.writeLong(seq);
+        out.writeInt(upserts.size());
+        for (SessionSnapshot.SessionRecord record : upserts) {
+            SessionSnapshot.writeSession(out, record);
+        }
+        out.writeInt(removals.size());
+        for (String sessionId : removals) {
+            out.writeUTF(sessionId);
+        }
+        out.flush();
+
+        lastSentAt = System.currentTimeMillis();
+        metrics.recordReplicationBatch(upserts.size() + removals.size());
+    }
+
+    /**
+     * Lê o HELLO do standby e as confirmações dos lotes
+     */
+    private void readAcks(Socket s) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()))) {
+            while (running) {
+                int frame = in.readUnsignedByte();
+                if (frame == FRAME_HELLO) {
+                    RedirectInfo address = new RedirectInfo(in.readUTF(), in.readInt(), null);
+                    Log.info(LogCategory.SERVER, "🛟 Standby anunciado aos clientes: {}", address);
+                    standbyListener.accept(address);
+                } else if (frame == FRAME_ACK) {
+                    Long oldest = inflight.remove(in.readLong());
+                    if (oldest != null) {
+                        metrics.recordReplicationLag(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - oldest));
+                    }
+                } else {
+                    throw new IOException("Quadro de replicação desconhecido: " + frame);
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                Log.debug(LogCategory.SERVER, "Leitura de confirmações encerrada: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void closeSocket() {
+        Socket s = socket;
+        socket = null;
+        out = null;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // Ignorar
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package server;
+
+import network.NetworkConstants;
+import network.OutboundPolicy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opções de inicialização do servidor.
+ * Lidas de propriedades de sistema (-Dpokemon.xxx=valor), com os valores de
+ * {@link NetworkConstants} como padrão.
+ */
+public class ServerConfig {
+
+    static final String DEFAULT_SNAPSHOT_FILE = "session-snapshot.bin";
+
+    /**
+     * Transporte usado para aceitar e atender clientes
+     */
+    public enum Transport {
+        BLOCKING, // Um ClientHandler + um NetworkManager (threads) por cliente
+        NIO       // Poucos loops de eventos com Selector atendendo todos os clientes
+    }
+
+    /**
+     * Tipo de thread usado pelo transporte bloqueante
+     */
+    public enum Execution {
+        PLATFORM, // Pool fixo de threads de plataforma (limitado por maxClients)
+        VIRTUAL   // Uma thread virtual por handler e por leitor
+    }
+
+    private final Transport transport;
+    private final int ioThreads;
+    private final Execution execution;
+    /**
+     * Como os jogadores com time pronto são emparelhados
+     */
+    public enum Matchmaking {
+        FIFO,   // Ordem de chegada
+        RATING  // Faixas de rating Elo com janela que cresce com a espera
+    }
+
+    private final int maxClients;
+    private final OutboundPolicy outboundPolicy;
+    private final Matchmaking matchmaking;
+    private final int sessionWorkers;
+    private final String snapshotFile;
+    private final long sessionRetention;
+    private final ClusterConfig cluster;
+    private final ReplicationConfig replication;
+    private final long spectatorDelay;
+    private final RateLimitPolicy rateLimit;
+    private final Long battleSeed;
+    // Próxima semente quando battleSeed está fixada (N, N+1, N+2...)
+    private final AtomicLong nextSeed;
+
+    private ServerConfig(Builder builder) {
+        this.transport = builder.transport;
+        this.ioThreads = Math.max(1, builder.ioThreads);
+        this.execution = builder.execution;
+        this.maxClients = Math.max(1, builder.maxClients);
+        this.outboundPolicy = builder.outboundPolicy;
+        this.matchmaking = builder.matchmaking;
+        this.sessionWorkers = Math.max(1, builder.sessionWorkers);
+        String file = builder.snapshotFile;
+        this.snapshotFile = file == null || file.trim().isEmpty() ? null : file.trim();
+        // Nunca antes do prazo de resposta da revanche
+        this.sessionRetention = Math.max(NetworkConstants.REMATCH_TIMEOUT, builder.sessionRetention);
+        this.cluster = builder.cluster;
+        this.replication = builder.replication;
+        this.spectatorDelay = Math.max(0, builder.spectatorDelay);
+        this.rateLimit = builder.rateLimit != null ? builder.rateLimit : RateLimitPolicy.unlimited();
+        this.battleSeed = builder.battleSeed;
+        this.nextSeed = battleSeed != null ? new AtomicLong(battleSeed) : null;
+    }
+
+    /**
+     * Monta uma configuração a partir dos valores padrão, trocando só o que
+     * for indicado
+     */
+    public static final class Builder {
+
+        private Transport transport = Transport.BLOCKING;
+        private int ioThreads = defaultIoThreads();
+        private Execution execution = Execution.PLATFORM;
+        private int maxClients = NetworkConstants.MAX_CLIENTS;
+        private OutboundPolicy outboundPolicy = OutboundPolicy.defaults();
+        private Matchmaking matchmaking = Matchmaking.RATING;
+        private int sessionWorkers = defaultSessionWorkers();
+        private String snapshotFile = DEFAULT_SNAPSHOT_FILE;
+        private long sessionRetention = NetworkConstants.SESSION_RETENTION;
+        private ClusterConfig cluster;
+        private ReplicationConfig replication;
+        private long spectatorDelay = NetworkConstants.SPECTATOR_DELAY;
+        private RateLimitPolicy rateLimit = RateLimitPolicy.defaults();
+        private Long battleSeed;
+
+        private Builder() {
+        }
+
+        public Builder transport(Transport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        public Builder ioThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        public Builder execution(Execution execution) {
+            this.execution = execution;
+            return this;
+        }
+
+        public Builder maxClients(int maxClients) {
+            this.maxClients = maxClients;
+            return this;
+        }
+
+        public Builder outboundPolicy(OutboundPolicy outboundPolicy) {
+            this.outboundPolicy = outboundPolicy;
+            return this;
+        }
+
+        public Builder matchmaking(Matchmaking matchmaking) {
+            this.matchmaking = matchmaking;
+            return this;
+        }
+
+        public Builder sessionWorkers(int sessionWorkers) {
+            this.sessionWorkers = sessionWorkers;
+            return this;
+        }
+
+        /**
+         * Arquivo de snapshot (null ou vazio desativa)
+         */
+        public Builder snapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+            return this;
+        }
+
+        public Builder sessionRetention(long sessionRetention) {
+            this.sessionRetention = sessionRetention;
+            return this;
+        }
+
+        public Builder cluster(ClusterConfig cluster) {
+            this.cluster = cluster;
+            return this;
+        }
+
+        public Builder replication(ReplicationConfig replication) {
+            this.replication = replication;
+            return this;
+        }
+
+        public Builder spectatorDelay(long spectatorDelay) {
+            this.spectatorDelay = spectatorDelay;
+            return this;
+        }
+
+        /**
+         * Orçamento de mensagens recebidas (null = sem limite)
+         */
+        public Builder rateLimit(RateLimitPolicy rateLimit) {
+            this.rateLimit = rateLimit;
+            return this;
+        }
+
+        /**
+         * Semente da primeira batalha (null = sementes aleatórias)
+         */
+        public Builder battleSeed(Long battleSeed) {
+            this.battleSeed = battleSeed;
+            return this;
+        }
+
+        public ServerConfig build() {
+            return new ServerConfig(this);
+        }
+    }
+
+    /**
+     * Configuração padrão (transporte bloqueante original)
+     */
+    public static ServerConfig defaults() {
+        return new Builder().build();
+    }
+
+    /**
+     * Configuração das propriedades de sistema
+     * @see #builder()
+     */
+    public static ServerConfig fromSystemProperties() {
+        return builder().build();
+    }
+
+    /**
+     * Builder já preenchido com as propriedades de sistema:
+     * -Dpokemon.transport=blocking|nio, -Dpokemon.io.threads=N,
+     * -Dpokemon.execution=platform|virtual, -Dpokemon.maxClients=N,
+     * -Dpokemon.matchmaker=fifo|rating, -Dpokemon.session.workers=N,
+     * -Dpokemon.snapshot.file=arquivo (vazio desativa), -Dpokemon.session.retention=ms,
+     * -Dpokemon.spectator.delay=ms (atraso da transmissão para espectadores),
+     * -Dpokemon.battle.seed=N (a primeira batalha usa N, as seguintes N+1, N+2...; para testes e replays),
+     * as opções de {@link OutboundPolicy} (-Dpokemon.outbound.*), de {@link ClusterConfig}
+     * (-Dpokemon.cluster.*), de {@link ReplicationConfig} (-Dpokemon.replication.*) e de
+     * {@link RateLimitPolicy} (-Dpokemon.ratelimit.*)
+     */
+    public static Builder builder() {
+        Builder builder = new Builder();
+        return builder
+                .transport(parseEnum(Transport.class, System.getProperty("pokemon.transport"), builder.transport))
+                .ioThreads(parseInt(System.getProperty("pokemon.io.threads"), builder.ioThreads))
+                .execution(parseEnum(Execution.class, System.getProperty("pokemon.execution"), builder.execution))
+                .maxClients(parseInt(System.getProperty("pokemon.maxClients"), builder.maxClients))
+                .outboundPolicy(OutboundPolicy.fromSystemProperties())
+                .matchmaking(parseEnum(Matchmaking.class, System.getProperty("pokemon.matchmaker"),
+                        builder.matchmaking))
+                .sessionWorkers(parseInt(System.getProperty("pokemon.session.workers"), builder.sessionWorkers))
+                .snapshotFile(System.getProperty("pokemon.snapshot.file", builder.snapshotFile))
+                .sessionRetention(parseInt(System.getProperty("pokemon.session.retention"),
+                        NetworkConstants.SESSION_RETENTION))
+                .cluster(ClusterConfig.fromSystemProperties())
+                .replication(ReplicationConfig.fromSystemProperties())
+                .spectatorDelay(parseInt(System.getProperty("pokemon.spectator.delay"),
+                        NetworkConstants.SPECTATOR_DELAY))
+                .rateLimit(RateLimitPolicy.fromSystemProperties())
+                .battleSeed(parseSeed(System.getProperty("pokemon.battle.seed")));
+    }
+
+    private static Long parseSeed(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.decode(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Semente inválida '" + value + "', usando sementes aleatórias");
+            return null;
+        }
+    }
+
+    private static int defaultIoThreads() {
+        return Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static int defaultSessionWorkers() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback) {
+        if (value == null || value.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Valor inválido '" + value + "' para " + type.getSimpleName() + ", usando " + fallback);
+            return fallback;
+        }
+    }
+
+    static int parseInt(String value, int fallback) {
+        if (value == null || value.trim().isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Número inválido '" + value + "', usando " + fallback);
+            return fallback;
+        }
+    }
+
+    // Getters
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    /**
+     * Limite de admissão: quantos clientes podem estar conectados ao mesmo tempo
+     */
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public Matchmaking getMatchmaking() {
+        return matchmaking;
+    }
+
+    /**
+     * Quantidade de loops que processam os comandos das sessões
+     */
+    public int getSessionWorkers() {
+        return sessionWorkers;
+    }
+
+    /**
+     * Arquivo de snapshot das batalhas para reinício a quente (null = desativado)
+     */
+    public java.io.File getSnapshotFile() {
+        return snapshotFile != null ? new java.io.File(snapshotFile) : null;
+    }
+
+    /**
+     * Por quanto tempo uma sessão encerrada fica retida aguardando revanche (ms)
+     */
+    public long getSessionRetention() {
+        return sessionRetention;
+    }
+
+    /**
+     * Coordenador do cluster (null = nó único)
+     */
+    public ClusterConfig getCluster() {
+        return cluster;
+    }
+
+    /**
+     * Replicação para o standby (null = sem standby)
+     */
+    public ReplicationConfig getReplication() {
+        return replication;
+    }
+
+    /**
+     * Atraso da transmissão para espectadores (ms, 0 = ao vivo)
+     */
+    public long getSpectatorDelay() {
+        return spectatorDelay;
+    }
+
+    /**
+     * Semente de uma nova batalha: a sequência a partir da semente configurada,
+     * ou uma aleatória
+     */
+    public long nextBattleSeed() {
+        return nextSeed != null ? nextSeed.getAndIncrement() : ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Orçamento de mensagens recebidas por conexão e tipo
+     */
+    public RateLimitPolicy getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Política da fila de saída de cada conexão (clientes lentos)
+     */
+    public OutboundPolicy getOutboundPolicy() {
+        return outboundPolicy;
+    }
+
+    /**
+     * Builder das threads de leitura e escrita de cada conexão
+     */
+    public Thread.Builder connectionThreadBuilder() {
+        if (execution == Execution.VIRTUAL) {
+            return Thread.ofVirtual();
+        }
+        return Thread.ofPlatform().daemon(true);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ServerConfig{transport=%s, ioThreads=%d, execution=%s, maxClients=%d, "
+                + "matchmaking=%s, sessionWorkers=%d, snapshot=%s, sessionRetention=%dms, %s, cluster=%s, "
+                + "replication=%s, spectatorDelay=%dms, %s, battleSeed=%s}",
+                transport, ioThreads, execution, maxClients, matchmaking, sessionWorkers, snapshotFile,
+                sessionRetention, outboundPolicy, cluster, replication, spectatorDelay, rateLimit,
+                battleSeed != null ? battleSeed : "aleatória");
+    }
+}
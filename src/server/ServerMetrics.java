@@ -0,0 +1,272 @@
+package server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores do servidor atualizados nos caminhos quentes (accept, desconexão,
+ * sessões). Só incrementam LongAdders; a leitura acontece no
+ * {@link MetricsPublisher}, fora desses caminhos.
+ */
+public class ServerMetrics {
+
+    private final LongAdder connectionsAccepted = new LongAdder();
+    private final LongAdder connectionsRejected = new LongAdder();
+    private final LongAdder clientsRemoved = new LongAdder();
+    private final LongAdder sessionsCreated = new LongAdder();
+    private final LongAdder sessionsEnded = new LongAdder();
+    private final LongAdder sessionsReaped = new LongAdder();
+
+    // Medidores atualizados a cada varredura do SessionReaper
+    private volatile int liveSessions;
+    private volatile int retainedSessions;
+
+    // Replicação para o standby: atraso da mudança mais antiga de um lote até a confirmação
+    private final LongAdder replicationBatches = new LongAdder();
+    private final LongAdder replicatedChanges = new LongAdder();
+    private volatile long replicationLagMicros;
+    private volatile long maxReplicationLagMicros;
+
+    // Mensagens descartadas pelo limite por conexão e conexões derrubadas por insistir
+    private final LongAdder messagesDropped = new LongAdder();
+    private final LongAdder clientsKicked = new LongAdder();
+
+    void recordAccepted() {
+        connectionsAccepted.increment();
+    }
+
+    void recordRejected() {
+        connectionsRejected.increment();
+    }
+
+    void recordClientRemoved() {
+        clientsRemoved.increment();
+    }
+
+    void recordSessionCreated() {
+        sessionsCreated.increment();
+    }
+
+    void recordSessionEnded() {
+        sessionsEnded.increment();
+    }
+
+    void recordSessionsReaped(int count) {
+        sessionsReaped.add(count);
+    }
+
+    void recordReplicationBatch(int changes) {
+        replicationBatches.increment();
+        replicatedChanges.add(changes);
+    }
+
+    /**
+     * Chamado apenas pela thread que lê as confirmações do standby
+     */
+    void recordReplicationLag(long micros) {
+        replicationLagMicros = micros;
+        if (micros > maxReplicationLagMicros) {
+            maxReplicationLagMicros = micros;
+        }
+    }
+
+    void recordMessageDropped() {
+        messagesDropped.increment();
+    }
+
+    void recordClientKicked() {
+        clientsKicked.increment();
+    }
+
+    void updateSessionGauges(int live, int retained) {
+        this.liveSessions = live;
+        this.retainedSessions = retained;
+    }
+
+    /**
+     * Tira uma foto dos contadores junto com o estado atual do servidor
+     */
+    Snapshot snapshot(boolean running, int port, int clientCount, int sessionCount) {
+        return new Snapshot(System.currentTimeMillis(), running, port, clientCount, sessionCount,
+                connectionsAccepted.sum(), connectionsRejected.sum(), clientsRemoved.sum(),
+                sessionsCreated.sum(), sessionsEnded.sum(), liveSessions, retainedSessions, sessionsReaped.sum(),
+                replicationBatches.sum(), replicatedChanges.sum(), replicationLagMicros, maxReplicationLagMicros,
+                messagesDropped.sum(), clientsKicked.sum());
+    }
+
+    /**
+     * Foto imutável das métricas, entregue aos listeners
+     */
+    public static final class Snapshot {
+        private final long timestamp;
+        private final boolean running;
+        private final int port;
+        private final int clientCount;
+        private final int sessionCount;
+        private final long connectionsAccepted;
+        private final long connectionsRejected;
+        private final long clientsRemoved;
+        private final long sessionsCreated;
+        private final long sessionsEnded;
+        private final int liveSessions;
+        private final int retainedSessions;
+        private final long sessionsReaped;
+        private final long replicationBatches;
+        private final long replicatedChanges;
+        private final long replicationLagMicros;
+        private final long maxReplicationLagMicros;
+        private final long messagesDropped;
+        private final long clientsKicked;
+
+        Snapshot(long timestamp, boolean running, int port, int clientCount, int sessionCount,
+                long connectionsAccepted, long connectionsRejected, long clientsRemoved,
+                long sessionsCreated, long sessionsEnded, int liveSessions, int retainedSessions,
+                long sessionsReaped, long replicationBatches, long replicatedChanges,
+                long replicationLagMicros, long maxReplicationLagMicros, long messagesDropped,
+                long clientsKicked) {
+            this.timestamp = timestamp;
+            this.running = running;
+            this.port = port;
+            this.clientCount = clientCount;
+            this.sessionCount = sessionCount;
+            this.connectionsAccepted = connectionsAccepted;
+            this.connectionsRejected = connectionsRejected;
+            this.clientsRemoved = clientsRemoved;
+            this.sessionsCreated = sessionsCreated;
+            this.sessionsEnded = sessionsEnded;
+            this.liveSessions = liveSessions;
+            this.retainedSessions = retainedSessions;
+            this.sessionsReaped = sessionsReaped;
+            this.replicationBatches = replicationBatches;
+            this.replicatedChanges = replicatedChanges;
+            this.replicationLagMicros = replicationLagMicros;
+            this.maxReplicationLagMicros = maxReplicationLagMicros;
+            this.messagesDropped = messagesDropped;
+            this.clientsKicked = clientsKicked;
+        }
+
+        /**
+         * Mesmo conteúdo, ignorando o instante da foto
+         */
+        boolean sameAs(Snapshot other) {
+            return other != null
+                    && running == other.running
+                    && clientCount == other.clientCount
+                    && sessionCount == other.sessionCount
+                    && connectionsAccepted == other.connectionsAccepted
+                    && connectionsRejected == other.connectionsRejected
+                    && clientsRemoved == other.clientsRemoved
+                    && sessionsCreated == other.sessionsCreated
+                    && sessionsEnded == other.sessionsEnded
+                    && liveSessions == other.liveSessions
+                    && retainedSessions == other.retainedSessions
+                    && sessionsReaped == other.sessionsReaped
+                    && replicatedChanges == other.replicatedChanges
+                    && maxReplicationLagMicros == other.maxReplicationLagMicros
+                    && messagesDropped == other.messagesDropped
+                    && clientsKicked == other.clientsKicked;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public boolean isRunning() {
+            return running;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public int getClientCount() {
+            return clientCount;
+        }
+
+        public int getSessionCount() {
+            return sessionCount;
+        }
+
+        public long getConnectionsAccepted() {
+            return connectionsAccepted;
+        }
+
+        public long getConnectionsRejected() {
+            return connectionsRejected;
+        }
+
+        public long getClientsRemoved() {
+            return clientsRemoved;
+        }
+
+        public long getSessionsCreated() {
+            return sessionsCreated;
+        }
+
+        public long getSessionsEnded() {
+            return sessionsEnded;
+        }
+
+        /**
+         * Sessões com batalha em andamento (última varredura do reaper)
+         */
+        public int getLiveSessions() {
+            return liveSessions;
+        }
+
+        /**
+         * Sessões encerradas retidas aguardando revanche (última varredura do reaper)
+         */
+        public int getRetainedSessions() {
+            return retainedSessions;
+        }
+
+        public long getSessionsReaped() {
+            return sessionsReaped;
+        }
+
+        public long getReplicationBatches() {
+            return replicationBatches;
+        }
+
+        public long getReplicatedChanges() {
+            return replicatedChanges;
+        }
+
+        /**
+         * Atraso do último lote confirmado pelo standby (µs, desde a mudança mais antiga nele)
+         */
+        public long getReplicationLagMicros() {
+            return replicationLagMicros;
+        }
+
+        public long getMaxReplicationLagMicros() {
+            return maxReplicationLagMicros;
+        }
+
+        /**
+         * Mensagens recebidas descartadas por passarem do orçamento da conexão
+         */
+        public long getMessagesDropped() {
+            return messagesDropped;
+        }
+
+        /**
+         * Conexões desconectadas por excesso de mensagens descartadas
+         */
+        public long getClientsKicked() {
+            return clientsKicked;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ServerMetrics{running=%s, clients=%d, sessions=%d, accepted=%d, "
+                    + "rejected=%d, removed=%d, sessionsCreated=%d, sessionsEnded=%d, live=%d, "
+                    + "retained=%d, reaped=%d, replicated=%d/%d batches, lag=%dus, maxLag=%dus, "
+                    + "dropped=%d, kicked=%d}",
+                    running, clientCount, sessionCount, connectionsAccepted, connectionsRejected,
+                    clientsRemoved, sessionsCreated, sessionsEnded, liveSessions, retainedSessions,
+                    sessionsReaped, replicatedChanges, replicationBatches, replicationLagMicros,
+                    maxReplicationLagMicros, messagesDropped, clientsKicked);
+        }
+    }
+}
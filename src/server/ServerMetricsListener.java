@@ -0,0 +1,11 @@
+package server;
+
+/**
+ * Recebe fotos das métricas do servidor (ex.: console gráfico).
+ * Chamado pela thread do {@link MetricsPublisher}; quem implementa decide em
+ * qual thread atualizar a interface, mantendo o servidor livre de Swing.
+ */
+public interface ServerMetricsListener {
+
+    void onSnapshot(ServerMetrics.Snapshot snapshot);
+}
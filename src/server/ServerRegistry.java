@@ -0,0 +1,141 @@
+package server;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro concorrente de clientes e sessões do servidor.
+ * Buscas O(1) por clientId, nome do jogador e sessionId, sem monitor global;
+ * os contadores são mantidos à parte para leitura sem percorrer os mapas.
+ */
+public class ServerRegistry {
+
+    private final ConcurrentMap<String, ClientHandler> clientsById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ClientHandler> clientsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, GameSession> sessionsById = new ConcurrentHashMap<>();
+
+    // clientId -> sessão mais recente do jogador
+    private final ConcurrentMap<String, GameSession> sessionsByClient = new ConcurrentHashMap<>();
+
+    private final AtomicInteger clientCount = new AtomicInteger();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+
+    // === CLIENTES ===
+
+    public void addClient(ClientHandler client) {
+        if (clientsById.putIfAbsent(client.getClientId(), client) == null) {
+            clientCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Indexa o cliente pelo nome informado no CONNECT_REQUEST
+     */
+    public void bindName(ClientHandler client, String playerName) {
+        if (playerName != null) {
+            clientsByName.put(playerName, client);
+        }
+    }
+
+    /**
+     * Remove o cliente de todos os índices.
+     * Retorna true apenas na primeira remoção (evita liberar recursos duas vezes).
+     */
+    public boolean removeClient(ClientHandler client) {
+        if (!clientsById.remove(client.getClientId(), client)) {
+            return false;
+        }
+        clientCount.decrementAndGet();
+
+        String name = client.getPlayerName();
+        if (name != null) {
+            clientsByName.remove(name, client);
+        }
+        return true;
+    }
+
+    public ClientHandler findClientById(String clientId) {
+        return clientsById.get(clientId);
+    }
+
+    public ClientHandler findClientByName(String playerName) {
+        return playerName != null ? clientsByName.get(playerName) : null;
+    }
+
+    /**
+     * Visão concorrente dos clientes (iteração fracamente consistente)
+     */
+    public Collection<ClientHandler> clients() {
+        return clientsById.values();
+    }
+
+    public int getClientCount() {
+        return clientCount.get();
+    }
+
+    // === SESSÕES ===
+
+    public void addSession(GameSession session) {
+        if (sessionsById.putIfAbsent(session.getSessionId(), session) == null) {
+            sessionCount.incrementAndGet();
+        }
+        bindSessionPlayer(session, session.getPlayer1());
+        bindSessionPlayer(session, session.getPlayer2());
+    }
+
+    /**
+     * Indexa um jogador da sessão (sessões restauradas ganham jogadores aos poucos)
+     */
+    public void bindSessionPlayer(GameSession session, ClientHandler player) {
+        if (player != null) {
+            sessionsByClient.put(player.getClientId(), session);
+        }
+    }
+
+    /**
+     * Remove a sessão e os índices dos jogadores que ainda apontam para ela
+     */
+    public boolean removeSession(GameSession session) {
+        if (!sessionsById.remove(session.getSessionId(), session)) {
+            return false;
+        }
+        sessionCount.decrementAndGet();
+
+        for (ClientHandler player : new ClientHandler[]{session.getPlayer1(), session.getPlayer2()}) {
+            if (player != null) {
+                sessionsByClient.remove(player.getClientId(), session);
+            }
+        }
+        return true;
+    }
+
+    public GameSession findSessionById(String sessionId) {
+        return sessionsById.get(sessionId);
+    }
+
+    public GameSession findSessionByPlayer(ClientHandler player) {
+        return sessionsByClient.get(player.getClientId());
+    }
+
+    public Collection<GameSession> sessions() {
+        return sessionsById.values();
+    }
+
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Remove tudo (parada do servidor)
+     */
+    public void clear() {
+        clientsById.clear();
+        clientsByName.clear();
+        sessionsById.clear();
+        sessionsByClient.clear();
+        clientCount.set(0);
+        sessionCount.set(0);
+    }
+}
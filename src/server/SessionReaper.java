@@ -0,0 +1,84 @@
+package server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Varre as sessões periodicamente (no {@link HashedWheelTimer}) e remove do
+ * registro as que já fecharam ou que terminaram a batalha e passaram do prazo
+ * de revanche. Também atualiza os medidores de sessões vivas e retidas.
+ */
+public class SessionReaper {
+
+    private final ServerRegistry registry;
+    private final HashedWheelTimer timer;
+    private final ServerMetrics metrics;
+    private final Consumer<GameSession> remover;
+    private final long retentionMillis;
+    private final long intervalMillis;
+
+    private volatile HashedWheelTimer.Timeout nextSweep;
+    private volatile boolean stopped = false;
+
+    public SessionReaper(ServerRegistry registry, HashedWheelTimer timer, ServerMetrics metrics,
+            Consumer<GameSession> remover, long retentionMillis, long intervalMillis) {
+        this.registry = registry;
+        this.timer = timer;
+        this.metrics = metrics;
+        this.remover = remover;
+        this.retentionMillis = retentionMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    public void start() {
+        schedule();
+    }
+
+    public void stop() {
+        stopped = true;
+        HashedWheelTimer.Timeout timeout = nextSweep;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private void schedule() {
+        if (!stopped) {
+            nextSweep = timer.newTimeout(this::sweep, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Uma varredura; retorna quantas sessões foram removidas
+     */
+    int sweep() {
+        long now = System.currentTimeMillis();
+        int live = 0;
+        int retained = 0;
+        int reaped = 0;
+
+        for (GameSession session : registry.sessions()) {
+            SessionState state = session.getState();
+            if (state == SessionState.CLOSED) {
+                remover.accept(session);
+                reaped++;
+            } else if (session.isRetentionExpired(now, retentionMillis)) {
+                // Fecha no loop da sessão, em série com um pedido de revanche atrasado
+                session.submit(() -> {
+                    session.endSession();
+                    remover.accept(session);
+                });
+                reaped++;
+            } else if (state == SessionState.ACTIVE) {
+                live++;
+            } else {
+                retained++;
+            }
+        }
+
+        metrics.recordSessionsReaped(reaped);
+        metrics.updateSessionGauges(live, retained);
+        schedule();
+        return reaped;
+    }
+}
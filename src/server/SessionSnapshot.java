@@ -0,0 +1,238 @@
+package server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import pokemon.Species;
+
+/**
+ * Foto das batalhas em andamento e da fila de matchmaking, gravada na parada
+ * graciosa e lida na inicialização seguinte. Formato binário compacto: espécie
+ * pelo ordinal (1 byte), HP em 2 bytes e PP em 1 byte por movimento, sem
+ * serialização Java. Só a versão atual é lida; outra versão é recusada.
+ */
+public class SessionSnapshot {
+
+    private static final int MAGIC = 0x504B5353; // "PKSS"
+    private static final int VERSION = 1;
+
+    /**
+     * Jogador de uma sessão ou da fila, identificado por nome + token de retomada
+     */
+    public static final class PlayerRecord {
+        final String name;
+        final String resumeToken;
+        final List<Species> team;
+        final int[] hp; // HP atual de cada Pokémon (vazio para quem está na fila)
+        final byte[] pp; // PP [Pokémon][movimento] (vazio para quem está na fila)
+
+        PlayerRecord(String name, String resumeToken, List<Species> team, int[] hp, byte[] pp) {
+            this.name = name;
+            this.resumeToken = resumeToken;
+            this.team = team;
+            this.hp = hp;
+            this.pp = pp;
+        }
+    }
+
+    /**
+     * Estado de uma batalha em andamento
+     */
+    public static final class SessionRecord {
+        final String sessionId;
+        final PlayerRecord player1;
+        final PlayerRecord player2;
+        final int player1ActiveIndex;
+        final int player2ActiveIndex;
+        final boolean currentPlayerTurn;
+        final int turnNumber;
+        final int logTurnCounter;
+        final long seed; // Semente do gerador da batalha
+
+        SessionRecord(String sessionId, PlayerRecord player1, PlayerRecord player2,
+                int player1ActiveIndex, int player2ActiveIndex, boolean currentPlayerTurn,
+                int turnNumber, int logTurnCounter, long seed) {
+            this.sessionId = sessionId;
+            this.player1 = player1;
+            this.player2 = player2;
+            this.player1ActiveIndex = player1ActiveIndex;
+            this.player2ActiveIndex = player2ActiveIndex;
+            this.currentPlayerTurn = currentPlayerTurn;
+            this.turnNumber = turnNumber;
+            this.logTurnCounter = logTurnCounter;
+            this.seed = seed;
+        }
+    }
+
+    private final long createdAt;
+    private final List<SessionRecord> sessions;
+    private final List<PlayerRecord> queued;
+
+    public SessionSnapshot(List<SessionRecord> sessions, List<PlayerRecord> queued) {
+        this(System.currentTimeMillis(), sessions, queued);
+    }
+
+    private SessionSnapshot(long createdAt, List<SessionRecord> sessions, List<PlayerRecord> queued) {
+        this.createdAt = createdAt;
+        this.sessions = sessions;
+        this.queued = queued;
+    }
+
+    public boolean isEmpty() {
+        return sessions.isEmpty() && queued.isEmpty();
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public List<SessionRecord> getSessions() {
+        return sessions;
+    }
+
+    public List<PlayerRecord> getQueued() {
+        return queued;
+    }
+
+    // === GRAVAÇÃO ===
+
+    /**
+     * Grava em um arquivo temporário e troca de forma atômica
+     */
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File temp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(createdAt);
+
+            out.writeInt(sessions.size());
+            for (SessionRecord session : sessions) {
+                writeSession(out, session);
+            }
+
+            out.writeInt(queued.size());
+            for (PlayerRecord player : queued) {
+                writePlayer(out, player);
+            }
+        }
+
+        Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Uma sessão no formato do snapshot (também usado pela replicação)
+     */
+    static void writeSession(DataOutputStream out, SessionRecord session) throws IOException {
+        out.writeUTF(session.sessionId);
+        writePlayer(out, session.player1);
+        writePlayer(out, session.player2);
+        out.writeByte(session.player1ActiveIndex);
+        out.writeByte(session.player2ActiveIndex);
+        out.writeBoolean(session.currentPlayerTurn);
+        out.writeInt(session.turnNumber);
+        out.writeInt(session.logTurnCounter);
+        out.writeLong(session.seed);
+    }
+
+    private static void writePlayer(DataOutputStream out, PlayerRecord player) throws IOException {
+        out.writeUTF(player.name);
+        out.writeUTF(player.resumeToken);
+        out.writeByte(player.team.size());
+        for (Species species : player.team) {
+            out.writeByte(species.ordinal());
+        }
+        out.writeByte(player.hp.length);
+        for (int hp : player.hp) {
+            out.writeShort(hp);
+        }
+        out.writeShort(player.pp.length);
+        out.write(player.pp);
+    }
+
+    // === LEITURA ===
+
+    public static SessionSnapshot load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Arquivo de snapshot inválido: " + file);
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Versão de snapshot não suportada: " + version);
+            }
+            long createdAt = in.readLong();
+
+            int sessionCount = in.readInt();
+            List<SessionRecord> sessions = new ArrayList<>(sessionCount);
+            for (int i = 0; i < sessionCount; i++) {
+                sessions.add(readSession(in));
+            }
+
+            int queuedCount = in.readInt();
+            List<PlayerRecord> queued = new ArrayList<>(queuedCount);
+            for (int i = 0; i < queuedCount; i++) {
+                queued.add(readPlayer(in));
+            }
+
+            return new SessionSnapshot(createdAt, sessions, queued);
+        }
+    }
+
+    /**
+     * Uma sessão no formato do snapshot (também usado pela replicação)
+     */
+    static SessionRecord readSession(DataInputStream in) throws IOException {
+        String sessionId = in.readUTF();
+        PlayerRecord player1 = readPlayer(in);
+        PlayerRecord player2 = readPlayer(in);
+        int player1ActiveIndex = in.readUnsignedByte();
+        int player2ActiveIndex = in.readUnsignedByte();
+        boolean currentPlayerTurn = in.readBoolean();
+        int turnNumber = in.readInt();
+        int logTurnCounter = in.readInt();
+        long seed = in.readLong();
+        return new SessionRecord(sessionId, player1, player2, player1ActiveIndex, player2ActiveIndex,
+                currentPlayerTurn, turnNumber, logTurnCounter, seed);
+    }
+
+    private static PlayerRecord readPlayer(DataInputStream in) throws IOException {
+        Species[] all = Species.values();
+
+        String name = in.readUTF();
+        String token = in.readUTF();
+        int teamSize = in.readUnsignedByte();
+        List<Species> team = new ArrayList<>(teamSize);
+        for (int i = 0; i < teamSize; i++) {
+            int ordinal = in.readUnsignedByte();
+            if (ordinal >= all.length) {
+                throw new IOException("Espécie desconhecida no snapshot: " + ordinal);
+            }
+            team.add(all[ordinal]);
+        }
+        int[] hp = new int[in.readUnsignedByte()];
+        for (int i = 0; i < hp.length; i++) {
+            hp[i] = in.readUnsignedShort();
+        }
+        byte[] pp = new byte[in.readUnsignedShort()];
+        in.readFully(pp);
+        return new PlayerRecord(name, token, team, hp, pp);
+    }
+}
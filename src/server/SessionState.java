@@ -0,0 +1,11 @@
+package server;
+
+/**
+ * Ciclo de vida de uma {@link GameSession}:
+ * ACTIVE -> ENDED_AWAITING_REMATCH -> CLOSED (ou ACTIVE -> CLOSED em desconexões)
+ */
+public enum SessionState {
+    ACTIVE,                 // Batalha em andamento (ou aguardando retomada)
+    ENDED_AWAITING_REMATCH, // Batalha terminou; sessão retida para uma possível revanche
+    CLOSED                  // Encerrada; pode ser removida do registro
+}
@@ -0,0 +1,83 @@
+package server;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Pool fixo de loops que processam as caixas de mensagens das sessões.
+ * Cada sessão fica presa a um único loop (hash do sessionId), então seus
+ * comandos rodam sempre em série, na mesma thread, sem locks no estado da batalha.
+ * As threads de I/O apenas enfileiram comandos.
+ */
+public class SessionWorkerPool {
+
+    /**
+     * Loop de uma thread: executa as sessões que têm comandos pendentes
+     */
+    public static final class Worker extends Thread {
+
+        private final BlockingQueue<GameSession> runQueue = new LinkedBlockingQueue<>();
+        private volatile boolean running = true;
+
+        Worker(String name) {
+            setName(name);
+            setDaemon(true);
+        }
+
+        void schedule(GameSession session) {
+            runQueue.offer(session);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    runQueue.take().drainMailbox();
+                } catch (InterruptedException e) {
+                    break;
+                } catch (RuntimeException e) {
+                    Log.error(LogCategory.SESSION, "Erro no {}: {}", getName(), e.getMessage());
+                }
+            }
+        }
+
+        void shutdown() {
+            running = false;
+            interrupt();
+        }
+
+        public int getPendingSessions() {
+            return runQueue.size();
+        }
+    }
+
+    private final Worker[] workers;
+
+    public SessionWorkerPool(int threads) {
+        this.workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker("SessionWorker-" + i);
+            workers[i].start();
+        }
+        Log.info(LogCategory.SERVER, "⚙️ {} loop(s) de sessão", workers.length);
+    }
+
+    /**
+     * Loop responsável pela sessão (sempre o mesmo para o mesmo sessionId)
+     */
+    public Worker workerFor(String sessionId) {
+        return workers[Math.floorMod(sessionId.hashCode(), workers.length)];
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    public void shutdown() {
+        for (Worker worker : workers) {
+            worker.shutdown();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package server;
+
+import network.BattleInitPayload;
+import network.BattleStateDTO;
+import network.MessageType;
+import network.SharedFrame;
+import network.TurnResult;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Espectadores de uma sessão. Cada evento da batalha vira um {@link SharedFrame}
+ * codificado uma vez e escrito na fila de saída de todos os espectadores; o
+ * custo por espectador é só o enfileiramento. Quem chega no meio recebe o
+ * início da batalha e o último estado liberado (três frames, também
+ * compartilhados). Com atraso (torneios), os eventos ficam retidos por
+ * delayMillis antes de serem liberados, e a recuperação também usa o estado
+ * atrasado.
+ *
+ * Os eventos vêm do loop da sessão e, com atraso, são liberados pelo timer;
+ * entradas e saídas chegam das threads dos clientes. Tudo sob o monitor do hub.
+ */
+public class SpectatorHub {
+
+    /**
+     * Evento da batalha; stateAfter é o estado para a recuperação após ele (ou null)
+     */
+    private static final class Event {
+        final SharedFrame frame;
+        final SharedFrame stateAfter;
+
+        Event(SharedFrame frame, SharedFrame stateAfter) {
+            this.frame = frame;
+            this.stateAfter = stateAfter;
+        }
+    }
+
+    private final String sessionId;
+    private final HashedWheelTimer timer;
+    private final long delayMillis;
+
+    private final List<ClientHandler> spectators = new ArrayList<>();
+    private final ArrayDeque<Event> delayed = new ArrayDeque<>();
+
+    // Recuperação para quem chega: início da batalha e último estado já liberados
+    private SharedFrame init;
+    private SharedFrame names;
+    private SharedFrame state;
+    private boolean finished = false; // Fim já liberado: não aceita novos espectadores
+
+    private long framesSent;
+
+    public SpectatorHub(String sessionId, HashedWheelTimer timer, long delayMillis) {
+        this.sessionId = sessionId;
+        this.timer = timer;
+        this.delayMillis = timer != null ? Math.max(0, delayMillis) : 0;
+    }
+
+    // === ESPECTADORES ===
+
+    /**
+     * Adiciona o espectador e envia a recuperação; false se a batalha já acabou
+     */
+    public synchronized boolean join(ClientHandler spectator) {
+        if (finished) {
+            return false;
+        }
+        if (init != null) {
+            spectator.sendFrame(init);
+            spectator.sendFrame(names);
+            spectator.sendFrame(state);
+        }
+        spectators.add(spectator);
+        Log.info(LogCategory.SESSION, "👀 {} assistindo a sessão {} ({} espectadores)",
+                spectator.getPlayerName(), sessionId, spectators.size());
+        return true;
+    }
+
+    public synchronized void leave(ClientHandler spectator) {
+        spectators.remove(spectator);
+    }
+
+    public synchronized int getSpectatorCount() {
+        return spectators.size();
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    // === EVENTOS (loop da sessão) ===
+
+    /**
+     * Início (ou retomada) da batalha na visão do player1
+     */
+    public void begin(BattleInitPayload payload, String player1, String player2, BattleStateDTO initial) {
+        SharedFrame current = new SharedFrame(MessageType.BATTLE_STATE, "Server", initial);
+        submit(new Event(new SharedFrame(MessageType.BATTLE_INIT, "Server", payload), null),
+                new Event(new SharedFrame(MessageType.BATTLE_START, "Server", player1 + " vs " + player2), null),
+                new Event(current, current));
+    }
+
+    /**
+     * Resultado de um turno (TURN_RESULT sem jogada para o espectador) e o estado após ele
+     */
+    public void publish(TurnResult turn, BattleStateDTO after) {
+        submit(new Event(new SharedFrame(MessageType.TURN_RESULT, "Server", turn),
+                new SharedFrame(MessageType.BATTLE_STATE, "Server", after)));
+    }
+
+    /**
+     * Fim da batalha: os espectadores recebem o resultado e deixam a sessão
+     */
+    public void finish(String result) {
+        submit(new Event(new SharedFrame(MessageType.SPECTATE_END, "Server", result), null));
+    }
+
+    private void submit(Event... events) {
+        synchronized (this) {
+            if (delayMillis == 0) {
+                for (Event event : events) {
+                    release(event);
+                }
+                return;
+            }
+            for (Event event : events) {
+                delayed.addLast(event);
+            }
+        }
+        // Todos os prazos têm o mesmo atraso: cada disparo libera os mais antigos
+        timer.newTimeout(() -> releaseOldest(events.length), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void releaseOldest(int count) {
+        for (int i = 0; i < count && !delayed.isEmpty(); i++) {
+            release(delayed.pollFirst());
+        }
+    }
+
+    /**
+     * Libera um evento: atualiza a recuperação e escreve o frame para todos
+     */
+    private void release(Event event) {
+        if (finished) {
+            return;
+        }
+        switch (event.frame.getType()) {
+            case BATTLE_INIT:
+                init = event.frame;
+                break;
+            case BATTLE_START:
+                names = event.frame;
+                break;
+            default:
+                break;
+        }
+        if (event.stateAfter != null) {
+            state = event.stateAfter;
+        }
+
+        fanOut(event.frame);
+
+        if (event.frame.getType() == MessageType.SPECTATE_END) {
+            finished = true;
+            Log.debug(LogCategory.SESSION, "👀 Sessão {}: {} frames para {} espectadores",
+                    sessionId, framesSent, spectators.size());
+            spectators.clear();
+        }
+    }
+
+    private void fanOut(SharedFrame frame) {
+        for (int i = spectators.size() - 1; i >= 0; i--) {
+            ClientHandler spectator = spectators.get(i);
+            if (spectator.sendFrame(frame)) {
+                framesSent++;
+            } else if (!spectator.isConnected()) {
+                spectators.remove(i);
+            }
+        }
+    }
+}
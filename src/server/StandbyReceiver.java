@@ -0,0 +1,179 @@
+package server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import network.NetworkConstants;
+import logging.Log;
+import logging.LogCategory;
+
+/**
+ * Lado standby da replicação: recebe os lotes do primário, guarda o último
+ * estado de cada sessão e devolve esse estado quando o primário passa
+ * FAILOVER_TIMEOUT sem dar notícias, para este servidor assumir.
+ *
+ * Uma queda da conexão não basta: o standby volta a esperar e, se o primário
+ * reconectar dentro do prazo, continua a segui-lo. Um desligamento ordenado
+ * (quadro FRAME_SHUTDOWN) nunca leva à promoção, pois o primário guarda as
+ * sessões no próprio snapshot e as retoma ao reiniciar.
+ */
+public class StandbyReceiver {
+
+    private final int listenPort;
+    private final String advertiseHost;
+    private final int gamePort;
+
+    // sessionId -> último estado recebido (apenas na thread que chama awaitFailover)
+    private final Map<String, SessionSnapshot.SessionRecord> mirror = new HashMap<>();
+
+    private volatile ServerSocket serverSocket;
+    private volatile boolean stopped = false;
+
+    // Último quadro recebido do primário (0 = nenhum primário ativo: espera sem prazo)
+    private long lastHeard = 0;
+
+    public StandbyReceiver(int listenPort, String advertiseHost, int gamePort) {
+        this.listenPort = listenPort;
+        this.advertiseHost = advertiseHost;
+        this.gamePort = gamePort;
+    }
+
+    /**
+     * Bloqueia até o primário falhar e retorna as sessões a promover,
+     * ou null se o standby foi parado antes disso
+     */
+    public SessionSnapshot awaitFailover() {
+        try (ServerSocket listener = new ServerSocket(listenPort)) {
+            serverSocket = listener;
+            Log.info(LogCategory.SERVER, "🛟 Standby aguardando o primário na porta {}", listenPort);
+
+            while (!stopped) {
+                Socket primary;
+                try {
+                    listener.setSoTimeout(remainingBeforeFailover());
+                    primary = listener.accept();
+                } catch (SocketTimeoutException e) {
+                    Log.warn(LogCategory.SERVER, "⚠️ Primário sem notícias há {} ms", NetworkConstants.FAILOVER_TIMEOUT);
+                    return promote();
+                }
+
+                try (Socket connection = primary) {
+                    follow(connection);
+                    if (stopped) {
+                        return null;
+                    }
+                    // Desligamento ordenado: as sessões ficam com o primário
+                    Log.info(LogCategory.SERVER, "👋 Primário desligado normalmente; aguardando ele voltar");
+                    mirror.clear();
+                    lastHeard = 0;
+                } catch (SocketTimeoutException e) {
+                    Log.warn(LogCategory.SERVER, "⚠️ Primário sem notícias há {} ms", NetworkConstants.FAILOVER_TIMEOUT);
+                    return promote();
+                } catch (IOException e) {
+                    if (stopped) {
+                        return null;
+                    }
+                    Log.warn(LogCategory.SERVER, "⚠️ Conexão com o primário perdida ({}); aguardando reconexão",
+                            e.getMessage());
+                }
+            }
+            return null;
+
+        } catch (IOException e) {
+            if (!stopped) {
+                Log.error(LogCategory.SERVER, "❌ Erro no standby: {}", e.getMessage());
+            }
+            return null;
+        } finally {
+            serverSocket = null;
+        }
+    }
+
+    /**
+     * Prazo do accept: sem limite sem um primário ativo; depois de uma queda,
+     * o que falta para FAILOVER_TIMEOUT desde o último quadro recebido
+     */
+    private int remainingBeforeFailover() {
+        if (lastHeard == 0) {
+            return 0;
+        }
+        long remaining = lastHeard + NetworkConstants.FAILOVER_TIMEOUT - System.currentTimeMillis();
+        return (int) Math.max(1, remaining);
+    }
+
+    /**
+     * Aplica os lotes do primário até o desligamento ordenado (retorno normal),
+     * o fim dos heartbeats (SocketTimeoutException) ou a queda da conexão
+     */
+    private void follow(Socket primary) throws IOException {
+        primary.setTcpNoDelay(true);
+        primary.setSoTimeout(NetworkConstants.FAILOVER_TIMEOUT);
+        mirror.clear(); // O primário reenvia tudo a cada conexão
+        lastHeard = System.currentTimeMillis();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(primary.getInputStream(), 64 * 1024));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(primary.getOutputStream()));
+
+        out.writeByte(ReplicationSender.FRAME_HELLO);
+        out.writeUTF(advertiseHost);
+        out.writeInt(gamePort);
+        out.flush();
+        Log.info(LogCategory.SERVER, "🔁 Primário conectado: {}", primary.getRemoteSocketAddress());
+
+        try {
+            while (!stopped) {
+                int frame = in.readUnsignedByte();
+                lastHeard = System.currentTimeMillis();
+                if (frame == ReplicationSender.FRAME_SHUTDOWN) {
+                    return;
+                }
+                if (frame != ReplicationSender.FRAME_BATCH) {
+                    throw new IOException("Quadro de replicação desconhecido: " + frame);
+                }
+                long seq = in.readLong();
+                int upserts = in.readInt();
+                for (int i = 0; i < upserts; i++) {
+                    SessionSnapshot.SessionRecord record = SessionSnapshot.readSession(in);
+                    mirror.put(record.sessionId, record);
+                }
+                int removals = in.readInt();
+                for (int i = 0; i < removals; i++) {
+                    mirror.remove(in.readUTF());
+                }
+
+                out.writeByte(ReplicationSender.FRAME_ACK);
+                out.writeLong(seq);
+                out.flush();
+            }
+        } catch (EOFException e) {
+            throw new IOException("conexão encerrada sem aviso");
+        }
+    }
+
+    private SessionSnapshot promote() {
+        Log.info(LogCategory.SERVER, "🚨 Standby assumindo {} sessões", mirror.size());
+        return new SessionSnapshot(new ArrayList<>(mirror.values()), Collections.emptyList());
+    }
+
+    public void stop() {
+        stopped = true;
+        ServerSocket listener = serverSocket;
+        if (listener != null) {
+            try {
+                listener.close();
+            } catch (IOException e) {
+                // Ignorar
+            }
+        }
+    }
+}